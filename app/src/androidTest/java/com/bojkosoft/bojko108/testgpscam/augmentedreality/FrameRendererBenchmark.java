@@ -0,0 +1,85 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.SystemClock;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Draws a frame with 1000 quads in both {@link FrameRenderer} modes on a software canvas
+ * and logs the average time per frame. Every frame is published again, so paths and
+ * triangles are built for every draw, as when the mesh is rotating.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FrameRendererBenchmark {
+    private static final String TAG = "FrameRendererBenchmark";
+    private static final int FACES = 1000;
+    private static final int COLORS = 6;
+    private static final int WARMUP = 50;
+    private static final int FRAMES = 300;
+
+    private static ProjectedFrame createFrame() {
+        int[] capacities = new int[FACES];
+        for (int i = 0; i < FACES; i++) {
+            capacities[i] = 5;
+        }
+        ProjectedFrame frame = new ProjectedFrame(capacities);
+
+        double[] quad = new double[4 * VertexBuffer.STRIDE];
+        for (int face = 0; face < FACES; face++) {
+            double x = (face % 40) * 12;
+            double y = (face / 40) * 12;
+            quad[0] = x;
+            quad[1] = y;
+            quad[3] = x + 10;
+            quad[4] = y;
+            quad[6] = x + 10;
+            quad[7] = y + 10;
+            quad[9] = x;
+            quad[10] = y + 10;
+            frame.setFace(face, quad, 4, true);
+            frame.setColor(face, Color.rgb(40 * (face % COLORS), 255, 0));
+        }
+        return frame;
+    }
+
+    private static long measure(int mode) {
+        // all three frames have the same faces, every publish gives a new frame to draw
+        FrameExchange frames = new FrameExchange(createFrame(), createFrame(), createFrame());
+        FrameRenderer renderer = new FrameRenderer();
+        renderer.setMode(mode);
+        Bitmap bitmap = Bitmap.createBitmap(480, 300, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+
+        long start = 0;
+        for (int i = 0; i < WARMUP + FRAMES; i++) {
+            if (i == WARMUP) {
+                start = SystemClock.elapsedRealtimeNanos();
+            }
+            frames.publish();
+            canvas.drawColor(Color.BLACK);
+            renderer.draw(canvas, frames.getFrontFrame());
+        }
+        long time = (SystemClock.elapsedRealtimeNanos() - start) / FRAMES;
+
+        // the middle of the first quad
+        assertEquals(Color.rgb(0, 255, 0), bitmap.getPixel(5, 5));
+        assertEquals(WARMUP + FRAMES, renderer.getBuildCount());
+        return time;
+    }
+
+    @Test
+    public void draw_pathsAndVertices() throws Exception {
+        long paths = measure(FrameRenderer.MODE_PATHS);
+        long vertices = measure(FrameRenderer.MODE_VERTICES);
+
+        Log.i(TAG, FACES + " faces - paths: " + paths / 1000 + " us/frame, vertices: " + vertices / 1000 + " us/frame");
+    }
+}
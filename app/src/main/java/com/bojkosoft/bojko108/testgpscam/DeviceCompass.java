@@ -5,136 +5,388 @@ import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
-import android.view.Surface;
+import android.hardware.display.DisplayManager;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.view.Display;
 import android.view.WindowManager;
 
+import com.bojkosoft.bojko108.testgpscam.augmentedreality.AzimuthFilter;
+import com.bojkosoft.bojko108.testgpscam.augmentedreality.AzimuthFilterChain;
+import com.bojkosoft.bojko108.testgpscam.augmentedreality.CompassProcessor;
+import com.bojkosoft.bojko108.testgpscam.augmentedreality.SensorTraceRecorder;
+import com.bojkosoft.bojko108.testgpscam.augmentedreality.SubscriberBus;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+/**
+ * Orientation of the device from the rotation vector sensor. Sensor events are processed
+ * on a dedicated "DeviceCompass" thread and handed to any number of subscribers, each on
+ * its own handler or executor and at most at its own rate, see {@link SubscriberBus}. The
+ * sensor runs as fast as the most demanding subscriber needs.
+ */
 public class DeviceCompass implements SensorEventListener {
 
-    public interface OnOrientationChangedEventListener {
+    public interface OnOrientationChangedEventListener extends SubscriberBus.Listener {
         void onOrientationChanged(float azimuth, float pitch, float roll);
     }
 
+    /**
+     * 5 events per second, batched in the sensor FIFO for up to a second - a compass dial
+     * nobody looks at closely
+     */
+    public static final int PROFILE_LOW_POWER = SubscriberBus.PROFILE_LOW_POWER;
+    /**
+     * about 15 events per second, delivered as they come
+     */
+    public static final int PROFILE_UI = SubscriberBus.PROFILE_UI;
+    /**
+     * 50 events per second, delivered as they come - augmented reality overlays
+     */
+    public static final int PROFILE_AR_TRACKING = SubscriberBus.PROFILE_AR_TRACKING;
+    /**
+     * as fast as the sensor can, delivered as they come
+     */
+    public static final int PROFILE_MAX = SubscriberBus.PROFILE_MAX;
+
+    // sampling period and maximum report latency in microseconds, by profile
+    private static final int[] SAMPLING_PERIODS = new int[]{200000, 66667, 20000, 0};
+    private static final int[] REPORT_LATENCIES = new int[]{1000000, 0, 0, 0};
+
     private Context mContext;
 
-    // magnetic declination for BG can be set to +5 degrees
-    private double mDeclination = 5.0;
-    private double mAzimuthStep;
-    private double mOldAzimuth;
+    // all scratch matrices of the sensor events live here, events create no objects.
+    // Used on the sensor thread only, settings are posted to it while listening
+    private final CompassProcessor mProcessor = new CompassProcessor();
+    // sensor thread only. Volatile because every start of listening has a new sensor thread
+    private volatile SensorTraceRecorder mRecorder;
+    // file recorded to while listening, main thread only
+    private File mRecordingFile;
 
     private SensorManager mSensorManager;
     private Sensor mMagnetometer;
+    private int mProfile = PROFILE_UI;
+    private int mRegisteredProfile = -1;
+    private boolean mListening;
+    private HandlerThread mSensorThread;
+    private Handler mSensorHandler;
 
-    private OnOrientationChangedEventListener mOnOrientationChangedEventListener;
+    // display rotation is read when it changes, not on every sensor event
+    private DisplayManager mDisplayManager;
+    private Display mDisplay;
+    private final DisplayManager.DisplayListener mDisplayListener = new DisplayManager.DisplayListener() {
+        @Override
+        public void onDisplayAdded(int displayId) {
+        }
+
+        @Override
+        public void onDisplayRemoved(int displayId) {
+        }
+
+        @Override
+        public void onDisplayChanged(int displayId) {
+            if (displayId == mDisplay.getDisplayId()) {
+                updateDisplayRotation();
+            }
+        }
+    };
+
+    private final Runnable mCloseRecorderTask = new Runnable() {
+        @Override
+        public void run() {
+            closeRecorder();
+        }
+    };
+
+    private final Runnable mUpdateDisplayRotationTask = new Runnable() {
+        @Override
+        public void run() {
+            updateDisplayRotation();
+        }
+    };
+
+    private final SubscriberBus mSubscribers = new SubscriberBus();
+    // subscriber of the listener set with setOnOrientationChangedEventListener
+    private SubscriberBus.Subscriber mListenerSubscriber;
 
     public DeviceCompass(Context context) {
         this.mContext = context;
         this.mSensorManager = (SensorManager) this.mContext.getSystemService(Context.SENSOR_SERVICE);
         this.mMagnetometer = this.mSensorManager.getDefaultSensor(Sensor.TYPE_ROTATION_VECTOR);
+        this.mDisplayManager = (DisplayManager) this.mContext.getSystemService(Context.DISPLAY_SERVICE);
+        this.mDisplay = ((WindowManager) this.mContext.getSystemService(Context.WINDOW_SERVICE)).getDefaultDisplay();
+        this.updateDisplayRotation();
     }
 
-    public void setAzimuthStep(double azimuthStep) {
-        if (azimuthStep < 0) azimuthStep = 0;
-        this.mAzimuthStep = azimuthStep;
+    public void setAzimuthStep(final double azimuthStep) {
+        this.runOnSensorThread(new Runnable() {
+            @Override
+            public void run() {
+                mProcessor.setAzimuthStep(azimuthStep);
+            }
+        });
     }
 
-    public void setDeclination(double declination) {
-        this.mDeclination = declination;
+    /**
+     * smooth the azimuth before the azimuth step is applied, see {@link AzimuthFilterChain}
+     *
+     * @param filter - azimuth filter, null for raw azimuths
+     */
+    public void setAzimuthFilter(final AzimuthFilter filter) {
+        this.runOnSensorThread(new Runnable() {
+            @Override
+            public void run() {
+                mProcessor.setAzimuthFilter(filter);
+            }
+        });
+    }
+
+    public void setDeclination(final double declination) {
+        this.runOnSensorThread(new Runnable() {
+            @Override
+            public void run() {
+                mProcessor.setDeclination(declination);
+            }
+        });
+    }
+
+    /**
+     * Set how often the sensor reports and how long it may keep events in its FIFO, for the
+     * listener set with {@link #setOnOrientationChangedEventListener(OnOrientationChangedEventListener)}.
+     * Subscribers may make the sensor run faster. Can be changed while listening, the
+     * sensor is registered again with the new rates and all listeners stay as they are.
+     * Sensors without a FIFO report every event as it comes.
+     *
+     * @param profile - {@link #PROFILE_LOW_POWER}, {@link #PROFILE_UI}, {@link #PROFILE_AR_TRACKING} or {@link #PROFILE_MAX}
+     */
+    public void setRateProfile(int profile) {
+        if (profile < PROFILE_LOW_POWER || profile > PROFILE_MAX) {
+            throw new IllegalArgumentException("unknown rate profile " + profile);
+        }
+        this.mProfile = profile;
+        this.updateSensorRate();
+    }
+
+    public int getRateProfile() {
+        return this.mProfile;
     }
 
     public void startListening() {
-        this.mSensorManager.registerListener(this, this.mMagnetometer, SensorManager.SENSOR_DELAY_UI);
+        if (this.mListening) {
+            return;
+        }
+        this.mListening = true;
+        this.mSensorThread = new HandlerThread("DeviceCompass", Process.THREAD_PRIORITY_DISPLAY);
+        this.mSensorThread.start();
+        this.mSensorHandler = new Handler(this.mSensorThread.getLooper());
+        // the rotation may have changed while nobody listened
+        this.mSensorHandler.post(this.mUpdateDisplayRotationTask);
+        this.mDisplayManager.registerDisplayListener(this.mDisplayListener, this.mSensorHandler);
+        if (this.mRecordingFile != null) {
+            this.openRecorder(this.mRecordingFile);
+        }
+        this.registerSensor();
     }
 
     public void stopListening() {
+        if (!this.mListening) {
+            return;
+        }
+        this.mListening = false;
         this.mSensorManager.unregisterListener(this);
+        this.mDisplayManager.unregisterDisplayListener(this.mDisplayListener);
+        this.mRegisteredProfile = -1;
+        // the recording ends with the last event, on the sensor thread
+        this.mRecordingFile = null;
+        this.mSensorHandler.post(this.mCloseRecorderTask);
+        // settings posted before stopping are still applied. Wait for them, afterwards
+        // settings are applied on this thread and must not run at the same time
+        this.mSensorThread.quitSafely();
+        try {
+            this.mSensorThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.mSensorThread = null;
+        this.mSensorHandler = null;
     }
 
+    /**
+     * Record all sensor events in a trace file, to replay them with SensorTraceReplayer.
+     * Replaces a recording in progress. The file is opened on the sensor thread when
+     * listening starts, or now if the compass is listening already, and closed by
+     * {@link #stopRecording()} or {@link #stopListening()}. Errors are only logged.
+     *
+     * @param file - trace file, it is replaced if it exists
+     */
+    public void startRecording(File file) {
+        this.mRecordingFile = file;
+        if (this.mListening) {
+            this.openRecorder(file);
+        }
+    }
+
+    /**
+     * stop recording and write the rest of the trace file
+     */
+    public void stopRecording() {
+        this.mRecordingFile = null;
+        if (this.mListening) {
+            this.mSensorHandler.post(this.mCloseRecorderTask);
+        }
+    }
+
+    private void openRecorder(final File file) {
+        this.mSensorHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                closeRecorder();
+                try {
+                    mRecorder = new SensorTraceRecorder(file);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+
+    // sensor thread only
+    private void closeRecorder() {
+        SensorTraceRecorder recorder = this.mRecorder;
+        if (recorder != null) {
+            this.mRecorder = null;
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Listener called on the main thread for every reported change. Replaces the listener
+     * set before, subscribers stay.
+     *
+     * @param eventListener - listener, null for none
+     */
     public void setOnOrientationChangedEventListener(OnOrientationChangedEventListener eventListener) {
-        this.mOnOrientationChangedEventListener = eventListener;
+        if (this.mListenerSubscriber != null) {
+            this.mSubscribers.remove(this.mListenerSubscriber);
+            this.mListenerSubscriber = null;
+        }
+        if (eventListener != null) {
+            this.mListenerSubscriber = this.mSubscribers.addWithDefaultProfile(eventListener, new HandlerExecutor(new Handler(Looper.getMainLooper())));
+        }
+        this.updateSensorRate();
+    }
+
+    /**
+     * Add a listener called at most maxRate times per second, on a handler. Changes between
+     * calls are merged, the listener gets the latest orientation.
+     *
+     * @param listener - listener
+     * @param maxRate  - maximum calls per second, 0 or less for every change
+     * @param handler  - handler the listener is called on, null for the sensor thread
+     */
+    public void addSubscriber(OnOrientationChangedEventListener listener, double maxRate, Handler handler) {
+        this.addSubscriber(listener, maxRate, handler != null ? new HandlerExecutor(handler) : null);
+    }
+
+    /**
+     * Add a listener called at most maxRate times per second, on an executor. Changes between
+     * calls are merged, the listener gets the latest orientation.
+     *
+     * @param listener - listener
+     * @param maxRate  - maximum calls per second, 0 or less for every change
+     * @param executor - executor the listener is called on, null for the sensor thread
+     */
+    public void addSubscriber(OnOrientationChangedEventListener listener, double maxRate, Executor executor) {
+        this.mSubscribers.add(listener, maxRate, executor);
+        this.updateSensorRate();
+    }
+
+    /**
+     * Remove a listener added with addSubscriber. The listener set with
+     * {@link #setOnOrientationChangedEventListener(OnOrientationChangedEventListener)} is
+     * removed by setting null.
+     *
+     * @param listener - listener added with addSubscriber
+     */
+    public void removeSubscriber(OnOrientationChangedEventListener listener) {
+        if (this.mSubscribers.remove(listener)) {
+            this.updateSensorRate();
+        }
+    }
+
+    /**
+     * @return profile the sensor should run with - the fastest any subscriber needs, or the
+     * rate profile if there are no subscribers or a listener is set
+     */
+    private int getDemandedProfile() {
+        return this.mSubscribers.getDemandedProfile(this.mProfile);
+    }
+
+    private void updateSensorRate() {
+        if (this.mListening && this.getDemandedProfile() != this.mRegisteredProfile) {
+            this.mSensorManager.unregisterListener(this, this.mMagnetometer);
+            this.registerSensor();
+        }
+    }
+
+    private void registerSensor() {
+        int profile = this.getDemandedProfile();
+        this.mRegisteredProfile = profile;
+        this.mSensorManager.registerListener(this, this.mMagnetometer, SAMPLING_PERIODS[profile], REPORT_LATENCIES[profile], this.mSensorHandler);
+    }
+
+    private void runOnSensorThread(Runnable task) {
+        if (this.mSensorHandler != null) {
+            this.mSensorHandler.post(task);
+        } else {
+            task.run();
+        }
     }
 
     @Override
     public void onSensorChanged(SensorEvent event) {
-        float[] orientation = new float[3];
-        float[] rotationMatrix = new float[16];
-        float[] remappedMatrix = new float[16];
-        SensorManager.getRotationMatrixFromVector(rotationMatrix, event.values.clone());
-
-        WindowManager windowManager = (WindowManager) this.mContext.getSystemService(Context.WINDOW_SERVICE);
-        int rot = windowManager.getDefaultDisplay().getRotation();
-
-        boolean isFlat = this.isDeviceFlat(event.values.clone());
-
-        double azimuth = Double.NaN;
-
-        if (!isFlat) {
-            SensorManager.remapCoordinateSystem(rotationMatrix, SensorManager.AXIS_X, SensorManager.AXIS_Z, remappedMatrix);
-            SensorManager.getOrientation(remappedMatrix, orientation);
-
-            azimuth = (Math.toDegrees(orientation[0]) + 360) % 360;
-        }
-
-        switch (rot) {
-            case Surface.ROTATION_0:
-                // No orientation change, use default coordinate system
-                SensorManager.getOrientation(rotationMatrix, orientation);
-                break;
-            case Surface.ROTATION_90:
-                SensorManager.remapCoordinateSystem(rotationMatrix, SensorManager.AXIS_Y, SensorManager.AXIS_MINUS_X, remappedMatrix);
-                SensorManager.getOrientation(remappedMatrix, orientation);
-                break;
-            case Surface.ROTATION_180:
-                SensorManager.remapCoordinateSystem(rotationMatrix, SensorManager.AXIS_MINUS_X, SensorManager.AXIS_MINUS_Y, remappedMatrix);
-                SensorManager.getOrientation(remappedMatrix, orientation);
-                break;
-            case Surface.ROTATION_270:
-                // tilt to right
-                SensorManager.remapCoordinateSystem(rotationMatrix, SensorManager.AXIS_MINUS_Y, SensorManager.AXIS_X, remappedMatrix);
-                SensorManager.getOrientation(remappedMatrix, orientation);
-                break;
-            default:
-                SensorManager.getOrientation(rotationMatrix, orientation);
-                break;
-        }
-
-        // orientation[0]: Azimuth
-        //
-        // Angle of rotation about the z axis.
-        // This value represents the angle between the device's y axis
-        // and the magnetic north pole. When facing north, this angle is 0,
-        // when facing south, this angle is π. Likewise, when facing east,
-        // this angle is π/2, and when facing west, this angle is -π/2.
-        //
-        // The range of values is -π to π.
-
-        if (Double.isNaN(azimuth)) {
-            azimuth = (Math.toDegrees(orientation[0]) + 360) % 360;
-        }
-
-        azimuth += this.mDeclination;
-
-        if (Math.abs(this.mOldAzimuth - azimuth) > this.mAzimuthStep) {
-            this.mOldAzimuth = azimuth;
-            // broadcast orientation values
-            if (this.mOnOrientationChangedEventListener != null) {
-                this.mOnOrientationChangedEventListener.onOrientationChanged((float) azimuth, (float) Math.toDegrees(orientation[1]), (float) Math.toDegrees(orientation[2]));
+        SensorTraceRecorder recorder = this.mRecorder;
+        if (recorder != null) {
+            try {
+                recorder.record(event.timestamp, event.values, event.accuracy, this.mProcessor.getDisplayRotation());
+            } catch (IOException e) {
+                e.printStackTrace();
+                this.closeRecorder();
             }
         }
+        boolean changed = this.mProcessor.process(event.values, event.timestamp);
+        float azimuth = (float) this.mProcessor.getAzimuth();
+        float pitch = (float) this.mProcessor.getPitch();
+        float roll = (float) this.mProcessor.getRoll();
+        this.mSubscribers.publish(event.timestamp, changed, azimuth, pitch, roll);
     }
 
     @Override
     public void onAccuracyChanged(Sensor sensor, int accuracy) {
     }
 
-    private double mod(double a, double b) {
-        return a % b;
+    private void updateDisplayRotation() {
+        this.mProcessor.setDisplayRotation(this.mDisplay.getRotation());
     }
 
-    private boolean isDeviceFlat(float[] values) {
-        float z = values[2];
-        float norm_of_g = (float) Math.sqrt(values[0] * values[0] + values[1] * values[1] + z * z);
-        z = z / norm_of_g;
-        int inclination = (int) Math.round(Math.toDegrees(Math.acos(z)));
-        return (inclination < 30 || inclination > 150);
+    private static class HandlerExecutor implements Executor {
+        private final Handler mHandler;
+
+        HandlerExecutor(Handler handler) {
+            this.mHandler = handler;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            this.mHandler.post(command);
+        }
     }
 }
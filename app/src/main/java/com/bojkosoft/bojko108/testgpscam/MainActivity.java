@@ -15,6 +15,10 @@ import android.view.View;
 import android.widget.ImageView;
 import android.widget.TextView;
 
+import com.bojkosoft.bojko108.testgpscam.augmentedreality.AzimuthFilterChain;
+import com.bojkosoft.bojko108.testgpscam.augmentedreality.HysteresisGate;
+import com.bojkosoft.bojko108.testgpscam.augmentedreality.KalmanHeadingFilter;
+
 public class MainActivity extends Activity implements View.OnClickListener, DeviceCompass.OnOrientationChangedEventListener {
     // GPS Permissions
     private static final int REQUEST_PERMISSION = 1;
@@ -62,6 +66,8 @@ public class MainActivity extends Activity implements View.OnClickListener, Devi
 
         this.deviceCompass = new DeviceCompass(this);
         this.deviceCompass.setOnOrientationChangedEventListener(this);
+        // steady dial - smooth the sensor noise and turn only for changes over half a degree
+        this.deviceCompass.setAzimuthFilter(new AzimuthFilterChain(new KalmanHeadingFilter(100, 4), new HysteresisGate(0.5)));
 
         findViewById(R.id.buttonCamera).setOnClickListener(this);
         findViewById(R.id.buttonAr).setOnClickListener(this);
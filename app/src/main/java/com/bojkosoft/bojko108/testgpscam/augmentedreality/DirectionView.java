@@ -2,19 +2,81 @@ package com.bojkosoft.bojko108.testgpscam.augmentedreality;
 
 import android.content.Context;
 import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
 import android.util.AttributeSet;
+import android.view.Choreographer;
 import android.view.View;
 import android.widget.RelativeLayout;
 
-import java.util.ArrayList;
-import java.util.List;
-
-public class DirectionView extends RelativeLayout {
+/**
+ * Rotation updates only store the latest orientation. Once per display frame, in a
+ * {@link Choreographer} frame callback, the latest rotation is handed to a worker thread,
+ * however many sensor events arrived since the last one. The worker projects the mesh,
+ * publishes a {@link ProjectedFrame} and invalidates the area which changed. onDraw only
+ * draws the latest published frame back to front, so the work on the UI thread does
+ * not depend on the size of the mesh. Faces are drawn by a {@link FrameRenderer}, which
+ * builds paths or triangles only once per published frame - redraws caused by other
+ * views or layout passes draw what was built already. Rasterized frames are rendered by
+ * the worker, onDraw only draws their bitmap.
+ * <p>
+ * The view shows a cube by default, any {@link Mesh} can be set with {@link #setMesh(Mesh)}.
+ */
+public class DirectionView extends RelativeLayout implements Choreographer.FrameCallback {
 
     private static final double CAMERA_FOV = Math.toRadians(90);
     private static final double CAMERA_DISTANCE = 0.01;
 
-    private List<FaceClass> mFaces;
+    // replaced by the worker when the mesh changes
+    private volatile FrameExchange mFrames;
+
+    // UI thread
+    private FrameRenderer mRenderer;
+    // rotation shared by all faces, composed on every update
+    private Matrix3 mRotation;
+    // latest rotation not handed to the worker yet
+    private RotationCoalescer mUpdates;
+    // interpolated orientation used by setNewRotation(from, to, t)
+    private Quaternion mOrientation;
+    private Choreographer mChoreographer;
+    private boolean mFrameScheduled;
+
+    // hand over from the UI thread to the worker, guarded by itself
+    private final Matrix3 mHandoff = new Matrix3();
+    private int mHandoffWidth;
+    private int mHandoffHeight;
+    private Mesh mHandoffMesh;
+
+    // worker thread
+    private HandlerThread mWorker;
+    private Handler mWorkerHandler;
+    private Mesh mMesh;
+    private MeshProjector mProjector;
+    private ClipSpace mClipSpace;
+    private Matrix3 mWorkerRotation;
+    // draw mode the last frame was published for
+    private int mWorkerMode = -1;
+    // union of the screen bounds of the faces in this and the previous frame
+    private DirtyRegion mDirty;
+    private volatile long mFrameCount;
+    private volatile long mUnchangedFrameCount;
+
+    private final Runnable mProjectTask = new Runnable() {
+        @Override
+        public void run() {
+            projectFrame();
+        }
+    };
+
+    private final Runnable mReleaseTask = new Runnable() {
+        @Override
+        public void run() {
+            mRenderer.release();
+            mClipSpace.shutdown();
+        }
+    };
 
     public DirectionView(Context context) {
         super(context);
@@ -41,101 +103,298 @@ public class DirectionView extends RelativeLayout {
     }
 
     @Override
-    protected void onDraw(Canvas canvas) {
-        super.onDraw(canvas);
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        // the viewport and the size of rasterized frames change
+        this.mUpdates.invalidate();
+        this.scheduleFrame();
+    }
 
-        for (FaceClass face : this.mFaces) {
-            if (face.isVisible()) {
-                canvas.drawPath(face.getFace(), face.getPaint());
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        this.mWorker = new HandlerThread("DirectionView");
+        this.mWorker.start();
+        this.mWorkerHandler = new Handler(this.mWorker.getLooper());
+
+        if (this.mUpdates.hasPending()) {
+            this.scheduleFrame();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        this.mChoreographer.removeFrameCallback(this);
+        this.mFrameScheduled = false;
+
+        this.mWorkerHandler.removeCallbacks(this.mProjectTask);
+        // the rasterizer and the clip space threads belong to the worker, they are released after the last frame
+        this.mWorkerHandler.post(this.mReleaseTask);
+        this.mWorker.quitSafely();
+        this.mWorker = null;
+        this.mWorkerHandler = null;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        this.mFrameScheduled = false;
+
+        if (this.mWorkerHandler != null && this.mUpdates.hasPending()) {
+            synchronized (this.mHandoff) {
+                this.mUpdates.take(this.mHandoff);
+                this.mHandoffWidth = getWidth();
+                this.mHandoffHeight = getHeight();
             }
+            // if the last task is still queued it will pick up the new rotation
+            this.mWorkerHandler.removeCallbacks(this.mProjectTask);
+            this.mWorkerHandler.post(this.mProjectTask);
         }
     }
 
-    private void initView() {
-        this.mFaces = new ArrayList<FaceClass>();
-
-        double[][] points = new double[][]{
-                {-1, 1, 0},     // 0
-                {1, 1, 0},    // 1
-                {1, -1, 0},      // 2
-                {-1, -1, 0},     // 3
-                {-1, 1, 1},     // 4
-                {1, 1, 1},    // 5
-                {1, -1, 1},      // 6
-                {-1, -1, 1}      // 7
-        };
-
-        Vector3D[] vertices;
-
-        vertices = new Vector3D[]{
-                new Vector3D(points[3]),
-                new Vector3D(points[2]),
-                new Vector3D(points[1]),
-                new Vector3D(points[0])
-        };
-        this.mFaces.add(new FaceClass("BOTTOM", "#000000", vertices));
-
-        vertices = new Vector3D[]{
-                new Vector3D(points[1]),
-                new Vector3D(points[2]),
-                new Vector3D(points[6]),
-                new Vector3D(points[5])
-        };
-        this.mFaces.add(new FaceClass("RIGHT", "#00ff00", vertices));
-
-        vertices = new Vector3D[]{
-                new Vector3D(points[0]),
-                new Vector3D(points[4]),
-                new Vector3D(points[7]),
-                new Vector3D(points[3])
-        };
-        this.mFaces.add(new FaceClass("LEFT", "#ffff00", vertices));
-
-        vertices = new Vector3D[]{
-                new Vector3D(points[2]),
-                new Vector3D(points[3]),
-                new Vector3D(points[7]),
-                new Vector3D(points[6])
-        };
-        this.mFaces.add(new FaceClass("BACK", "#00ffff", vertices));
-
-        vertices = new Vector3D[]{
-                new Vector3D(points[0]),
-                new Vector3D(points[1]),
-                new Vector3D(points[5]),
-                new Vector3D(points[4])
-        };
-        this.mFaces.add(new FaceClass("FRONT", "#ff0000", vertices));
-
-        vertices = new Vector3D[]{
-                new Vector3D(points[4]),
-                new Vector3D(points[5]),
-                new Vector3D(points[6]),
-                new Vector3D(points[7])
-        };
-        this.mFaces.add(new FaceClass("TOP", "#c0c0c0", vertices));
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        this.mRenderer.draw(canvas, this.mFrames.getFrontFrame());
     }
 
-    public void setNewRotation(float rX, float rY, float rZ) {
-        for (FaceClass face : this.mFaces) {
-            face.project(getWidth() / 2, getHeight() / 2, CAMERA_FOV, CAMERA_DISTANCE, rX, rY, rZ);
+    /**
+     * Draw faces as paths, all at once with Canvas.drawVertices or rasterized with a depth
+     * buffer. Hardware acceleration supports drawVertices only from API 29, so on older
+     * devices the view is drawn in a software layer in that mode. The frame is projected
+     * again, rasterized frames are rendered by the worker.
+     *
+     * @param mode - {@link FrameRenderer#MODE_PATHS}, {@link FrameRenderer#MODE_VERTICES} or {@link FrameRenderer#MODE_RASTER}
+     */
+    public void setDrawMode(int mode) {
+        this.mRenderer.setMode(mode);
+        if (Build.VERSION.SDK_INT < 29) {
+            this.setLayerType(mode == FrameRenderer.MODE_VERTICES ? View.LAYER_TYPE_SOFTWARE : View.LAYER_TYPE_NONE, null);
         }
         this.invalidate();
+        this.mUpdates.invalidate();
+        this.scheduleFrame();
     }
 
+    public int getDrawMode() {
+        return this.mRenderer.getMode();
+    }
 
+    /**
+     * @return number of times paths or triangles were built, at most once per published frame
+     */
+    public long getPathBuildCount() {
+        return this.mRenderer.getBuildCount();
+    }
+
+    /**
+     * Show another mesh. The mesh is handed to the worker thread, it must not be changed
+     * afterwards.
+     *
+     * @param mesh - mesh to show
+     */
+    public void setMesh(Mesh mesh) {
+        synchronized (this.mHandoff) {
+            this.mHandoffMesh = mesh;
+        }
+        this.mUpdates.invalidate();
+        this.scheduleFrame();
+    }
+
+    private void initView() {
+        this.mClipSpace = new ClipSpace();
+        this.mRotation = new Matrix3();
+        this.mUpdates = new RotationCoalescer();
+        this.mWorkerRotation = new Matrix3();
+        this.mOrientation = new Quaternion();
+        this.mDirty = new DirtyRegion();
+        this.mChoreographer = Choreographer.getInstance();
+
+        this.mRenderer = new FrameRenderer();
+        this.mRenderer.setCameraDistance(CAMERA_DISTANCE);
+
+        // nothing to draw until the first frame is projected
+        this.mFrames = new FrameExchange(new ProjectedFrame(new int[0]), new ProjectedFrame(new int[0]), new ProjectedFrame(new int[0]));
+        this.setMesh(createCube());
+    }
+
+    private static Mesh createCube() {
+        Mesh mesh = new Mesh(8, 6);
+
+        mesh.addVertex(-1, 1, 0);   // 0
+        mesh.addVertex(1, 1, 0);    // 1
+        mesh.addVertex(1, -1, 0);   // 2
+        mesh.addVertex(-1, -1, 0);  // 3
+        mesh.addVertex(-1, 1, 1);   // 4
+        mesh.addVertex(1, 1, 1);    // 5
+        mesh.addVertex(1, -1, 1);   // 6
+        mesh.addVertex(-1, -1, 1);  // 7
+
+        mesh.addFace(Color.parseColor("#000000"), 3, 2, 1, 0);  // BOTTOM
+        mesh.addFace(Color.parseColor("#00ff00"), 1, 2, 6, 5);  // RIGHT
+        mesh.addFace(Color.parseColor("#ffff00"), 0, 4, 7, 3);  // LEFT
+        mesh.addFace(Color.parseColor("#00ffff"), 2, 3, 7, 6);  // BACK
+        mesh.addFace(Color.parseColor("#ff0000"), 0, 1, 5, 4);  // FRONT
+        mesh.addFace(Color.parseColor("#c0c0c0"), 4, 5, 6, 7);  // TOP
+
+        return mesh;
+    }
+
+    public void setNewRotation(float rX, float rY, float rZ) {
+        this.mRotation.setRotation(rX, rY, rZ);
+        this.requestFrame();
+    }
 
+    /**
+     * rotate the view with a quaternion, no Euler angles are involved
+     *
+     * @param orientation - unit quaternion
+     */
+    public void setNewRotation(Quaternion orientation) {
+        orientation.toMatrix(this.mRotation);
+        this.requestFrame();
+    }
 
+    /**
+     * rotate the view to an orientation between two sensor samples
+     *
+     * @param from - orientation at t = 0
+     * @param to   - orientation at t = 1
+     * @param t    - interpolation factor from 0 to 1
+     */
+    public void setNewRotation(Quaternion from, Quaternion to, float t) {
+        this.setNewRotation(this.mOrientation.nlerp(from, to, t));
+    }
 
     public void updateRotation(float currentDirection, float targetDirection, float tilt) {
         float rX = (tilt > 40 ? 40 : tilt) * -1;
         float rZ = this.calculateHorizontalRotation(currentDirection, targetDirection);
 
-        for (FaceClass face : this.mFaces) {
-            face.project(getWidth() / 2, getHeight() / 2, CAMERA_FOV, CAMERA_DISTANCE, rX, 0, rZ);
+        this.mRotation.setRotation(rX, 0, rZ);
+        this.requestFrame();
+    }
+
+    /**
+     * @return number of rotation updates received
+     */
+    public long getUpdateCount() {
+        return this.mUpdates.getUpdateCount();
+    }
+
+    /**
+     * @return number of rotation updates replaced by a newer one before they were projected
+     */
+    public long getCoalescedCount() {
+        return this.mUpdates.getCoalescedCount();
+    }
+
+    /**
+     * @return number of rotation updates dropped because the rotation did not change
+     */
+    public long getDroppedCount() {
+        return this.mUpdates.getDroppedCount();
+    }
+
+    /**
+     * @return number of frames in which the faces were projected
+     */
+    public long getFrameCount() {
+        return this.mFrameCount;
+    }
+
+    /**
+     * @return number of projected frames in which no face moved, so nothing was redrawn
+     */
+    public long getUnchangedFrameCount() {
+        return this.mUnchangedFrameCount;
+    }
+
+    public void resetCounters() {
+        this.mUpdates.resetCounters();
+        this.mFrameCount = 0;
+        this.mUnchangedFrameCount = 0;
+    }
+
+    /**
+     * Hand the new rotation to the coalescer and make sure a frame callback is scheduled.
+     * Only one callback is posted at a time and none is posted for a rotation equal to the
+     * waiting or the last projected one.
+     */
+    private void requestFrame() {
+        if (this.mUpdates.offer(this.mRotation)) {
+            this.scheduleFrame();
+        }
+    }
+
+    private void scheduleFrame() {
+        if (!this.mFrameScheduled && this.isAttachedToWindow()) {
+            this.mFrameScheduled = true;
+            this.mChoreographer.postFrameCallback(this);
         }
+    }
 
-        this.invalidate();
+    /**
+     * worker thread - project the mesh with the latest rotation and publish it
+     */
+    private void projectFrame() {
+        int width;
+        int height;
+        Mesh mesh;
+        synchronized (this.mHandoff) {
+            this.mWorkerRotation.set(this.mHandoff);
+            width = this.mHandoffWidth;
+            height = this.mHandoffHeight;
+            mesh = this.mHandoffMesh;
+        }
+
+        FrameExchange frames = this.mFrames;
+        boolean meshChanged = mesh != this.mMesh;
+        int mode = this.mRenderer.getMode();
+        boolean modeChanged = mode != this.mWorkerMode;
+        this.mWorkerMode = mode;
+        if (meshChanged) {
+            this.mMesh = mesh;
+            this.mProjector = new MeshProjector(mesh);
+            int[] capacities = this.mProjector.getScreenCapacities();
+            frames = new FrameExchange(new ProjectedFrame(capacities), new ProjectedFrame(capacities), new ProjectedFrame(capacities));
+        }
+
+        this.mFrameCount++;
+        this.mClipSpace.setViewport(width / 2, height / 2, CAMERA_FOV, CAMERA_DISTANCE);
+        this.mProjector.project(this.mClipSpace, this.mWorkerRotation);
+
+        if (this.updateDirty(meshChanged || modeChanged)) {
+            ProjectedFrame frame = frames.getBackFrame();
+            this.mProjector.writeTo(frame);
+            this.mRenderer.prepare(frame, width, height);
+            frames.publish();
+            this.mFrames = frames;
+
+            if (!this.mDirty.isEmpty()) {
+                this.postInvalidateOnAnimation(this.mDirty.getLeft(), this.mDirty.getTop(), this.mDirty.getRight(), this.mDirty.getBottom());
+            }
+        } else {
+            this.mUnchangedFrameCount++;
+        }
+    }
+
+    /**
+     * Find the area the faces covered in the last frame and cover now, it is left in mDirty.
+     * Nothing has to be redrawn if no face moved more than {@link MeshProjector#CHANGE_EPSILON}
+     * and the drawing order is the same.
+     *
+     * @param force - true to redraw even if nothing changed
+     * @return true if anything changed
+     */
+    private boolean updateDirty(boolean force) {
+        if (!force && !this.mProjector.hasChanged()) {
+            return false;
+        }
+
+        MeshProjector projector = this.mProjector;
+        this.mDirty.update(projector.hasBounds(), projector.getLeft(), projector.getTop(), projector.getRight(), projector.getBottom());
+        return true;
     }
 
     private float calculateHorizontalRotation(float currentDirection, float targetDirection) {
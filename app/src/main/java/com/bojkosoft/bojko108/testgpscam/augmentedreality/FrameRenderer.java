@@ -0,0 +1,191 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+/**
+ * Draws {@link ProjectedFrame}s on a canvas. Three modes are supported:
+ * <ul>
+ * <li>{@link #MODE_PATHS} - one path per run of faces with the same color, see {@link FaceBatches}</li>
+ * <li>{@link #MODE_VERTICES} - all faces triangulated in one array and drawn with a single
+ * Canvas.drawVertices call, see {@link TriangleBatch}. Hardware accelerated canvases
+ * draw vertices only from API 29, older devices need a software layer for that mode.</li>
+ * <li>{@link #MODE_RASTER} - all faces filled by a {@link Rasterizer} with a depth buffer,
+ * so faces cutting through each other are drawn right, and drawn with one bitmap</li>
+ * </ul>
+ * {@link #draw(Canvas, ProjectedFrame)} is called on the UI thread. Paths and triangles
+ * are built there once per published frame, redrawing the same frame only draws what was
+ * built already. Rasterizing is done by the thread which projects the frames, in
+ * {@link #prepare(ProjectedFrame, int, int)} before a frame is published - the bitmap is
+ * attached to the frame and the UI thread only draws it.
+ */
+public class FrameRenderer {
+    public static final int MODE_PATHS = 0;
+    public static final int MODE_VERTICES = 1;
+    public static final int MODE_RASTER = 2;
+
+    // set on the UI thread, read by the projecting thread too
+    private volatile int mMode = MODE_PATHS;
+    private Paint mPaint;
+
+    private FaceBatches mBatches;
+    // path of every batch, built when a new frame is drawn
+    private Path[] mBatchPaths;
+
+    private TriangleBatch mTriangles;
+
+    // projecting thread, created on the first frame prepared in MODE_RASTER
+    private Rasterizer mRasterizer;
+    private double mDistance;
+    private volatile long mRasterCount;
+
+    public FrameRenderer() {
+        this.mPaint = new Paint();
+        this.mPaint.setStyle(Paint.Style.FILL);
+        this.mBatches = new FaceBatches();
+        this.mBatchPaths = new Path[0];
+        this.mTriangles = new TriangleBatch();
+    }
+
+    /**
+     * @param mode - {@link #MODE_PATHS}, {@link #MODE_VERTICES} or {@link #MODE_RASTER}
+     */
+    public void setMode(int mode) {
+        if (mode != MODE_PATHS && mode != MODE_VERTICES && mode != MODE_RASTER) {
+            throw new IllegalArgumentException("unknown draw mode " + mode);
+        }
+        this.mMode = mode;
+    }
+
+    public int getMode() {
+        return this.mMode;
+    }
+
+    /**
+     * projecting thread, or before frames are prepared
+     *
+     * @param distance - view distance the frames were projected with, for perspective correct depth in {@link #MODE_RASTER}
+     */
+    public void setCameraDistance(double distance) {
+        this.mDistance = distance;
+        if (this.mRasterizer != null) {
+            this.mRasterizer.setDistance(distance);
+        }
+    }
+
+    /**
+     * Projecting thread - rasterize a frame before it is published, in {@link #MODE_RASTER}
+     * only. The pixels go to a bitmap attached to the frame, which is reused as long as the
+     * size stays the same. In other modes the bitmap is dropped, so a frame never carries
+     * the picture of an older projection.
+     *
+     * @param frame  - frame to publish
+     * @param width  - width of the view
+     * @param height - height of the view
+     */
+    public void prepare(ProjectedFrame frame, int width, int height) {
+        if (this.mMode != MODE_RASTER || width <= 0 || height <= 0) {
+            frame.setImage(null);
+            return;
+        }
+
+        if (this.mRasterizer == null) {
+            this.mRasterizer = new Rasterizer(width, height);
+            this.mRasterizer.setDistance(this.mDistance);
+        } else if (this.mRasterizer.getWidth() != width || this.mRasterizer.getHeight() != height) {
+            this.mRasterizer.setSize(width, height);
+        }
+        Bitmap bitmap = (Bitmap) frame.getImage();
+        if (bitmap == null || bitmap.getWidth() != width || bitmap.getHeight() != height) {
+            // the old bitmap may still be drawn by the render thread, it is left to the GC
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            frame.setImage(bitmap);
+        }
+
+        frame.rasterize(this.mRasterizer, 0);
+        bitmap.setPixels(this.mRasterizer.getColors(), 0, width, 0, 0, width, height);
+        this.mRasterCount++;
+    }
+
+    /**
+     * UI thread - draw the visible faces of a frame back to front. In {@link #MODE_RASTER}
+     * a frame published before the mode was set has no bitmap yet, it is drawn with paths.
+     *
+     * @param canvas - canvas to draw on
+     * @param frame  - frame to draw
+     */
+    public void draw(Canvas canvas, ProjectedFrame frame) {
+        int mode = this.mMode;
+        Bitmap bitmap = (Bitmap) frame.getImage();
+        if (mode == MODE_RASTER && bitmap != null) {
+            canvas.drawBitmap(bitmap, 0, 0, null);
+        } else if (mode == MODE_VERTICES) {
+            this.mTriangles.update(frame);
+            int count = this.mTriangles.getVertexCount();
+            if (count > 0) {
+                canvas.drawVertices(Canvas.VertexMode.TRIANGLES, count * ProjectedFrame.STRIDE,
+                        this.mTriangles.getVertices(), 0, null, 0, this.mTriangles.getColors(), 0,
+                        null, 0, 0, this.mPaint);
+            }
+        } else {
+            if (this.mBatches.update(frame)) {
+                this.buildPaths(frame);
+            }
+            for (int batch = 0; batch < this.mBatches.getBatchCount(); batch++) {
+                this.mPaint.setColor(this.mBatches.getColor(batch));
+                canvas.drawPath(this.mBatchPaths[batch], this.mPaint);
+            }
+        }
+    }
+
+    /**
+     * @return number of times paths or triangles were built, at most once per published frame
+     */
+    public long getBuildCount() {
+        return this.mBatches.getBuildCount() + this.mTriangles.getBuildCount() + this.mRasterCount;
+    }
+
+    /**
+     * projecting thread - stop the rasterizer threads, they are created again when needed
+     */
+    public void release() {
+        if (this.mRasterizer != null) {
+            this.mRasterizer.shutdown();
+            this.mRasterizer = null;
+        }
+    }
+
+    /**
+     * build the path of every batch from the faces of a frame
+     */
+    private void buildPaths(ProjectedFrame frame) {
+        int batchCount = this.mBatches.getBatchCount();
+        if (this.mBatchPaths.length < batchCount) {
+            Path[] paths = new Path[batchCount];
+            System.arraycopy(this.mBatchPaths, 0, paths, 0, this.mBatchPaths.length);
+            for (int i = this.mBatchPaths.length; i < batchCount; i++) {
+                paths[i] = new Path();
+            }
+            this.mBatchPaths = paths;
+        }
+
+        int[] faces = this.mBatches.getFaces();
+        float[] points = frame.getPoints();
+        for (int batch = 0; batch < batchCount; batch++) {
+            Path path = this.mBatchPaths[batch];
+            path.rewind();
+            for (int i = this.mBatches.getBatchStart(batch); i < this.mBatches.getBatchEnd(batch); i++) {
+                int face = faces[i];
+                int p = frame.getOffset(face);
+                int end = p + frame.getPointCount(face) * ProjectedFrame.STRIDE;
+                path.moveTo(points[p], points[p + 1]);
+                for (p += ProjectedFrame.STRIDE; p < end; p += ProjectedFrame.STRIDE) {
+                    path.lineTo(points[p], points[p + 1]);
+                }
+                path.close();
+            }
+        }
+    }
+}
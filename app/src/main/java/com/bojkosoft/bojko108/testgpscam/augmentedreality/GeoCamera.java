@@ -1,12 +0,0 @@
-package com.bojkosoft.bojko108.testgpscam.augmentedreality;
-
-public class GeoCamera {
-    private float mWidth;
-    private float mHeight;
-    private float mAspect;
-    private float[][] mViewMatrix;
-    private float[][] mProjectionMatrix;
-
-    private float mScale;
-
-}
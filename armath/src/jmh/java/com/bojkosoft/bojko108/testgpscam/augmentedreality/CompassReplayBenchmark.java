@@ -0,0 +1,84 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compass processing throughput in events per second, replaying a {@link SensorTrace} as
+ * fast as possible - with raw azimuths and with the filter chain of the compass dial. Run
+ * with the gc profiler for the allocation rate. A field recording can be used instead of
+ * the generated trace with -Dtrace=path/to/trace.bin.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class CompassReplayBenchmark {
+    private static final int EVENTS = 10000;
+
+    @Param({"false", "true"})
+    public boolean filtered;
+
+    private File mFile;
+    private boolean mTemporary;
+    private SensorTraceReplayer mReplayer;
+    private CompassProcessor mProcessor;
+
+    @Setup
+    public void setup() throws IOException {
+        String trace = System.getProperty("trace");
+        if (trace != null) {
+            this.mFile = new File(trace);
+        } else {
+            // 200 seconds at 50 events per second, turning around and tilting with noise
+            this.mFile = File.createTempFile("trace", ".bin");
+            this.mTemporary = true;
+            Random random = new Random(4);
+            SensorTraceRecorder recorder = new SensorTraceRecorder(this.mFile);
+            float[] values = new float[4];
+            for (int i = 0; i < EVENTS; i++) {
+                // turn about the vertical, then tilt about the x axis of the device
+                double yaw = Math.toRadians(i * 0.1 + random.nextGaussian()) / 2;
+                double tilt = Math.toRadians(60 + 30 * Math.sin(i * 0.01)) / 2;
+                values[0] = (float) (Math.cos(yaw) * Math.sin(tilt));
+                values[1] = (float) (Math.sin(yaw) * Math.sin(tilt));
+                values[2] = (float) (Math.sin(yaw) * Math.cos(tilt));
+                values[3] = (float) (Math.cos(yaw) * Math.cos(tilt));
+                recorder.record(i * 20000000L, values, 3, 0);
+            }
+            recorder.close();
+        }
+        this.mReplayer = SensorTraceReplayer.load(this.mFile);
+
+        this.mProcessor = new CompassProcessor();
+        if (this.filtered) {
+            this.mProcessor.setAzimuthFilter(new AzimuthFilterChain(new KalmanHeadingFilter(100, 4), new HysteresisGate(0.5)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (this.mTemporary) {
+            this.mFile.delete();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public int replay() throws IOException, InterruptedException {
+        this.mReplayer.rewind();
+        return this.mReplayer.replay(this.mProcessor, false, null);
+    }
+}
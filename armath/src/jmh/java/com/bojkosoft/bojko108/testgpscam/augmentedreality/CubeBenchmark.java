@@ -0,0 +1,180 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One frame of the DirectionView cube: 6 faces with 4 vertices each, projected and
+ * back-face culled the way the old per-face FaceClass did it and the way meshes do now.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class CubeBenchmark {
+    private static final double FOV = Math.toRadians(90);
+    private static final float FOV_F = (float) FOV;
+    private static final double DISTANCE = 0.01;
+    private static final int FACES = 6;
+    private static final int FACE_VERTICES = 4;
+
+    private static final double[][] POINTS = new double[][]{
+            {-1, 1, 0}, {1, 1, 0}, {1, -1, 0}, {-1, -1, 0},
+            {-1, 1, 1}, {1, 1, 1}, {1, -1, 1}, {-1, -1, 1}
+    };
+    // BOTTOM, RIGHT, LEFT, BACK, FRONT, TOP - same as DirectionView.initView
+    private static final int[][] FACE_POINTS = new int[][]{
+            {3, 2, 1, 0}, {1, 2, 6, 5}, {0, 4, 7, 3}, {2, 3, 7, 6}, {0, 1, 5, 4}, {4, 5, 6, 7}
+    };
+
+    private float mRotationX = -25f;
+    private float mRotationZ = 135f;
+
+    private Vector3D[] mVertices;
+    private Vector3D[] mProjected;
+    private Vector3F[] mVerticesF;
+    private Vector3F[] mProjectedF;
+    private float[] mSrcF;
+    private float[] mDstF;
+    private VertexBuffer mBuffer;
+    private VertexTransformer mTransformer;
+    private ClipSpace mClipSpace;
+    private double[] mScreen;
+    private Matrix3 mRotation;
+    private MeshProjector mProjector;
+
+    @Setup
+    public void setup() {
+        this.mVertices = new Vector3D[FACES * FACE_VERTICES];
+        this.mProjected = new Vector3D[this.mVertices.length];
+        this.mVerticesF = new Vector3F[this.mVertices.length];
+        this.mProjectedF = new Vector3F[this.mVertices.length];
+        this.mSrcF = new float[this.mVertices.length * VertexBuffer.STRIDE];
+        this.mDstF = new float[this.mSrcF.length];
+        this.mBuffer = new VertexBuffer(this.mVertices.length);
+        for (int face = 0; face < FACES; face++) {
+            for (int i = 0; i < FACE_VERTICES; i++) {
+                int index = face * FACE_VERTICES + i;
+                Vector3D vertex = new Vector3D(POINTS[FACE_POINTS[face][i]]);
+                this.mVertices[index] = vertex;
+                this.mProjected[index] = new Vector3D();
+                this.mVerticesF[index] = new Vector3F((float) vertex.x, (float) vertex.y, (float) vertex.z);
+                this.mProjectedF[index] = new Vector3F();
+                this.mSrcF[index * VertexBuffer.STRIDE] = (float) vertex.x;
+                this.mSrcF[index * VertexBuffer.STRIDE + 1] = (float) vertex.y;
+                this.mSrcF[index * VertexBuffer.STRIDE + 2] = (float) vertex.z;
+                this.mBuffer.add(vertex);
+            }
+        }
+        this.mTransformer = new VertexTransformer();
+        this.mTransformer.setViewport(200, 200, FOV, DISTANCE);
+        this.mClipSpace = new ClipSpace();
+        this.mClipSpace.setViewport(200, 200, FOV, DISTANCE);
+        this.mScreen = new double[ClipSpace.getClippedSize(FACE_VERTICES) * VertexBuffer.STRIDE];
+        this.mRotation = new Matrix3();
+
+        Mesh mesh = new Mesh(POINTS.length, FACES);
+        for (double[] point : POINTS) {
+            mesh.addVertex(point[0], point[1], point[2]);
+        }
+        for (int[] face : FACE_POINTS) {
+            mesh.addFace(0, face);
+        }
+        this.mProjector = new MeshProjector(mesh);
+
+        this.mBuffer.project(this.mTransformer, this.mRotation.setRotation(this.mRotationX, 0, this.mRotationZ));
+    }
+
+    /**
+     * the original FaceClass.project: four new vectors per vertex
+     */
+    @Benchmark
+    public void projectAllocating(Blackhole blackhole) {
+        for (int i = 0; i < this.mVertices.length; i++) {
+            blackhole.consume(this.mVertices[i].rotateZ(this.mRotationZ).rotateX(this.mRotationX).rotateY(0).project(200, 200, FOV, DISTANCE));
+        }
+    }
+
+    @Benchmark
+    public void projectInPlace(Blackhole blackhole) {
+        for (int i = 0; i < this.mVertices.length; i++) {
+            this.mVertices[i].rotateInto(this.mRotationX, 0, this.mRotationZ, this.mProjected[i]).projectInto(200, 200, FOV, DISTANCE, this.mProjected[i]);
+        }
+        blackhole.consume(this.mProjected);
+    }
+
+    @Benchmark
+    public void projectInPlaceFloat(Blackhole blackhole) {
+        for (int i = 0; i < this.mVerticesF.length; i++) {
+            this.mVerticesF[i].rotateInto(this.mRotationX, 0, this.mRotationZ, this.mProjectedF[i]).projectInto(200, 200, FOV_F, (float) DISTANCE, this.mProjectedF[i]);
+        }
+        blackhole.consume(this.mProjectedF);
+    }
+
+    @Benchmark
+    public double[] projectBuffer() {
+        this.mBuffer.project(this.mTransformer, this.mRotation.setRotation(this.mRotationX, 0, this.mRotationZ));
+        return this.mBuffer.getProjected();
+    }
+
+    @Benchmark
+    public float[] projectBufferFloat() {
+        this.mTransformer.transform(this.mRotation.setRotation(this.mRotationX, 0, this.mRotationZ), this.mSrcF, this.mDstF, this.mVerticesF.length);
+        return this.mDstF;
+    }
+
+    /**
+     * the original FaceClass.calculateFaceVisibility: cross product and normalize of new vectors
+     */
+    @Benchmark
+    public void cullAllocating(Blackhole blackhole) {
+        Vector3D v0 = new Vector3D();
+        Vector3D v1 = new Vector3D();
+        Vector3D v2 = new Vector3D();
+        for (int face = 0; face < FACES; face++) {
+            int first = face * FACE_VERTICES;
+            this.mBuffer.getProjected(first, v0);
+            this.mBuffer.getProjected(first + 1, v1);
+            this.mBuffer.getProjected(first + 2, v2);
+            Vector3D u = v0.subtractFrom(v1);
+            Vector3D v = v0.subtractFrom(v2);
+            blackhole.consume(u.cross(v).normalize().dot(Vector3D.LEFT_HANDED) >= 0f);
+        }
+    }
+
+    @Benchmark
+    public void cullBuffer(Blackhole blackhole) {
+        for (int face = 0; face < FACES; face++) {
+            int first = face * FACE_VERTICES;
+            blackhole.consume(this.mBuffer.isFrontFacing(first, first + 1, first + 2));
+        }
+    }
+
+    /**
+     * the DirectionView frame: clip space, near plane clipping and culling of every face
+     */
+    @Benchmark
+    public void clipBuffer(Blackhole blackhole) {
+        this.mBuffer.clip(this.mClipSpace, this.mRotation.setRotation(this.mRotationX, 0, this.mRotationZ));
+        for (int face = 0; face < FACES; face++) {
+            int count = this.mClipSpace.clipPolygon(this.mBuffer.getClip(), this.mBuffer.getOutcodes(), face * FACE_VERTICES, FACE_VERTICES, this.mScreen);
+            blackhole.consume(count > 2 && ClipSpace.isFrontFacing(this.mScreen, count));
+        }
+    }
+
+    /**
+     * indexed cube: 8 shared vertices, culling with rotated model space normals before clipping
+     */
+    @Benchmark
+    public MeshProjector projectMesh() {
+        this.mProjector.project(this.mClipSpace, this.mRotation.setRotation(this.mRotationX, 0, this.mRotationZ));
+        return this.mProjector;
+    }
+}
@@ -0,0 +1,71 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU side of drawing a frame with 1000 quads: grouping faces for one path per color
+ * run and triangulating them for a single Canvas.drawVertices call. Every operation draws
+ * a newly published frame, so nothing is cached. The canvas calls themselves are measured
+ * on a device by FrameRendererBenchmark in the app instrumented tests.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class DrawBatchBenchmark {
+    private static final int FACES = 1000;
+    private static final int COLORS = 6;
+
+    private ProjectedFrame mFrame;
+    private FaceBatches mBatches;
+    private TriangleBatch mTriangles;
+
+    @Setup
+    public void setup() {
+        int[] capacities = new int[FACES];
+        for (int i = 0; i < FACES; i++) {
+            capacities[i] = 5;
+        }
+        this.mFrame = new ProjectedFrame(capacities);
+
+        double[] quad = new double[4 * VertexBuffer.STRIDE];
+        for (int face = 0; face < FACES; face++) {
+            double x = (face % 40) * 12;
+            double y = (face / 40) * 12;
+            quad[0] = x;
+            quad[1] = y;
+            quad[3] = x + 10;
+            quad[4] = y;
+            quad[6] = x + 10;
+            quad[7] = y + 10;
+            quad[9] = x;
+            quad[10] = y + 10;
+            this.mFrame.setFace(face, quad, 4, true);
+            this.mFrame.setColor(face, 0xff000000 | (face % COLORS) * 0x2a2a2a);
+        }
+
+        this.mBatches = new FaceBatches();
+        this.mTriangles = new TriangleBatch();
+    }
+
+    @Benchmark
+    public FaceBatches pathBatches() {
+        this.mFrame.setSequence(this.mFrame.getSequence() + 1);
+        this.mBatches.update(this.mFrame);
+        return this.mBatches;
+    }
+
+    @Benchmark
+    public TriangleBatch triangles() {
+        this.mFrame.setSequence(this.mFrame.getSequence() + 1);
+        this.mTriangles.update(this.mFrame);
+        return this.mTriangles;
+    }
+}
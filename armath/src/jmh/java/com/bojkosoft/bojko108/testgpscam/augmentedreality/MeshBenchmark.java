@@ -0,0 +1,140 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch projection of large meshes - double and float packed vertices, on the calling
+ * thread and split on the fork-join pool, and the same vertices as vector objects. Moving
+ * the vertices to clip space, as {@link MeshProjector} does, is measured the same way.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class MeshBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int vertices;
+
+    private double[] mSrc;
+    private double[] mDst;
+    private float[] mSrcF;
+    private float[] mDstF;
+    private Vector3D[] mVectors;
+    private Vector3D[] mVectorsOut;
+    private Vector3F[] mVectorsF;
+    private Vector3F[] mVectorsOutF;
+    private Matrix3 mRotation;
+    private VertexTransformer mSequential;
+    private VertexTransformer mParallel;
+    private double[] mClip;
+    private int[] mOutcodes;
+    private ClipSpace mClipSequential;
+    private ClipSpace mClipParallel;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        this.mSrc = new double[this.vertices * VertexBuffer.STRIDE];
+        this.mDst = new double[this.mSrc.length];
+        this.mSrcF = new float[this.mSrc.length];
+        this.mDstF = new float[this.mSrc.length];
+        for (int i = 0; i < this.mSrc.length; i++) {
+            this.mSrcF[i] = random.nextFloat() * 2 - 1;
+            this.mSrc[i] = this.mSrcF[i];
+        }
+        this.mVectors = new Vector3D[this.vertices];
+        this.mVectorsOut = new Vector3D[this.vertices];
+        this.mVectorsF = new Vector3F[this.vertices];
+        this.mVectorsOutF = new Vector3F[this.vertices];
+        for (int i = 0; i < this.vertices; i++) {
+            int offset = i * VertexBuffer.STRIDE;
+            this.mVectors[i] = new Vector3D(this.mSrc[offset], this.mSrc[offset + 1], this.mSrc[offset + 2]);
+            this.mVectorsOut[i] = new Vector3D();
+            this.mVectorsF[i] = new Vector3F(this.mSrcF[offset], this.mSrcF[offset + 1], this.mSrcF[offset + 2]);
+            this.mVectorsOutF[i] = new Vector3F();
+        }
+
+        this.mRotation = new Matrix3().setRotation(-25, 10, 135);
+        this.mSequential = new VertexTransformer();
+        this.mSequential.setViewport(540, 960, Math.toRadians(90), 3);
+        this.mSequential.setParallel(false);
+        this.mParallel = new VertexTransformer();
+        this.mParallel.setViewport(540, 960, Math.toRadians(90), 3);
+
+        this.mClip = new double[this.vertices * ClipSpace.STRIDE];
+        this.mOutcodes = new int[this.vertices];
+        this.mClipSequential = new ClipSpace();
+        this.mClipSequential.setViewport(540, 960, Math.toRadians(90), 3);
+        this.mClipSequential.setParallel(false);
+        this.mClipParallel = new ClipSpace();
+        this.mClipParallel.setViewport(540, 960, Math.toRadians(90), 3);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.mParallel.shutdown();
+        this.mClipParallel.shutdown();
+    }
+
+    @Benchmark
+    public double[] transformDouble() {
+        this.mSequential.transform(this.mRotation, this.mSrc, this.mDst, this.vertices);
+        return this.mDst;
+    }
+
+    @Benchmark
+    public float[] transformFloat() {
+        this.mSequential.transform(this.mRotation, this.mSrcF, this.mDstF, this.vertices);
+        return this.mDstF;
+    }
+
+    @Benchmark
+    public double[] transformDoubleParallel() {
+        this.mParallel.transform(this.mRotation, this.mSrc, this.mDst, this.vertices);
+        return this.mDst;
+    }
+
+    @Benchmark
+    public float[] transformFloatParallel() {
+        this.mParallel.transform(this.mRotation, this.mSrcF, this.mDstF, this.vertices);
+        return this.mDstF;
+    }
+
+    @Benchmark
+    public double[] clip() {
+        this.mClipSequential.transform(this.mRotation, this.mSrc, this.mClip, this.mOutcodes, 0, this.vertices);
+        return this.mClip;
+    }
+
+    @Benchmark
+    public double[] clipParallel() {
+        this.mClipParallel.transform(this.mRotation, this.mSrc, this.mClip, this.mOutcodes, 0, this.vertices);
+        return this.mClip;
+    }
+
+    @Benchmark
+    public Vector3D[] projectVectors() {
+        for (int i = 0; i < this.vertices; i++) {
+            this.mRotation.transform(this.mVectors[i], this.mVectorsOut[i]).projectInto(540, 960, Math.toRadians(90), 3, this.mVectorsOut[i]);
+        }
+        return this.mVectorsOut;
+    }
+
+    @Benchmark
+    public Vector3F[] projectVectorsFloat() {
+        for (int i = 0; i < this.vertices; i++) {
+            this.mRotation.transform(this.mVectorsF[i], this.mVectorsOutF[i]).projectInto(540, 960, (float) Math.toRadians(90), 3f, this.mVectorsOutF[i]);
+        }
+        return this.mVectorsOutF;
+    }
+}
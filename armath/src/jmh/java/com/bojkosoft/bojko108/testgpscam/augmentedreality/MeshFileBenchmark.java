@@ -0,0 +1,58 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading grid meshes of quads from a memory mapped {@link MeshFile}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class MeshFileBenchmark {
+    // vertices per grid side - 10k and 100k vertices
+    @Param({"100", "317"})
+    public int size;
+
+    private File mFile;
+
+    @Setup
+    public void setup() throws IOException {
+        Mesh mesh = new Mesh(this.size * this.size, (this.size - 1) * (this.size - 1));
+        for (int y = 0; y < this.size; y++) {
+            for (int x = 0; x < this.size; x++) {
+                mesh.addVertex(x, y, (x * y) % 7);
+            }
+        }
+        for (int y = 0; y < this.size - 1; y++) {
+            for (int x = 0; x < this.size - 1; x++) {
+                int i = y * this.size + x;
+                mesh.addFace(0xff00ff00, i, i + 1, i + this.size + 1, i + this.size);
+            }
+        }
+
+        this.mFile = File.createTempFile("mesh", ".bin");
+        MeshFile.write(mesh, this.mFile);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.mFile.delete();
+    }
+
+    @Benchmark
+    public Mesh load() throws IOException {
+        return MeshFile.load(this.mFile);
+    }
+}
@@ -0,0 +1,75 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rasterizer throughput in triangles per second - a 540 x 960 screen filled with 10000
+ * random triangles of about 20 pixels, on the calling thread and split in tiles on the
+ * fork-join pool.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class RasterizerBenchmark {
+    private static final int TRIANGLES = 10000;
+    private static final int WIDTH = 540;
+    private static final int HEIGHT = 960;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private double[] mVertices;
+    private int[] mColors;
+    private Rasterizer mRasterizer;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        this.mVertices = new double[TRIANGLES * 9];
+        this.mColors = new int[TRIANGLES];
+        for (int t = 0; t < TRIANGLES; t++) {
+            double x = random.nextDouble() * WIDTH;
+            double y = random.nextDouble() * HEIGHT;
+            double z = random.nextDouble();
+            for (int v = 0; v < 3; v++) {
+                this.mVertices[t * 9 + v * 3] = x + random.nextDouble() * 8;
+                this.mVertices[t * 9 + v * 3 + 1] = y + random.nextDouble() * 8;
+                this.mVertices[t * 9 + v * 3 + 2] = z;
+            }
+            this.mColors[t] = 0xff000000 | random.nextInt();
+        }
+
+        this.mRasterizer = new Rasterizer(WIDTH, HEIGHT);
+        this.mRasterizer.setParallel(this.parallel);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.mRasterizer.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRIANGLES)
+    public int[] render() {
+        double[] v = this.mVertices;
+        this.mRasterizer.clear(0);
+        for (int t = 0; t < TRIANGLES; t++) {
+            int i = t * 9;
+            this.mRasterizer.addTriangle(v[i], v[i + 1], v[i + 2], v[i + 3], v[i + 4], v[i + 5], v[i + 6], v[i + 7], v[i + 8], this.mColors[t]);
+        }
+        this.mRasterizer.render();
+        return this.mRasterizer.getColors();
+    }
+}
@@ -0,0 +1,75 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rotate and project a single vertex, the way the old per-face FaceClass did it and
+ * the way vertex buffers do it now.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class VertexBenchmark {
+    private static final double FOV = Math.toRadians(90);
+    private static final double DISTANCE = 0.01;
+
+    private float mRotationX = -25.5f;
+    private float mRotationY = 0f;
+    private float mRotationZ = 135.5f;
+
+    private Vector3D mVertex;
+    private Vector3D mOut;
+    private Vector3F mVertexF;
+    private Vector3F mOutF;
+    private Matrix3 mRotation;
+    private float[] mProjection;
+
+    @Setup
+    public void setup() {
+        this.mVertex = new Vector3D(-1, 1, 1);
+        this.mOut = new Vector3D();
+        this.mVertexF = new Vector3F(-1, 1, 1);
+        this.mOutF = new Vector3F();
+        this.mRotation = new Matrix3().setRotation(this.mRotationX, this.mRotationY, this.mRotationZ);
+        this.mProjection = new float[16];
+        Matrix4.perspective(this.mProjection, 0, 90, 1f, 0.01f, 100f);
+    }
+
+    @Benchmark
+    public Vector3D rotateChainAndProject() {
+        return this.mVertex.rotateZ(this.mRotationZ).rotateX(this.mRotationX).rotateY(this.mRotationY).project(200, 200, FOV, DISTANCE);
+    }
+
+    @Benchmark
+    public Vector3D rotateIntoAndProjectInto() {
+        return this.mVertex.rotateInto(this.mRotationX, this.mRotationY, this.mRotationZ, this.mOut).projectInto(200, 200, FOV, DISTANCE, this.mOut);
+    }
+
+    @Benchmark
+    public Vector3D matrixRotateAndProjectInto() {
+        return this.mRotation.transform(this.mVertex, this.mOut).projectInto(200, 200, FOV, DISTANCE, this.mOut);
+    }
+
+    @Benchmark
+    public Vector3F matrixRotateAndProjectIntoFloat() {
+        return this.mRotation.transform(this.mVertexF, this.mOutF).projectInto(200, 200, (float) FOV, (float) DISTANCE, this.mOutF);
+    }
+
+    @Benchmark
+    public Vector3D perspectiveMatrixProjectInto() {
+        return this.mVertex.projectInto(this.mProjection, this.mOut);
+    }
+
+    @Benchmark
+    public Matrix3 composeRotation() {
+        return this.mRotation.setRotation(this.mRotationX, this.mRotationY, this.mRotationZ);
+    }
+}
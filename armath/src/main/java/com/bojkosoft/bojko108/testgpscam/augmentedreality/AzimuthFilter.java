@@ -0,0 +1,22 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * One stage of azimuth processing - smoothing, fusion or gating. Azimuths are in degrees
+ * from 0 to 360 and wrap around at north, so stages must never average or compare them
+ * as plain numbers, see {@link AzimuthFilterChain#difference(double, double)}.
+ * <p>
+ * Stages are called for every sensor event and should not create objects.
+ */
+public interface AzimuthFilter {
+    /**
+     * @param azimuth   - azimuth in degrees, 0 to 360
+     * @param timestamp - time of the sensor event in nanoseconds
+     * @return filtered azimuth in degrees, 0 to 360, or NaN if nothing should be reported
+     */
+    double filter(double azimuth, long timestamp);
+
+    /**
+     * forget all state, the next azimuth is taken as it is
+     */
+    void reset();
+}
@@ -0,0 +1,60 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * Runs azimuths through filters in order, each filter gets the output of the one before.
+ * A filter returning NaN drops the azimuth and the filters after it do not see it.
+ */
+public class AzimuthFilterChain implements AzimuthFilter {
+    private final AzimuthFilter[] mFilters;
+
+    /**
+     * @param filters - filters in the order they are applied
+     */
+    public AzimuthFilterChain(AzimuthFilter... filters) {
+        this.mFilters = filters.clone();
+    }
+
+    @Override
+    public double filter(double azimuth, long timestamp) {
+        AzimuthFilter[] filters = this.mFilters;
+        for (int i = 0; i < filters.length && !Double.isNaN(azimuth); i++) {
+            azimuth = filters[i].filter(azimuth, timestamp);
+        }
+        return azimuth;
+    }
+
+    @Override
+    public void reset() {
+        for (AzimuthFilter filter : this.mFilters) {
+            filter.reset();
+        }
+    }
+
+    /**
+     * @param degrees - any angle
+     * @return the same direction from 0 (inclusive) to 360 (exclusive)
+     */
+    public static double normalize(double degrees) {
+        degrees %= 360;
+        if (degrees < 0) {
+            degrees += 360;
+        }
+        // -1e-20 % 360 + 360 rounds to 360
+        return degrees < 360 ? degrees : 0;
+    }
+
+    /**
+     * @param to   - azimuth in degrees
+     * @param from - azimuth in degrees
+     * @return shortest turn from one azimuth to the other, -180 to 180 degrees, positive clockwise
+     */
+    public static double difference(double to, double from) {
+        double difference = (to - from) % 360;
+        if (difference > 180) {
+            difference -= 360;
+        } else if (difference < -180) {
+            difference += 360;
+        }
+        return difference;
+    }
+}
@@ -0,0 +1,43 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * Exponential low-pass on the unit vector of the azimuth instead of on the angle, so
+ * 359 and 1 degrees average to north and not to south.
+ */
+public class CircularLowPassFilter implements AzimuthFilter {
+    private final double mAlpha;
+    private double mSin;
+    private double mCos;
+    private boolean mStarted;
+
+    /**
+     * @param alpha - weight of a new azimuth, 0 (exclusive) to 1 - 1 does not filter at all
+     */
+    public CircularLowPassFilter(double alpha) {
+        if (!(alpha > 0 && alpha <= 1)) {
+            throw new IllegalArgumentException("alpha must be in (0, 1], was " + alpha);
+        }
+        this.mAlpha = alpha;
+    }
+
+    @Override
+    public double filter(double azimuth, long timestamp) {
+        double radians = Math.toRadians(azimuth);
+        double sin = Math.sin(radians);
+        double cos = Math.cos(radians);
+        if (this.mStarted) {
+            this.mSin += this.mAlpha * (sin - this.mSin);
+            this.mCos += this.mAlpha * (cos - this.mCos);
+        } else {
+            this.mSin = sin;
+            this.mCos = cos;
+            this.mStarted = true;
+        }
+        return AzimuthFilterChain.normalize(Math.toDegrees(Math.atan2(this.mSin, this.mCos)));
+    }
+
+    @Override
+    public void reset() {
+        this.mStarted = false;
+    }
+}
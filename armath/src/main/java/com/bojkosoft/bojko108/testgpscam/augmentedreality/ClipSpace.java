@@ -0,0 +1,350 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Homogeneous clip space stage. Vertices are rotated into clip coordinates
+ * (x * fov, y * fov, z, distance + z) - see {@link Vector4D#toClipInto(double, double, Vector4D)} -
+ * and every vertex gets an outcode with the frustum planes it is outside of. Faces
+ * with all vertices outside of the same plane are rejected without any further work,
+ * faces crossing the near plane are clipped (Sutherland-Hodgman) and only then divided
+ * by W, so points behind the camera never reach the screen. Large meshes are moved to
+ * clip space on the threads of a fork-join pool, like {@link VertexTransformer} does.
+ * <p>
+ * Clip coordinates are packed in a double array, {@link #STRIDE} values per vertex.
+ * Screen polygons are packed like {@link VertexBuffer} projected vertices: screen x,
+ * screen y and depth.
+ */
+public class ClipSpace {
+    /**
+     * number of values per clip space vertex - x, y, z, w
+     */
+    public static final int STRIDE = 4;
+
+    public static final int INSIDE = 0;
+    public static final int LEFT = 1;
+    public static final int RIGHT = 2;
+    public static final int TOP = 4;
+    public static final int BOTTOM = 8;
+    public static final int NEAR = 16;
+
+    /**
+     * default minimum W, points closer to the eye than that are clipped
+     */
+    public static final double DEFAULT_NEAR = 1e-3;
+
+    /**
+     * meshes with fewer vertices are always moved to clip space on the calling thread
+     */
+    public static final int PARALLEL_THRESHOLD = VertexTransformer.PARALLEL_THRESHOLD;
+
+    private double mXOrigin;
+    private double mYOrigin;
+    private double mFov;
+    private double mDistance;
+    private double mNear = DEFAULT_NEAR;
+
+    private boolean mParallel = true;
+    private ForkJoinPool mPool;
+
+    /**
+     * set screen mapping parameters, same as {@link VertexTransformer#setViewport(double, double, double, double)}.
+     * The visible area is from 0 to 2 * xOrigin and from 0 to 2 * yOrigin.
+     *
+     * @param xOrigin  - screen X of the origin
+     * @param yOrigin  - screen Y of the origin
+     * @param fov      - camera field of view
+     * @param distance - view distance
+     */
+    public void setViewport(double xOrigin, double yOrigin, double fov, double distance) {
+        this.mXOrigin = xOrigin;
+        this.mYOrigin = yOrigin;
+        this.mFov = fov;
+        this.mDistance = distance;
+    }
+
+    /**
+     * set the near plane
+     *
+     * @param near - minimum W, must be greater than 0
+     */
+    public void setNear(double near) {
+        if (near <= 0) {
+            throw new IllegalArgumentException("near plane must be greater than 0");
+        }
+        this.mNear = near;
+    }
+
+    /**
+     * allow splitting large meshes between several threads, enabled by default
+     *
+     * @param parallel - true to allow fork-join split
+     */
+    public void setParallel(boolean parallel) {
+        this.mParallel = parallel;
+    }
+
+    public double getFov() {
+        return this.mFov;
+    }
+
+    public double getNear() {
+        return this.mNear;
+    }
+
+    /**
+     * rotate packed vertices into clip space and calculate their outcodes
+     *
+     * @param matrix   - rotation matrix
+     * @param src      - model vertices: x, y, z for every vertex
+     * @param clip     - clip space vertices: x, y, z, w for every vertex
+     * @param outcodes - outcode of every vertex
+     * @param from     - first vertex (inclusive)
+     * @param to       - last vertex (exclusive)
+     */
+    public void transform(Matrix3 matrix, double[] src, double[] clip, int[] outcodes, int from, int to) {
+        if (this.mParallel && to - from >= PARALLEL_THRESHOLD) {
+            this.getPool().invoke(new ClipTask(matrix, src, clip, outcodes, from, to));
+        } else {
+            this.transformRange(matrix, src, clip, outcodes, from, to);
+        }
+    }
+
+    /**
+     * rotate packed vertices into clip space and calculate their outcodes on the calling
+     * thread, see {@link #transform(Matrix3, double[], double[], int[], int, int)}
+     */
+    public void transformRange(Matrix3 matrix, double[] src, double[] clip, int[] outcodes, int from, int to) {
+        double m00 = matrix.m00, m01 = matrix.m01, m02 = matrix.m02;
+        double m10 = matrix.m10, m11 = matrix.m11, m12 = matrix.m12;
+        double m20 = matrix.m20, m21 = matrix.m21, m22 = matrix.m22;
+        double fov = this.mFov;
+        double distance = this.mDistance;
+
+        for (int v = from; v < to; v++) {
+            int i = v * VertexBuffer.STRIDE;
+            int c = v * STRIDE;
+            double x = src[i];
+            double y = src[i + 1];
+            double z = src[i + 2];
+
+            double xc = (m00 * x + m01 * y + m02 * z) * fov;
+            double yc = (m10 * x + m11 * y + m12 * z) * fov;
+            double zr = m20 * x + m21 * y + m22 * z;
+            double w = distance + zr;
+
+            clip[c] = xc;
+            clip[c + 1] = yc;
+            clip[c + 2] = zr;
+            clip[c + 3] = w;
+            outcodes[v] = this.outcode(xc, yc, w);
+        }
+    }
+
+    /**
+     * calculate which frustum planes a clip space point is outside of
+     *
+     * @param x - clip X
+     * @param y - clip Y
+     * @param w - clip W
+     * @return outcode - a combination of LEFT, RIGHT, TOP, BOTTOM and NEAR, INSIDE if visible
+     */
+    public int outcode(double x, double y, double w) {
+        int code = INSIDE;
+        double xLimit = this.mXOrigin * w;
+        double yLimit = this.mYOrigin * w;
+
+        if (x < -xLimit) code |= LEFT;
+        else if (x > xLimit) code |= RIGHT;
+        if (y < -yLimit) code |= TOP;
+        else if (y > yLimit) code |= BOTTOM;
+        if (w < this.mNear) code |= NEAR;
+
+        return code;
+    }
+
+    /**
+     * Clip a face against the near plane and divide it to screen coordinates. Every run of
+     * vertices behind the plane is replaced by two intersections, so a convex face gains at
+     * most one vertex, but a concave face gains one for every run. Screen must have room for
+     * {@link #getClippedSize(int)} vertices, {@link VertexBuffer#STRIDE} values each.
+     *
+     * @param clip     - clip space vertices, see {@link #transform(Matrix3, double[], double[], int[], int, int)}
+     * @param outcodes - outcodes of the vertices
+     * @param offset   - index of the first vertex of the face
+     * @param count    - number of face vertices
+     * @param screen   - screen polygon: screen x, screen y and depth for every vertex
+     * @return number of vertices in screen, 0 if the face is not visible
+     */
+    public int clipPolygon(double[] clip, int[] outcodes, int offset, int count, double[] screen) {
+        return this.clipPolygon(clip, outcodes, null, offset, count, screen, 0);
+    }
+
+    /**
+     * Clip an indexed face against the near plane and divide it to screen coordinates,
+     * see {@link #clipPolygon(double[], int[], int, int, double[])}.
+     *
+     * @param clip         - clip space vertices
+     * @param outcodes     - outcodes of the vertices
+     * @param indices      - vertex indices of the faces, null if the face vertices are consecutive
+     * @param offset       - index of the first vertex (or vertex index) of the face
+     * @param count        - number of face vertices
+     * @param screen       - screen polygon: screen x, screen y and depth for every vertex
+     * @param screenOffset - position of the first value in screen
+     * @return number of vertices in screen, 0 if the face is not visible
+     */
+    public int clipPolygon(double[] clip, int[] outcodes, int[] indices, int offset, int count, double[] screen, int screenOffset) {
+        if (screen.length < screenOffset + getClippedSize(count) * VertexBuffer.STRIDE) {
+            throw new IllegalArgumentException("no room for " + getClippedSize(count) + " clipped vertices");
+        }
+
+        int all = ~INSIDE;
+        int any = INSIDE;
+        for (int v = offset; v < offset + count; v++) {
+            int code = outcodes[indices == null ? v : indices[v]];
+            all &= code;
+            any |= code;
+        }
+
+        if (count == 0 || all != INSIDE) {
+            // every vertex is outside of the same plane
+            return 0;
+        }
+
+        if ((any & NEAR) == 0) {
+            for (int v = 0; v < count; v++) {
+                int vertex = indices == null ? offset + v : indices[offset + v];
+                this.divide(clip, vertex * STRIDE, screen, screenOffset + v * VertexBuffer.STRIDE);
+            }
+            return count;
+        }
+
+        double near = this.mNear;
+        int result = 0;
+        for (int v = 0; v < count; v++) {
+            int next = (v + 1) % count;
+            int a = (indices == null ? offset + v : indices[offset + v]) * STRIDE;
+            int b = (indices == null ? offset + next : indices[offset + next]) * STRIDE;
+            double wa = clip[a + 3];
+            double wb = clip[b + 3];
+            boolean aInside = wa >= near;
+            boolean bInside = wb >= near;
+
+            if (aInside) {
+                this.divide(clip, a, screen, screenOffset + result++ * VertexBuffer.STRIDE);
+            }
+            if (aInside != bInside) {
+                // edge crosses the near plane - add the intersection, its W is near
+                double t = (wa - near) / (wa - wb);
+                int s = screenOffset + result++ * VertexBuffer.STRIDE;
+                screen[s] = (clip[a] + (clip[b] - clip[a]) * t) / near + this.mXOrigin;
+                screen[s + 1] = (clip[a + 1] + (clip[b + 1] - clip[a + 1]) * t) / near + this.mYOrigin;
+                screen[s + 2] = clip[a + 2] + (clip[b + 2] - clip[a + 2]) * t;
+            }
+        }
+
+        return result < 3 ? 0 : result;
+    }
+
+    /**
+     * Runs behind the near plane are separated by at least one vertex in front of it, so
+     * there are count / 2 of them at most.
+     *
+     * @param count - number of face vertices
+     * @return maximum number of vertices of the face clipped against the near plane
+     */
+    public static int getClippedSize(int count) {
+        return count + count / 2;
+    }
+
+    /**
+     * Check if a screen polygon is facing the camera, same convention as
+     * {@link VertexBuffer#isFrontFacing(int, int, int)}. The signed area of the whole
+     * polygon is used, as the first vertices of a clipped polygon can be very close together.
+     *
+     * @param screen - screen polygon
+     * @param count  - number of vertices
+     * @return face visibility
+     */
+    public static boolean isFrontFacing(double[] screen, int count) {
+        return isFrontFacing(screen, 0, count);
+    }
+
+    /**
+     * @param screen - screen polygons
+     * @param offset - position of the first value of the polygon in screen
+     * @param count  - number of vertices
+     * @return face visibility, see {@link #isFrontFacing(double[], int)}
+     */
+    public static boolean isFrontFacing(double[] screen, int offset, int count) {
+        double area = 0;
+        int last = offset + (count - 1) * VertexBuffer.STRIDE;
+        double px = screen[last];
+        double py = screen[last + 1];
+
+        for (int i = offset; i < offset + count * VertexBuffer.STRIDE; i += VertexBuffer.STRIDE) {
+            area += px * screen[i + 1] - screen[i] * py;
+            px = screen[i];
+            py = screen[i + 1];
+        }
+
+        return area <= 0;
+    }
+
+    /**
+     * stop the worker threads, if any were started
+     */
+    public void shutdown() {
+        if (this.mPool != null) {
+            this.mPool.shutdown();
+            this.mPool = null;
+        }
+    }
+
+    private ForkJoinPool getPool() {
+        // ForkJoinPool.commonPool() requires API 24
+        if (this.mPool == null) {
+            this.mPool = new ForkJoinPool();
+        }
+        return this.mPool;
+    }
+
+    private void divide(double[] clip, int c, double[] screen, int s) {
+        double w = clip[c + 3];
+        screen[s] = clip[c] / w + this.mXOrigin;
+        screen[s + 1] = clip[c + 1] / w + this.mYOrigin;
+        screen[s + 2] = clip[c + 2];
+    }
+
+    private class ClipTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Matrix3 mMatrix;
+        private final double[] mSrc;
+        private final double[] mClip;
+        private final int[] mOutcodes;
+        private final int mFrom;
+        private final int mTo;
+
+        ClipTask(Matrix3 matrix, double[] src, double[] clip, int[] outcodes, int from, int to) {
+            this.mMatrix = matrix;
+            this.mSrc = src;
+            this.mClip = clip;
+            this.mOutcodes = outcodes;
+            this.mFrom = from;
+            this.mTo = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.mTo - this.mFrom <= PARALLEL_THRESHOLD) {
+                transformRange(this.mMatrix, this.mSrc, this.mClip, this.mOutcodes, this.mFrom, this.mTo);
+            } else {
+                int middle = (this.mFrom + this.mTo) >>> 1;
+                invokeAll(new ClipTask(this.mMatrix, this.mSrc, this.mClip, this.mOutcodes, this.mFrom, middle),
+                        new ClipTask(this.mMatrix, this.mSrc, this.mClip, this.mOutcodes, middle, this.mTo));
+            }
+        }
+    }
+}
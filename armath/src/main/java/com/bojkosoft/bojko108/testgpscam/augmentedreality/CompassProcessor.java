@@ -0,0 +1,256 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * Turns rotation vector sensor values into azimuth, pitch and roll in degrees - the work
+ * DeviceCompass does for every sensor event, without any Android classes so it can run
+ * and be measured on the JVM.
+ * <p>
+ * The math is the one of SensorManager getRotationMatrixFromVector, remapCoordinateSystem
+ * and getOrientation on 3 x 3 matrices. Pitch and roll come from the rotation matrix
+ * remapped for the display rotation. Azimuth comes from the matrix remapped to
+ * {@link #AXIS_X}, {@link #AXIS_Z} - the direction the camera looks at - when the device is
+ * held upright and from the display matrix when it lies flat. Only two values of the
+ * upright matrix are needed for the azimuth, so it is never remapped as a whole.
+ * <p>
+ * The azimuth gets the declination, goes through an optional {@link AzimuthFilter} and
+ * is reported only if it turned more than the azimuth step since the last report.
+ * <p>
+ * All matrices are kept between events, processing creates no objects.
+ */
+public class CompassProcessor {
+    /**
+     * display rotations, same values as android.view.Surface ROTATION_0 to ROTATION_270
+     */
+    public static final int ROTATION_0 = 0;
+    public static final int ROTATION_90 = 1;
+    public static final int ROTATION_180 = 2;
+    public static final int ROTATION_270 = 3;
+
+    /**
+     * axes, same values as android.hardware.SensorManager AXIS_X to AXIS_MINUS_Z
+     */
+    public static final int AXIS_X = 1;
+    public static final int AXIS_Y = 2;
+    public static final int AXIS_Z = 3;
+    public static final int AXIS_MINUS_X = AXIS_X | 0x80;
+    public static final int AXIS_MINUS_Y = AXIS_Y | 0x80;
+    public static final int AXIS_MINUS_Z = AXIS_Z | 0x80;
+
+    // the device is flat if its z axis is closer than that to the vertical, in degrees
+    private static final int FLAT_INCLINATION = 30;
+
+    // magnetic declination for BG can be set to +5 degrees
+    private double mDeclination = 5.0;
+    private AzimuthFilter mFilter;
+    private final HysteresisGate mStep = new HysteresisGate(0);
+    private int mDisplayRotation = ROTATION_0;
+
+    private final float[] mRotationMatrix = new float[9];
+    private final float[] mRemappedMatrix = new float[9];
+    private final float[] mOrientation = new float[3];
+
+    private double mAzimuth;
+    private double mPitch;
+    private double mRoll;
+
+    /**
+     * @param azimuthStep - minimum change of the azimuth in degrees to report, negative values are 0
+     */
+    public void setAzimuthStep(double azimuthStep) {
+        this.mStep.setThreshold(azimuthStep);
+    }
+
+    /**
+     * @param filter - filter for the azimuth before the azimuth step is applied, null for none
+     */
+    public void setAzimuthFilter(AzimuthFilter filter) {
+        this.mFilter = filter;
+        if (filter != null) {
+            filter.reset();
+        }
+    }
+
+    /**
+     * @param declination - magnetic declination in degrees, added to the azimuth
+     */
+    public void setDeclination(double declination) {
+        this.mDeclination = declination;
+    }
+
+    /**
+     * @param displayRotation - {@link #ROTATION_0}, {@link #ROTATION_90}, {@link #ROTATION_180} or {@link #ROTATION_270}
+     */
+    public void setDisplayRotation(int displayRotation) {
+        this.mDisplayRotation = displayRotation;
+    }
+
+    public int getDisplayRotation() {
+        return this.mDisplayRotation;
+    }
+
+    /**
+     * calculate azimuth, pitch and roll for the values of a rotation vector sensor event
+     *
+     * @param values    - x, y, z and optionally w of the rotation vector
+     * @param timestamp - time of the event in nanoseconds
+     * @return true if the filtered azimuth changed more than the azimuth step since the last report
+     */
+    public boolean process(float[] values, long timestamp) {
+        float[] rotationMatrix = this.mRotationMatrix;
+        float[] orientation = this.mOrientation;
+        getRotationMatrixFromVector(rotationMatrix, values);
+
+        switch (this.mDisplayRotation) {
+            case ROTATION_90:
+                remapCoordinateSystem(rotationMatrix, AXIS_Y, AXIS_MINUS_X, this.mRemappedMatrix);
+                getOrientation(this.mRemappedMatrix, orientation);
+                break;
+            case ROTATION_180:
+                remapCoordinateSystem(rotationMatrix, AXIS_MINUS_X, AXIS_MINUS_Y, this.mRemappedMatrix);
+                getOrientation(this.mRemappedMatrix, orientation);
+                break;
+            case ROTATION_270:
+                // tilt to right
+                remapCoordinateSystem(rotationMatrix, AXIS_MINUS_Y, AXIS_X, this.mRemappedMatrix);
+                getOrientation(this.mRemappedMatrix, orientation);
+                break;
+            default:
+                // no orientation change, use default coordinate system
+                getOrientation(rotationMatrix, orientation);
+                break;
+        }
+
+        // orientation[0] is the angle between the y axis and the magnetic north pole, -pi to pi
+        double azimuth;
+        if (isDeviceFlat(values)) {
+            azimuth = orientation[0];
+        } else {
+            // getOrientation of the matrix remapped to AXIS_X, AXIS_Z - its y column is minus the z column
+            azimuth = Math.atan2(-rotationMatrix[2], -rotationMatrix[5]);
+        }
+        azimuth = AzimuthFilterChain.normalize(Math.toDegrees(azimuth) + this.mDeclination);
+
+        this.mPitch = Math.toDegrees(orientation[1]);
+        this.mRoll = Math.toDegrees(orientation[2]);
+        if (this.mFilter != null) {
+            azimuth = this.mFilter.filter(azimuth, timestamp);
+        }
+        // the step is measured around the circle, 359 to 1 degrees is a change of 2
+        if (!Double.isNaN(azimuth) && !Double.isNaN(this.mStep.filter(azimuth, timestamp))) {
+            this.mAzimuth = azimuth;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return azimuth in degrees, 0 to 360, with the declination, of the last reported event
+     */
+    public double getAzimuth() {
+        return this.mAzimuth;
+    }
+
+    /**
+     * @return pitch in degrees of the last processed event
+     */
+    public double getPitch() {
+        return this.mPitch;
+    }
+
+    /**
+     * @return roll in degrees of the last processed event
+     */
+    public double getRoll() {
+        return this.mRoll;
+    }
+
+    /**
+     * same as SensorManager.getRotationMatrixFromVector for a 3 x 3 matrix
+     *
+     * @param R      - 3 x 3 rotation matrix, row major
+     * @param values - x, y, z and optionally w of the rotation vector
+     */
+    public static void getRotationMatrixFromVector(float[] R, float[] values) {
+        float q1 = values[0];
+        float q2 = values[1];
+        float q3 = values[2];
+        float q0;
+        if (values.length >= 4) {
+            q0 = values[3];
+        } else {
+            q0 = 1 - q1 * q1 - q2 * q2 - q3 * q3;
+            q0 = (q0 > 0) ? (float) Math.sqrt(q0) : 0;
+        }
+
+        float sq_q1 = 2 * q1 * q1;
+        float sq_q2 = 2 * q2 * q2;
+        float sq_q3 = 2 * q3 * q3;
+        float q1_q2 = 2 * q1 * q2;
+        float q3_q0 = 2 * q3 * q0;
+        float q1_q3 = 2 * q1 * q3;
+        float q2_q0 = 2 * q2 * q0;
+        float q2_q3 = 2 * q2 * q3;
+        float q1_q0 = 2 * q1 * q0;
+
+        R[0] = 1 - sq_q2 - sq_q3;
+        R[1] = q1_q2 - q3_q0;
+        R[2] = q1_q3 + q2_q0;
+        R[3] = q1_q2 + q3_q0;
+        R[4] = 1 - sq_q1 - sq_q3;
+        R[5] = q2_q3 - q1_q0;
+        R[6] = q1_q3 - q2_q0;
+        R[7] = q2_q3 + q1_q0;
+        R[8] = 1 - sq_q1 - sq_q2;
+    }
+
+    /**
+     * same as SensorManager.remapCoordinateSystem for 3 x 3 matrices
+     *
+     * @param inR  - rotation matrix to remap
+     * @param X    - device axis the world x axis is mapped on, {@link #AXIS_X} to {@link #AXIS_MINUS_Z}
+     * @param Y    - device axis the world y axis is mapped on
+     * @param outR - remapped matrix, not inR
+     */
+    public static void remapCoordinateSystem(float[] inR, int X, int Y, float[] outR) {
+        // z is the cross product of x and y, its axis is the one left and its sign follows
+        // from the order of the axes
+        int Z = X ^ Y;
+        int x = (X & 0x3) - 1;
+        int y = (Y & 0x3) - 1;
+        int z = (Z & 0x3) - 1;
+        int axisY = (z + 1) % 3;
+        int axisZ = (z + 2) % 3;
+        if (((x ^ axisY) | (y ^ axisZ)) != 0) {
+            Z ^= 0x80;
+        }
+        boolean sx = X >= 0x80;
+        boolean sy = Y >= 0x80;
+        boolean sz = Z >= 0x80;
+
+        for (int j = 0; j < 3; j++) {
+            int offset = j * 3;
+            outR[offset + x] = sx ? -inR[offset] : inR[offset];
+            outR[offset + y] = sy ? -inR[offset + 1] : inR[offset + 1];
+            outR[offset + z] = sz ? -inR[offset + 2] : inR[offset + 2];
+        }
+    }
+
+    /**
+     * same as SensorManager.getOrientation for a 3 x 3 matrix
+     *
+     * @param R      - 3 x 3 rotation matrix, row major
+     * @param values - azimuth, pitch and roll in radians
+     */
+    public static void getOrientation(float[] R, float[] values) {
+        values[0] = (float) Math.atan2(R[1], R[4]);
+        values[1] = (float) Math.asin(-R[7]);
+        values[2] = (float) Math.atan2(-R[6], R[8]);
+    }
+
+    private static boolean isDeviceFlat(float[] values) {
+        float z = values[2];
+        float norm = (float) Math.sqrt(values[0] * values[0] + values[1] * values[1] + z * z);
+        int inclination = (int) Math.round(Math.toDegrees(Math.acos(z / norm)));
+        return inclination < FLAT_INCLINATION || inclination > 180 - FLAT_INCLINATION;
+    }
+}
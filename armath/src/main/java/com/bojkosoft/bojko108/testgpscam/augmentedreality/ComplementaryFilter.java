@@ -0,0 +1,54 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * Complementary filter on the azimuth - the turn rate of the device (from a gyroscope)
+ * is integrated for quick changes, and the measured azimuth pulls the result back with a
+ * time constant for the slow ones, removing the drift of the integration. Without a turn
+ * rate it is a low-pass filter that does not depend on the event rate.
+ */
+public class ComplementaryFilter implements AzimuthFilter {
+    private final double mTimeConstant;
+    private double mRate;
+    private double mAzimuth;
+    private long mTimestamp;
+    private boolean mStarted;
+
+    /**
+     * @param timeConstant - seconds after which the measured azimuth outweighs the integrated turn rate
+     */
+    public ComplementaryFilter(double timeConstant) {
+        if (!(timeConstant >= 0)) {
+            throw new IllegalArgumentException("time constant must not be negative, was " + timeConstant);
+        }
+        this.mTimeConstant = timeConstant;
+    }
+
+    /**
+     * @param degreesPerSecond - turn rate about the vertical axis, positive clockwise, used until set again
+     */
+    public void setTurnRate(double degreesPerSecond) {
+        this.mRate = degreesPerSecond;
+    }
+
+    @Override
+    public double filter(double azimuth, long timestamp) {
+        if (!this.mStarted) {
+            this.mAzimuth = azimuth;
+            this.mTimestamp = timestamp;
+            this.mStarted = true;
+            return azimuth;
+        }
+
+        double dt = Math.max(0, (timestamp - this.mTimestamp) * 1e-9);
+        this.mTimestamp = timestamp;
+        double predicted = this.mAzimuth + this.mRate * dt;
+        double alpha = this.mTimeConstant + dt > 0 ? dt / (this.mTimeConstant + dt) : 1;
+        this.mAzimuth = AzimuthFilterChain.normalize(predicted + alpha * AzimuthFilterChain.difference(azimuth, predicted));
+        return this.mAzimuth;
+    }
+
+    @Override
+    public void reset() {
+        this.mStarted = false;
+    }
+}
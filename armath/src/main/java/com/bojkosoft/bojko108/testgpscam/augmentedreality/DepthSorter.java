@@ -0,0 +1,154 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * Back to front order of faces for the painter's algorithm. Only the faces passed to
+ * {@link #sort(double[], int[], int)} are sorted, usually the visible ones. The order of
+ * the last call is the starting point of the next one - when the orientation changes a
+ * little per frame it is almost sorted already and an insertion sort fixes it in about one
+ * pass. Faces which were not sorted the last time are added at the end first. If the faces
+ * moved too much the sort switches to a heap sort. Nothing is allocated once the arrays
+ * are big enough.
+ */
+public class DepthSorter {
+    /**
+     * insertion sort gives up after that many moves per face on average
+     */
+    public static final int MAX_MOVES_PER_FACE = 8;
+
+    private int[] mOrder = new int[0];
+    private int mCount;
+    // faces 0 to n - 1, for sort(depths, count)
+    private int[] mAll = new int[0];
+    // per face index - mStamp if the face is sorted now, mStamp + 1 once it is in mOrder
+    private int[] mMarks = new int[0];
+    private int mStamp;
+
+    /**
+     * Sort faces 0 to count - 1 by depth, the farthest face (largest depth) first.
+     *
+     * @param depths - depth of every face
+     * @param count  - number of faces
+     * @return see {@link #sort(double[], int[], int)}
+     */
+    public int sort(double[] depths, int count) {
+        if (this.mAll.length < count) {
+            this.mAll = new int[count];
+            for (int i = 0; i < count; i++) {
+                this.mAll[i] = i;
+            }
+        }
+        return this.sort(depths, this.mAll, count);
+    }
+
+    /**
+     * Sort some faces by depth, the farthest face (largest depth) first.
+     *
+     * @param depths - depth of every face, by face index
+     * @param faces  - indices of the faces to sort, any order
+     * @param count  - number of faces to sort
+     * @return number of places faces were moved by, 0 if the faces sorted the last time kept
+     * their order and new faces were added at their place, more than
+     * {@code count * MAX_MOVES_PER_FACE} if the heap sort was used
+     */
+    public int sort(double[] depths, int[] faces, int count) {
+        if (this.mOrder.length < count) {
+            int[] order = new int[Math.max(count, this.mOrder.length * 2)];
+            System.arraycopy(this.mOrder, 0, order, 0, this.mCount);
+            this.mOrder = order;
+        }
+        if (this.mMarks.length < depths.length) {
+            this.mMarks = new int[depths.length];
+            this.mStamp = 0;
+        }
+        this.mStamp += 2;
+        int wanted = this.mStamp;
+        int placed = wanted + 1;
+        int[] marks = this.mMarks;
+        int[] order = this.mOrder;
+
+        // the faces sorted the last time keep their order, new ones go to the end
+        for (int i = 0; i < count; i++) {
+            marks[faces[i]] = wanted;
+        }
+        int n = 0;
+        for (int i = 0; i < this.mCount; i++) {
+            int face = order[i];
+            if (face < marks.length && marks[face] == wanted) {
+                marks[face] = placed;
+                order[n++] = face;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (marks[faces[i]] == wanted) {
+                marks[faces[i]] = placed;
+                order[n++] = faces[i];
+            }
+        }
+        this.mCount = n;
+
+        int moves = 0;
+        int maxMoves = n * MAX_MOVES_PER_FACE;
+        for (int i = 1; i < n; i++) {
+            int face = order[i];
+            double depth = depths[face];
+            int j = i - 1;
+            while (j >= 0 && depths[order[j]] < depth) {
+                order[j + 1] = order[j];
+                j--;
+                moves++;
+            }
+            order[j + 1] = face;
+
+            if (moves > maxMoves) {
+                heapSort(order, depths, n);
+                break;
+            }
+        }
+
+        return moves;
+    }
+
+    /**
+     * @return face indices, back to front
+     */
+    public int[] getOrder() {
+        return this.mOrder;
+    }
+
+    /**
+     * @return number of sorted faces, the length of {@link #getOrder()} which is used
+     */
+    public int size() {
+        return this.mCount;
+    }
+
+    // min-heap, so the result is in descending order
+    private static void heapSort(int[] order, double[] depths, int count) {
+        for (int i = count / 2 - 1; i >= 0; i--) {
+            siftDown(order, depths, i, count);
+        }
+        for (int end = count - 1; end > 0; end--) {
+            int face = order[0];
+            order[0] = order[end];
+            order[end] = face;
+            siftDown(order, depths, 0, end);
+        }
+    }
+
+    private static void siftDown(int[] order, double[] depths, int root, int count) {
+        int face = order[root];
+        double depth = depths[face];
+        int child;
+        while ((child = root * 2 + 1) < count) {
+            if (child + 1 < count && depths[order[child + 1]] < depths[order[child]]) {
+                child++;
+            }
+            if (depths[order[child]] >= depth) {
+                break;
+            }
+            order[root] = order[child];
+            root = child;
+        }
+        order[root] = face;
+    }
+}
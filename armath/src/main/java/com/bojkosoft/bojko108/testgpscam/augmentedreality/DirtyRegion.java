@@ -0,0 +1,118 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * Area of a view to redraw when faces move - the union of the screen bounds the faces
+ * covered in the last frame and cover now, one pixel bigger on every side for anti-aliased
+ * edges. If no face was visible in the last frame only the new bounds are dirty, if no face
+ * is visible now only the old ones.
+ * <p>
+ * Whether a face moved at all is decided with {@link #hasMoved}, so movements of less than
+ * a fraction of a pixel don't cause a redraw.
+ */
+public class DirtyRegion {
+    /**
+     * pixels added on every side of the bounds
+     */
+    public static final int MARGIN = 1;
+
+    // screen bounds of the last frame, left > right if nothing was visible
+    private double mLastLeft = Double.MAX_VALUE;
+    private double mLastTop = Double.MAX_VALUE;
+    private double mLastRight = -Double.MAX_VALUE;
+    private double mLastBottom = -Double.MAX_VALUE;
+
+    private int mLeft;
+    private int mTop;
+    private int mRight;
+    private int mBottom;
+
+    /**
+     * Set the bounds of a new frame, the dirty area is the union of them and the bounds
+     * of the last frame.
+     *
+     * @param hasBounds - false if no face is visible, the other values are ignored then
+     * @param left      - screen bounds of the visible faces
+     * @param top       - screen bounds of the visible faces
+     * @param right     - screen bounds of the visible faces
+     * @param bottom    - screen bounds of the visible faces
+     * @return true if anything has to be redrawn
+     */
+    public boolean update(boolean hasBounds, double left, double top, double right, double bottom) {
+        this.mLeft = this.mTop = Integer.MAX_VALUE;
+        this.mRight = this.mBottom = Integer.MIN_VALUE;
+
+        if (!hasBounds) {
+            left = top = Double.MAX_VALUE;
+            right = bottom = -Double.MAX_VALUE;
+        }
+        this.union(left, top, right, bottom);
+        this.union(this.mLastLeft, this.mLastTop, this.mLastRight, this.mLastBottom);
+
+        this.mLastLeft = left;
+        this.mLastTop = top;
+        this.mLastRight = right;
+        this.mLastBottom = bottom;
+        return !this.isEmpty();
+    }
+
+    /**
+     * forget the last frame, the next dirty area covers only its own bounds
+     */
+    public void reset() {
+        this.mLastLeft = this.mLastTop = Double.MAX_VALUE;
+        this.mLastRight = this.mLastBottom = -Double.MAX_VALUE;
+        this.mLeft = this.mTop = Integer.MAX_VALUE;
+        this.mRight = this.mBottom = Integer.MIN_VALUE;
+    }
+
+    /**
+     * @return true if nothing has to be redrawn, the bounds are invalid then
+     */
+    public boolean isEmpty() {
+        return this.mLeft >= this.mRight || this.mTop >= this.mBottom;
+    }
+
+    public int getLeft() {
+        return this.mLeft;
+    }
+
+    public int getTop() {
+        return this.mTop;
+    }
+
+    public int getRight() {
+        return this.mRight;
+    }
+
+    public int getBottom() {
+        return this.mBottom;
+    }
+
+    /**
+     * Compare two screen polygons. Only screen x and y count, the depth is ignored.
+     *
+     * @param screen  - screen x, screen y and depth per vertex
+     * @param last    - the same polygon as it was the last time it moved
+     * @param start   - position of the first vertex in both arrays
+     * @param count   - number of vertices
+     * @param epsilon - movement in pixels which is not a change
+     * @return true if a vertex moved more than epsilon in x or y
+     */
+    public static boolean hasMoved(double[] screen, double[] last, int start, int count, double epsilon) {
+        for (int i = start; i < start + count * VertexBuffer.STRIDE; i += VertexBuffer.STRIDE) {
+            if (Math.abs(screen[i] - last[i]) > epsilon || Math.abs(screen[i + 1] - last[i + 1]) > epsilon) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void union(double left, double top, double right, double bottom) {
+        if (left <= right && top <= bottom) {
+            this.mLeft = Math.min(this.mLeft, (int) Math.floor(left) - MARGIN);
+            this.mTop = Math.min(this.mTop, (int) Math.floor(top) - MARGIN);
+            this.mRight = Math.max(this.mRight, (int) Math.ceil(right) + MARGIN);
+            this.mBottom = Math.max(this.mBottom, (int) Math.ceil(bottom) + MARGIN);
+        }
+    }
+}
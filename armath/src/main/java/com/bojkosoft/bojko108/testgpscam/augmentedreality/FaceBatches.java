@@ -0,0 +1,106 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * Groups the visible faces of a {@link ProjectedFrame} in batches to draw with one path
+ * each. A batch is a run of faces with the same color which are next to each other in
+ * the drawing order, so drawing batch after batch gives the same picture as drawing face
+ * after face. Visible faces all have the same winding on screen, so faces of one batch
+ * never cut holes in each other.
+ * <p>
+ * Batches are built again only when a different frame or a newer publication of the same
+ * frame is given to {@link #update(ProjectedFrame)}, so redrawing an unchanged frame
+ * needs no work at all.
+ */
+public class FaceBatches {
+    private ProjectedFrame mFrame;
+    private long mSequence = -1;
+
+    // visible faces in drawing order
+    private int[] mFaces = new int[0];
+    // index of the first face of every batch in mFaces, one more for the end of the last batch
+    private int[] mBatchStarts = new int[1];
+    private int[] mColors = new int[0];
+    private int mBatchCount;
+    private long mBuildCount;
+
+    /**
+     * group the faces of a frame, if it is not the frame the batches were built for
+     *
+     * @param frame - frame to draw
+     * @return true if the batches were built again
+     */
+    public boolean update(ProjectedFrame frame) {
+        long sequence = frame.getSequence();
+        if (frame == this.mFrame && sequence == this.mSequence) {
+            return false;
+        }
+        this.mFrame = frame;
+        this.mSequence = sequence;
+        this.mBuildCount++;
+
+        int faceCount = frame.getFaceCount();
+        if (this.mFaces.length < faceCount) {
+            this.mFaces = new int[faceCount];
+            this.mBatchStarts = new int[faceCount + 1];
+            this.mColors = new int[faceCount];
+        }
+
+        int[] order = frame.getOrder();
+        int orderCount = frame.getOrderCount();
+        int count = 0;
+        this.mBatchCount = 0;
+        for (int i = 0; i < orderCount; i++) {
+            int face = order[i];
+            if (!frame.isVisible(face) || frame.getPointCount(face) < 3) {
+                continue;
+            }
+            int color = frame.getColor(face);
+            if (this.mBatchCount == 0 || this.mColors[this.mBatchCount - 1] != color) {
+                this.mBatchStarts[this.mBatchCount] = count;
+                this.mColors[this.mBatchCount++] = color;
+            }
+            this.mFaces[count++] = face;
+        }
+        this.mBatchStarts[this.mBatchCount] = count;
+
+        return true;
+    }
+
+    public int getBatchCount() {
+        return this.mBatchCount;
+    }
+
+    public int getColor(int batch) {
+        return this.mColors[batch];
+    }
+
+    /**
+     * @param batch - batch index
+     * @return position of the first face of the batch in {@link #getFaces()}
+     */
+    public int getBatchStart(int batch) {
+        return this.mBatchStarts[batch];
+    }
+
+    /**
+     * @param batch - batch index
+     * @return position after the last face of the batch in {@link #getFaces()}
+     */
+    public int getBatchEnd(int batch) {
+        return this.mBatchStarts[batch + 1];
+    }
+
+    /**
+     * @return visible face indices in drawing order
+     */
+    public int[] getFaces() {
+        return this.mFaces;
+    }
+
+    /**
+     * @return number of times the batches were built
+     */
+    public long getBuildCount() {
+        return this.mBuildCount;
+    }
+}
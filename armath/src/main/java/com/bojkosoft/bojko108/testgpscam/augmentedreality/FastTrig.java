@@ -0,0 +1,81 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * Table based sine and cosine for angles in degrees. Values are stored for every
+ * 0.1 degree and interpolated linearly in between. Whole degrees - which is what the
+ * AR screen seekbars and DirectionView mostly produce - are read from the table
+ * without interpolation and equal Math.sin(angle * Math.PI / 180) for angles from 0
+ * to 359.
+ * <p>
+ * The interpolation error is at most h^2 / 8 for step h = PI / 1800, which is
+ * 3.81e-7. {@link #MAX_ERROR} adds a margin for rounding of the argument and holds
+ * for angles up to +-1e6 degrees.
+ */
+public class FastTrig {
+    /**
+     * table entries per degree
+     */
+    public static final int STEPS_PER_DEGREE = 10;
+    /**
+     * maximum absolute difference to Math.sin and Math.cos
+     */
+    public static final double MAX_ERROR = 4e-7;
+
+    private static final int TABLE_SIZE = 360 * STEPS_PER_DEGREE;
+    // one extra entry, so interpolation never wraps
+    private static final double[] SIN = new double[TABLE_SIZE + 1];
+    private static final double[] COS = new double[TABLE_SIZE + 1];
+
+    static {
+        for (int i = 0; i <= TABLE_SIZE; i++) {
+            double rad;
+            if (i % STEPS_PER_DEGREE == 0) {
+                // same expression as the rotate methods used before, so whole degrees are exact
+                rad = (i / STEPS_PER_DEGREE) * Math.PI / 180;
+            } else {
+                rad = i * Math.PI / (180 * STEPS_PER_DEGREE);
+            }
+            SIN[i] = Math.sin(rad);
+            COS[i] = Math.cos(rad);
+        }
+    }
+
+    private FastTrig() {
+    }
+
+    /**
+     * @param degrees - angle in degrees
+     * @return sine of the angle
+     */
+    public static double sin(double degrees) {
+        return lookup(SIN, degrees);
+    }
+
+    /**
+     * @param degrees - angle in degrees
+     * @return cosine of the angle
+     */
+    public static double cos(double degrees) {
+        return lookup(COS, degrees);
+    }
+
+    private static double lookup(double[] table, double degrees) {
+        int whole = (int) degrees;
+        if (whole == degrees) {
+            whole %= 360;
+            if (whole < 0) whole += 360;
+            return table[whole * STEPS_PER_DEGREE];
+        }
+
+        double t = (degrees % 360) * STEPS_PER_DEGREE;
+        if (t < 0) t += TABLE_SIZE;
+        int i = (int) t;
+        double fraction = t - i;
+        // NaN and infinity end up here and give NaN, same as Math.sin
+        if (i >= TABLE_SIZE) {
+            i = TABLE_SIZE - 1;
+            fraction = 1;
+        }
+        return table[i] + (table[i + 1] - table[i]) * fraction;
+    }
+}
@@ -0,0 +1,60 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free hand over of {@link ProjectedFrame}s from one writer thread to one reader
+ * thread. The writer fills its back frame and publishes it, the reader takes the latest
+ * published frame. Every frame is owned either by the writer, by the reader or by the
+ * exchange slot between them, and frames change owner only with an atomic swap, so
+ * neither thread ever waits for the other and the reader never sees a half written frame.
+ * That needs three frames - with two the writer would have to wait until the reader
+ * is done with the front one.
+ */
+public class FrameExchange {
+    private final AtomicReference<ProjectedFrame> mReady;
+    // owned by the writer
+    private ProjectedFrame mBack;
+    private long mSequence;
+    // owned by the reader
+    private ProjectedFrame mFront;
+
+    /**
+     * Construct a new exchange, all three frames must have the same layout
+     */
+    public FrameExchange(ProjectedFrame back, ProjectedFrame ready, ProjectedFrame front) {
+        this.mBack = back;
+        this.mReady = new AtomicReference<ProjectedFrame>(ready);
+        this.mFront = front;
+    }
+
+    /**
+     * writer only
+     *
+     * @return frame to fill before {@link #publish()}
+     */
+    public ProjectedFrame getBackFrame() {
+        return this.mBack;
+    }
+
+    /**
+     * writer only - make the back frame the latest frame and get a new back frame
+     */
+    public void publish() {
+        this.mBack.setSequence(++this.mSequence);
+        this.mBack = this.mReady.getAndSet(this.mBack);
+    }
+
+    /**
+     * reader only - take the latest published frame. The frame stays unchanged until
+     * the next call of this method.
+     *
+     * @return latest frame, or the same frame as last time if nothing new was published
+     */
+    public ProjectedFrame getFrontFrame() {
+        if (this.mReady.get().getSequence() > this.mFront.getSequence()) {
+            this.mFront = this.mReady.getAndSet(this.mFront);
+        }
+        return this.mFront;
+    }
+}
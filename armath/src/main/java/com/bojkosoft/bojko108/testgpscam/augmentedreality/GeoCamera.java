@@ -0,0 +1,247 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * Camera with cached view and projection matrices. Matrices are flat float[16]
+ * arrays in column-major order, see {@link Matrix4}. Each matrix is
+ * rebuilt only when a parameter it depends on has changed: orientation, distance and
+ * scale for the view matrix; field of view, viewport and clip planes for the
+ * projection matrix.
+ */
+public class GeoCamera {
+    private float mWidth;
+    private float mHeight;
+    private float mAspect;
+    private float mFov;
+    private float mNear;
+    private float mFar;
+
+    private float mRotationX;
+    private float mRotationY;
+    private float mRotationZ;
+    private float mDistance;
+    private float mScale;
+
+    private float[] mViewMatrix;
+    private float[] mProjectionMatrix;
+    private float[] mViewProjectionMatrix;
+
+    private boolean mViewDirty;
+    private boolean mProjectionDirty;
+    private boolean mViewProjectionDirty;
+
+    private int mViewVersion;
+    private int mProjectionVersion;
+
+    private Matrix3 mRotation;
+
+    /**
+     * Construct a new camera with 90 degrees field of view, 1x1 viewport and no rotation
+     */
+    public GeoCamera() {
+        this.mWidth = this.mHeight = this.mAspect = 1f;
+        this.mFov = 90f;
+        this.mNear = 0.01f;
+        this.mFar = 100f;
+        this.mScale = 1f;
+
+        this.mViewMatrix = new float[16];
+        this.mProjectionMatrix = new float[16];
+        this.mViewProjectionMatrix = new float[16];
+        this.mRotation = new Matrix3();
+
+        this.mViewDirty = this.mProjectionDirty = this.mViewProjectionDirty = true;
+    }
+
+    /**
+     * set camera orientation, rotations are applied around Z, X and Y axes - in that order
+     *
+     * @param rX - rotation around X in degrees
+     * @param rY - rotation around Y in degrees
+     * @param rZ - rotation around Z in degrees
+     */
+    public void setOrientation(float rX, float rY, float rZ) {
+        if (rX != this.mRotationX || rY != this.mRotationY || rZ != this.mRotationZ) {
+            this.mRotationX = rX;
+            this.mRotationY = rY;
+            this.mRotationZ = rZ;
+            this.invalidateView();
+        }
+    }
+
+    /**
+     * set distance from the camera to the origin of the model
+     *
+     * @param distance - distance along the view direction
+     */
+    public void setDistance(float distance) {
+        if (distance != this.mDistance) {
+            this.mDistance = distance;
+            this.invalidateView();
+        }
+    }
+
+    /**
+     * set model scale
+     *
+     * @param scale - uniform scale factor
+     */
+    public void setScale(float scale) {
+        if (scale != this.mScale) {
+            this.mScale = scale;
+            this.invalidateView();
+        }
+    }
+
+    /**
+     * set vertical field of view
+     *
+     * @param verticalFOV - camera's viewing angle in degrees
+     */
+    public void setFieldOfView(float verticalFOV) {
+        if (verticalFOV != this.mFov) {
+            this.mFov = verticalFOV;
+            this.invalidateProjection();
+        }
+    }
+
+    /**
+     * set viewport size in pixels
+     *
+     * @param width  - viewport width
+     * @param height - viewport height
+     */
+    public void setViewport(float width, float height) {
+        if (width != this.mWidth || height != this.mHeight) {
+            this.mWidth = width;
+            this.mHeight = height;
+            this.mAspect = width / height;
+            this.invalidateProjection();
+        }
+    }
+
+    /**
+     * set clipping planes
+     *
+     * @param near - distance from camera lens to near clipping plane
+     * @param far  - distance from camera lens to far clipping plane
+     */
+    public void setClipPlanes(float near, float far) {
+        if (near != this.mNear || far != this.mFar) {
+            this.mNear = near;
+            this.mFar = far;
+            this.invalidateProjection();
+        }
+    }
+
+    public float getWidth() {
+        return this.mWidth;
+    }
+
+    public float getHeight() {
+        return this.mHeight;
+    }
+
+    public float getAspect() {
+        return this.mAspect;
+    }
+
+    /**
+     * @return view matrix, do not modify
+     */
+    public float[] getViewMatrix() {
+        if (this.mViewDirty) {
+            this.mRotation.setRotation(this.mRotationX, this.mRotationY, this.mRotationZ);
+            float s = this.mScale;
+            float[] m = this.mViewMatrix;
+
+            // T(0, 0, -distance) * R * S
+            m[0] = (float) this.mRotation.m00 * s;
+            m[1] = (float) this.mRotation.m10 * s;
+            m[2] = (float) this.mRotation.m20 * s;
+            m[3] = 0f;
+            m[4] = (float) this.mRotation.m01 * s;
+            m[5] = (float) this.mRotation.m11 * s;
+            m[6] = (float) this.mRotation.m21 * s;
+            m[7] = 0f;
+            m[8] = (float) this.mRotation.m02 * s;
+            m[9] = (float) this.mRotation.m12 * s;
+            m[10] = (float) this.mRotation.m22 * s;
+            m[11] = 0f;
+            m[12] = 0f;
+            m[13] = 0f;
+            m[14] = -this.mDistance;
+            m[15] = 1f;
+
+            this.mViewDirty = false;
+            this.mViewVersion++;
+        }
+        return this.mViewMatrix;
+    }
+
+    /**
+     * @return projection matrix, do not modify
+     */
+    public float[] getProjectionMatrix() {
+        if (this.mProjectionDirty) {
+            ProjectionMatrices.perspective(this.mProjectionMatrix, 0, this.mFov, this.mAspect, this.mNear, this.mFar);
+
+            this.mProjectionDirty = false;
+            this.mProjectionVersion++;
+        }
+        return this.mProjectionMatrix;
+    }
+
+    /**
+     * @return projection * view matrix, do not modify
+     */
+    public float[] getViewProjectionMatrix() {
+        if (this.mViewProjectionDirty) {
+            Matrix4.multiply(this.mViewProjectionMatrix, 0, this.getProjectionMatrix(), 0, this.getViewMatrix(), 0);
+            this.mViewProjectionDirty = false;
+        }
+        return this.mViewProjectionMatrix;
+    }
+
+    /**
+     * @return number of times the view matrix was rebuilt
+     */
+    public int getViewVersion() {
+        return this.mViewVersion;
+    }
+
+    /**
+     * @return number of times the projection matrix was rebuilt
+     */
+    public int getProjectionVersion() {
+        return this.mProjectionVersion;
+    }
+
+    /**
+     * Project packed points to screen coordinates with the view-projection matrix.
+     * Points behind the camera (w <= 0) are not clipped.
+     *
+     * @param src   - model points: x, y, z for every point
+     * @param dst   - screen points: x, y in pixels and normalized depth for every point, can be src
+     * @param count - number of points
+     */
+    public void projectPoints(float[] src, float[] dst, int count) {
+        float halfWidth = this.mWidth * 0.5f;
+        float halfHeight = this.mHeight * 0.5f;
+
+        Matrix4.transformPoints(this.getViewProjectionMatrix(), src, dst, count);
+        for (int i = 0; i < count * 3; i += 3) {
+            dst[i] = (dst[i] + 1f) * halfWidth;
+            dst[i + 1] = (1f - dst[i + 1]) * halfHeight;
+        }
+    }
+
+    private void invalidateView() {
+        this.mViewDirty = true;
+        this.mViewProjectionDirty = true;
+    }
+
+    private void invalidateProjection() {
+        this.mProjectionDirty = true;
+        this.mViewProjectionDirty = true;
+    }
+}
@@ -0,0 +1,43 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * Passes an azimuth only if it is more than a threshold away from the last azimuth it
+ * passed, measured the short way around the circle - 359 to 1 degrees is a change of 2.
+ * Small jitter around a value is dropped and listeners redraw only for real turns.
+ */
+public class HysteresisGate implements AzimuthFilter {
+    private double mThreshold;
+    private double mLast;
+    private boolean mStarted;
+
+    /**
+     * @param threshold - minimum change in degrees to pass, negative values are 0
+     */
+    public HysteresisGate(double threshold) {
+        this.setThreshold(threshold);
+    }
+
+    public void setThreshold(double threshold) {
+        if (threshold < 0) threshold = 0;
+        this.mThreshold = threshold;
+    }
+
+    public double getThreshold() {
+        return this.mThreshold;
+    }
+
+    @Override
+    public double filter(double azimuth, long timestamp) {
+        if (this.mStarted && Math.abs(AzimuthFilterChain.difference(azimuth, this.mLast)) <= this.mThreshold) {
+            return Double.NaN;
+        }
+        this.mLast = azimuth;
+        this.mStarted = true;
+        return azimuth;
+    }
+
+    @Override
+    public void reset() {
+        this.mStarted = false;
+    }
+}
@@ -0,0 +1,63 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * One dimensional Kalman filter with the azimuth as the only state. The variance of the
+ * estimate grows with the process noise between events and shrinks with every
+ * measurement - after a still period new azimuths move it little, after a turn (or a
+ * long gap between events) they move it quickly. Innovations are taken the short way
+ * around the circle.
+ */
+public class KalmanHeadingFilter implements AzimuthFilter {
+    private final double mProcessNoise;
+    private final double mMeasurementNoise;
+    private double mAzimuth;
+    private double mVariance;
+    private long mTimestamp;
+    private boolean mStarted;
+
+    /**
+     * @param processNoise     - how much the azimuth is expected to change, degrees^2 per second
+     * @param measurementNoise - variance of the measured azimuth, degrees^2
+     */
+    public KalmanHeadingFilter(double processNoise, double measurementNoise) {
+        if (!(processNoise >= 0 && measurementNoise > 0)) {
+            throw new IllegalArgumentException("noise must be positive");
+        }
+        this.mProcessNoise = processNoise;
+        this.mMeasurementNoise = measurementNoise;
+    }
+
+    @Override
+    public double filter(double azimuth, long timestamp) {
+        if (!this.mStarted) {
+            this.mAzimuth = azimuth;
+            this.mVariance = this.mMeasurementNoise;
+            this.mTimestamp = timestamp;
+            this.mStarted = true;
+            return azimuth;
+        }
+
+        // predict - the azimuth stays, its variance grows
+        double dt = Math.max(0, (timestamp - this.mTimestamp) * 1e-9);
+        this.mTimestamp = timestamp;
+        this.mVariance += this.mProcessNoise * dt;
+
+        // update
+        double gain = this.mVariance / (this.mVariance + this.mMeasurementNoise);
+        this.mAzimuth = AzimuthFilterChain.normalize(this.mAzimuth + gain * AzimuthFilterChain.difference(azimuth, this.mAzimuth));
+        this.mVariance *= 1 - gain;
+        return this.mAzimuth;
+    }
+
+    /**
+     * @return variance of the current azimuth, degrees^2
+     */
+    public double getVariance() {
+        return this.mVariance;
+    }
+
+    @Override
+    public void reset() {
+        this.mStarted = false;
+    }
+}
@@ -0,0 +1,169 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * 3x3 matrix used for rotating vectors. The rotation is composed once per frame
+ * and then applied to every vertex with 9 multiply-adds, instead of calling
+ * sin/cos for every vertex.
+ */
+public class Matrix3 {
+    public double m00, m01, m02;
+    public double m10, m11, m12;
+    public double m20, m21, m22;
+
+    /**
+     * Construct a new identity matrix
+     */
+    public Matrix3() {
+        this.setIdentity();
+    }
+
+    /**
+     * reset this matrix to identity
+     *
+     * @return this matrix
+     */
+    public Matrix3 setIdentity() {
+        this.m00 = 1;
+        this.m01 = 0;
+        this.m02 = 0;
+        this.m10 = 0;
+        this.m11 = 1;
+        this.m12 = 0;
+        this.m20 = 0;
+        this.m21 = 0;
+        this.m22 = 1;
+
+        return this;
+    }
+
+    /**
+     * copy another matrix
+     *
+     * @param that - matrix to copy
+     * @return this matrix
+     */
+    public Matrix3 set(Matrix3 that) {
+        this.m00 = that.m00;
+        this.m01 = that.m01;
+        this.m02 = that.m02;
+        this.m10 = that.m10;
+        this.m11 = that.m11;
+        this.m12 = that.m12;
+        this.m20 = that.m20;
+        this.m21 = that.m21;
+        this.m22 = that.m22;
+
+        return this;
+    }
+
+    /**
+     * Set this matrix to a rotation around Z, X and Y axes - in that order. The result
+     * is the same as calling vector.rotateZ(rZ).rotateX(rX).rotateY(rY), the matrix
+     * is composed as Ry * Rx * Rz. Sine and cosine are read from {@link FastTrig}.
+     *
+     * @param rX - rotation around X in degrees
+     * @param rY - rotation around Y in degrees
+     * @param rZ - rotation around Z in degrees
+     * @return this matrix
+     */
+    public Matrix3 setRotation(double rX, double rY, double rZ) {
+        double cx = FastTrig.cos(rX);
+        double sx = FastTrig.sin(rX);
+
+        double cy = FastTrig.cos(rY);
+        double sy = FastTrig.sin(rY);
+
+        double cz = FastTrig.cos(rZ);
+        double sz = FastTrig.sin(rZ);
+
+        this.m00 = cy * cz + sy * sx * sz;
+        this.m01 = -cy * sz + sy * sx * cz;
+        this.m02 = sy * cx;
+
+        this.m10 = cx * sz;
+        this.m11 = cx * cz;
+        this.m12 = -sx;
+
+        this.m20 = -sy * cz + cy * sx * sz;
+        this.m21 = sy * sz + cy * sx * cz;
+        this.m22 = cy * cx;
+
+        return this;
+    }
+
+    /**
+     * multiply two matrices: this = left * right. Any of the matrices can be this matrix.
+     *
+     * @param left  - left matrix
+     * @param right - right matrix
+     * @return this matrix
+     */
+    public Matrix3 multiply(Matrix3 left, Matrix3 right) {
+        double n00 = left.m00 * right.m00 + left.m01 * right.m10 + left.m02 * right.m20;
+        double n01 = left.m00 * right.m01 + left.m01 * right.m11 + left.m02 * right.m21;
+        double n02 = left.m00 * right.m02 + left.m01 * right.m12 + left.m02 * right.m22;
+        double n10 = left.m10 * right.m00 + left.m11 * right.m10 + left.m12 * right.m20;
+        double n11 = left.m10 * right.m01 + left.m11 * right.m11 + left.m12 * right.m21;
+        double n12 = left.m10 * right.m02 + left.m11 * right.m12 + left.m12 * right.m22;
+        double n20 = left.m20 * right.m00 + left.m21 * right.m10 + left.m22 * right.m20;
+        double n21 = left.m20 * right.m01 + left.m21 * right.m11 + left.m22 * right.m21;
+        double n22 = left.m20 * right.m02 + left.m21 * right.m12 + left.m22 * right.m22;
+
+        this.m00 = n00;
+        this.m01 = n01;
+        this.m02 = n02;
+        this.m10 = n10;
+        this.m11 = n11;
+        this.m12 = n12;
+        this.m20 = n20;
+        this.m21 = n21;
+        this.m22 = n22;
+
+        return this;
+    }
+
+    /**
+     * transform a vector with this matrix
+     *
+     * @param in  - vector to transform
+     * @param out - vector to store the result in, can be in
+     * @return out
+     */
+    public Vector3D transform(Vector3D in, Vector3D out) {
+        double x = this.m00 * in.x + this.m01 * in.y + this.m02 * in.z;
+        double y = this.m10 * in.x + this.m11 * in.y + this.m12 * in.z;
+        double z = this.m20 * in.x + this.m21 * in.y + this.m22 * in.z;
+
+        return out.set(x, y, z);
+    }
+
+    /**
+     * transform X, Y and Z components of a vector with this matrix, W is not changed
+     *
+     * @param in  - vector to transform
+     * @param out - vector to store the result in, can be in
+     * @return out
+     */
+    public Vector4D transform(Vector4D in, Vector4D out) {
+        double x = this.m00 * in.x + this.m01 * in.y + this.m02 * in.z;
+        double y = this.m10 * in.x + this.m11 * in.y + this.m12 * in.z;
+        double z = this.m20 * in.x + this.m21 * in.y + this.m22 * in.z;
+
+        return out.set(x, y, z, in.w);
+    }
+
+    /**
+     * transform a single precision vector with this matrix
+     *
+     * @param in  - vector to transform
+     * @param out - vector to store the result in, can be in
+     * @return out
+     */
+    public Vector3F transform(Vector3F in, Vector3F out) {
+        float x = (float) (this.m00 * in.x + this.m01 * in.y + this.m02 * in.z);
+        float y = (float) (this.m10 * in.x + this.m11 * in.y + this.m12 * in.z);
+        float z = (float) (this.m20 * in.x + this.m21 * in.y + this.m22 * in.z);
+
+        return out.set(x, y, z);
+    }
+}
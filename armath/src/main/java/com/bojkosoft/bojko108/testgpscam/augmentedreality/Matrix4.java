@@ -0,0 +1,326 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * 4x4 matrix math over flat float arrays. Matrices are stored in column-major order,
+ * element (row, col) is at index offset + col * 4 + row - the same layout as
+ * android.opengl.Matrix, so both can be used on the same arrays. All results are
+ * written into caller-supplied arrays, nothing is allocated.
+ */
+public class Matrix4 {
+
+    private Matrix4() {
+    }
+
+    /**
+     * set a matrix to identity
+     *
+     * @param m      - matrix
+     * @param offset - index of the first matrix element
+     */
+    public static void setIdentity(float[] m, int offset) {
+        for (int i = 0; i < 16; i++) {
+            m[offset + i] = 0f;
+        }
+        m[offset] = m[offset + 5] = m[offset + 10] = m[offset + 15] = 1f;
+    }
+
+    /**
+     * multiply two matrices: result = lhs * rhs. The result must not overlap lhs or rhs.
+     *
+     * @param result       - matrix to store the result in
+     * @param resultOffset - index of the first element of result
+     * @param lhs          - left matrix
+     * @param lhsOffset    - index of the first element of lhs
+     * @param rhs          - right matrix
+     * @param rhsOffset    - index of the first element of rhs
+     */
+    public static void multiply(float[] result, int resultOffset, float[] lhs, int lhsOffset, float[] rhs, int rhsOffset) {
+        float l00 = lhs[lhsOffset], l10 = lhs[lhsOffset + 1], l20 = lhs[lhsOffset + 2], l30 = lhs[lhsOffset + 3];
+        float l01 = lhs[lhsOffset + 4], l11 = lhs[lhsOffset + 5], l21 = lhs[lhsOffset + 6], l31 = lhs[lhsOffset + 7];
+        float l02 = lhs[lhsOffset + 8], l12 = lhs[lhsOffset + 9], l22 = lhs[lhsOffset + 10], l32 = lhs[lhsOffset + 11];
+        float l03 = lhs[lhsOffset + 12], l13 = lhs[lhsOffset + 13], l23 = lhs[lhsOffset + 14], l33 = lhs[lhsOffset + 15];
+
+        for (int col = 0; col < 16; col += 4) {
+            float r0 = rhs[rhsOffset + col];
+            float r1 = rhs[rhsOffset + col + 1];
+            float r2 = rhs[rhsOffset + col + 2];
+            float r3 = rhs[rhsOffset + col + 3];
+
+            result[resultOffset + col] = l00 * r0 + l01 * r1 + l02 * r2 + l03 * r3;
+            result[resultOffset + col + 1] = l10 * r0 + l11 * r1 + l12 * r2 + l13 * r3;
+            result[resultOffset + col + 2] = l20 * r0 + l21 * r1 + l22 * r2 + l23 * r3;
+            result[resultOffset + col + 3] = l30 * r0 + l31 * r1 + l32 * r2 + l33 * r3;
+        }
+    }
+
+    /**
+     * multiply a matrix by a 4 component column vector: result = lhs * rhs.
+     * The result must not overlap rhs.
+     *
+     * @param result       - vector to store the result in
+     * @param resultOffset - index of the first element of result
+     * @param lhs          - matrix
+     * @param lhsOffset    - index of the first element of lhs
+     * @param rhs          - vector
+     * @param rhsOffset    - index of the first element of rhs
+     */
+    public static void multiplyVector(float[] result, int resultOffset, float[] lhs, int lhsOffset, float[] rhs, int rhsOffset) {
+        float x = rhs[rhsOffset];
+        float y = rhs[rhsOffset + 1];
+        float z = rhs[rhsOffset + 2];
+        float w = rhs[rhsOffset + 3];
+
+        for (int row = 0; row < 4; row++) {
+            result[resultOffset + row] = lhs[lhsOffset + row] * x
+                    + lhs[lhsOffset + 4 + row] * y
+                    + lhs[lhsOffset + 8 + row] * z
+                    + lhs[lhsOffset + 12 + row] * w;
+        }
+    }
+
+    /**
+     * transpose a matrix. The result must not overlap m.
+     *
+     * @param result       - matrix to store the result in
+     * @param resultOffset - index of the first element of result
+     * @param m            - matrix to transpose
+     * @param offset       - index of the first element of m
+     */
+    public static void transpose(float[] result, int resultOffset, float[] m, int offset) {
+        for (int i = 0; i < 4; i++) {
+            int mBase = i * 4 + offset;
+            result[i + resultOffset] = m[mBase];
+            result[i + 4 + resultOffset] = m[mBase + 1];
+            result[i + 8 + resultOffset] = m[mBase + 2];
+            result[i + 12 + resultOffset] = m[mBase + 3];
+        }
+    }
+
+    /**
+     * invert a matrix. The result must not overlap m.
+     *
+     * @param result       - matrix to store the result in
+     * @param resultOffset - index of the first element of result
+     * @param m            - matrix to invert
+     * @param offset       - index of the first element of m
+     * @return false if the matrix is not invertible, the result is not changed then
+     */
+    public static boolean invert(float[] result, int resultOffset, float[] m, int offset) {
+        float a00 = m[offset], a01 = m[offset + 1], a02 = m[offset + 2], a03 = m[offset + 3];
+        float a10 = m[offset + 4], a11 = m[offset + 5], a12 = m[offset + 6], a13 = m[offset + 7];
+        float a20 = m[offset + 8], a21 = m[offset + 9], a22 = m[offset + 10], a23 = m[offset + 11];
+        float a30 = m[offset + 12], a31 = m[offset + 13], a32 = m[offset + 14], a33 = m[offset + 15];
+
+        float b00 = a00 * a11 - a01 * a10;
+        float b01 = a00 * a12 - a02 * a10;
+        float b02 = a00 * a13 - a03 * a10;
+        float b03 = a01 * a12 - a02 * a11;
+        float b04 = a01 * a13 - a03 * a11;
+        float b05 = a02 * a13 - a03 * a12;
+        float b06 = a20 * a31 - a21 * a30;
+        float b07 = a20 * a32 - a22 * a30;
+        float b08 = a20 * a33 - a23 * a30;
+        float b09 = a21 * a32 - a22 * a31;
+        float b10 = a21 * a33 - a23 * a31;
+        float b11 = a22 * a33 - a23 * a32;
+
+        float det = b00 * b11 - b01 * b10 + b02 * b09 + b03 * b08 - b04 * b07 + b05 * b06;
+        if (det == 0f) {
+            return false;
+        }
+        float invDet = 1f / det;
+
+        result[resultOffset] = (a11 * b11 - a12 * b10 + a13 * b09) * invDet;
+        result[resultOffset + 1] = (a02 * b10 - a01 * b11 - a03 * b09) * invDet;
+        result[resultOffset + 2] = (a31 * b05 - a32 * b04 + a33 * b03) * invDet;
+        result[resultOffset + 3] = (a22 * b04 - a21 * b05 - a23 * b03) * invDet;
+        result[resultOffset + 4] = (a12 * b08 - a10 * b11 - a13 * b07) * invDet;
+        result[resultOffset + 5] = (a00 * b11 - a02 * b08 + a03 * b07) * invDet;
+        result[resultOffset + 6] = (a32 * b02 - a30 * b05 - a33 * b01) * invDet;
+        result[resultOffset + 7] = (a20 * b05 - a22 * b02 + a23 * b01) * invDet;
+        result[resultOffset + 8] = (a10 * b10 - a11 * b08 + a13 * b06) * invDet;
+        result[resultOffset + 9] = (a01 * b08 - a00 * b10 - a03 * b06) * invDet;
+        result[resultOffset + 10] = (a30 * b04 - a31 * b02 + a33 * b00) * invDet;
+        result[resultOffset + 11] = (a21 * b02 - a20 * b04 - a23 * b00) * invDet;
+        result[resultOffset + 12] = (a11 * b07 - a10 * b09 - a12 * b06) * invDet;
+        result[resultOffset + 13] = (a00 * b09 - a01 * b07 + a02 * b06) * invDet;
+        result[resultOffset + 14] = (a31 * b01 - a30 * b03 - a32 * b00) * invDet;
+        result[resultOffset + 15] = (a20 * b03 - a21 * b01 + a22 * b00) * invDet;
+
+        return true;
+    }
+
+    /**
+     * set a perspective projection matrix
+     *
+     * @param m           - matrix to store the result in
+     * @param offset      - index of the first matrix element
+     * @param verticalFOV - camera's viewing angle in degrees
+     * @param aspect      - width / height of the viewport
+     * @param near        - distance from camera lens to near clipping plane
+     * @param far         - distance from camera lens to far clipping plane
+     */
+    public static void perspective(float[] m, int offset, float verticalFOV, float aspect, float near, float far) {
+        float f = 1.0f / (float) Math.tan(Math.toRadians(verticalFOV) / 2);
+        float rangeReciprocal = 1.0f / (near - far);
+
+        m[offset] = f / aspect;
+        m[offset + 1] = 0f;
+        m[offset + 2] = 0f;
+        m[offset + 3] = 0f;
+        m[offset + 4] = 0f;
+        m[offset + 5] = f;
+        m[offset + 6] = 0f;
+        m[offset + 7] = 0f;
+        m[offset + 8] = 0f;
+        m[offset + 9] = 0f;
+        m[offset + 10] = (far + near) * rangeReciprocal;
+        m[offset + 11] = -1f;
+        m[offset + 12] = 0f;
+        m[offset + 13] = 0f;
+        m[offset + 14] = 2f * far * near * rangeReciprocal;
+        m[offset + 15] = 0f;
+    }
+
+    /**
+     * set a perspective projection matrix defined by six clip planes
+     *
+     * @param m      - matrix to store the result in
+     * @param offset - index of the first matrix element
+     */
+    public static void frustum(float[] m, int offset, float left, float right, float bottom, float top, float near, float far) {
+        if (left == right || bottom == top || near == far || near <= 0f || far <= 0f) {
+            throw new IllegalArgumentException("invalid frustum");
+        }
+        float rWidth = 1f / (right - left);
+        float rHeight = 1f / (top - bottom);
+        float rDepth = 1f / (near - far);
+
+        m[offset] = 2f * near * rWidth;
+        m[offset + 1] = 0f;
+        m[offset + 2] = 0f;
+        m[offset + 3] = 0f;
+        m[offset + 4] = 0f;
+        m[offset + 5] = 2f * near * rHeight;
+        m[offset + 6] = 0f;
+        m[offset + 7] = 0f;
+        m[offset + 8] = (right + left) * rWidth;
+        m[offset + 9] = (top + bottom) * rHeight;
+        m[offset + 10] = (far + near) * rDepth;
+        m[offset + 11] = -1f;
+        m[offset + 12] = 0f;
+        m[offset + 13] = 0f;
+        m[offset + 14] = 2f * far * near * rDepth;
+        m[offset + 15] = 0f;
+    }
+
+    /**
+     * set an orthographic projection matrix
+     *
+     * @param m      - matrix to store the result in
+     * @param offset - index of the first matrix element
+     */
+    public static void ortho(float[] m, int offset, float left, float right, float bottom, float top, float near, float far) {
+        if (left == right || bottom == top || near == far) {
+            throw new IllegalArgumentException("invalid ortho");
+        }
+        float rWidth = 1f / (right - left);
+        float rHeight = 1f / (top - bottom);
+        float rDepth = 1f / (far - near);
+
+        m[offset] = 2f * rWidth;
+        m[offset + 1] = 0f;
+        m[offset + 2] = 0f;
+        m[offset + 3] = 0f;
+        m[offset + 4] = 0f;
+        m[offset + 5] = 2f * rHeight;
+        m[offset + 6] = 0f;
+        m[offset + 7] = 0f;
+        m[offset + 8] = 0f;
+        m[offset + 9] = 0f;
+        m[offset + 10] = -2f * rDepth;
+        m[offset + 11] = 0f;
+        m[offset + 12] = -(right + left) * rWidth;
+        m[offset + 13] = -(top + bottom) * rHeight;
+        m[offset + 14] = -(far + near) * rDepth;
+        m[offset + 15] = 1f;
+    }
+
+    /**
+     * set a view matrix looking from eye to center
+     *
+     * @param m      - matrix to store the result in
+     * @param offset - index of the first matrix element
+     */
+    public static void lookAt(float[] m, int offset,
+                              float eyeX, float eyeY, float eyeZ,
+                              float centerX, float centerY, float centerZ,
+                              float upX, float upY, float upZ) {
+        // forward
+        float fx = centerX - eyeX;
+        float fy = centerY - eyeY;
+        float fz = centerZ - eyeZ;
+        float rlf = 1f / (float) Math.sqrt(fx * fx + fy * fy + fz * fz);
+        fx *= rlf;
+        fy *= rlf;
+        fz *= rlf;
+
+        // side = forward x up
+        float sx = fy * upZ - fz * upY;
+        float sy = fz * upX - fx * upZ;
+        float sz = fx * upY - fy * upX;
+        float rls = 1f / (float) Math.sqrt(sx * sx + sy * sy + sz * sz);
+        sx *= rls;
+        sy *= rls;
+        sz *= rls;
+
+        // recompute up = side x forward
+        float ux = sy * fz - sz * fy;
+        float uy = sz * fx - sx * fz;
+        float uz = sx * fy - sy * fx;
+
+        m[offset] = sx;
+        m[offset + 1] = ux;
+        m[offset + 2] = -fx;
+        m[offset + 3] = 0f;
+        m[offset + 4] = sy;
+        m[offset + 5] = uy;
+        m[offset + 6] = -fy;
+        m[offset + 7] = 0f;
+        m[offset + 8] = sz;
+        m[offset + 9] = uz;
+        m[offset + 10] = -fz;
+        m[offset + 11] = 0f;
+        m[offset + 12] = -(sx * eyeX + sy * eyeY + sz * eyeZ);
+        m[offset + 13] = -(ux * eyeX + uy * eyeY + uz * eyeZ);
+        m[offset + 14] = fx * eyeX + fy * eyeY + fz * eyeZ;
+        m[offset + 15] = 1f;
+    }
+
+    /**
+     * Transform packed points (x, y, z with w = 1) and divide by the resulting w.
+     *
+     * @param m   - matrix, offset 0
+     * @param in  - points: x, y, z for every point
+     * @param out - transformed points: x / w, y / w, z / w for every point, can be in
+     * @param n   - number of points
+     */
+    public static void transformPoints(float[] m, float[] in, float[] out, int n) {
+        float m0 = m[0], m1 = m[1], m2 = m[2], m3 = m[3];
+        float m4 = m[4], m5 = m[5], m6 = m[6], m7 = m[7];
+        float m8 = m[8], m9 = m[9], m10 = m[10], m11 = m[11];
+        float m12 = m[12], m13 = m[13], m14 = m[14], m15 = m[15];
+
+        int end = n * 3;
+        for (int i = 0; i < end; i += 3) {
+            float x = in[i];
+            float y = in[i + 1];
+            float z = in[i + 2];
+
+            float invW = 1f / (m3 * x + m7 * y + m11 * z + m15);
+            out[i] = (m0 * x + m4 * y + m8 * z + m12) * invW;
+            out[i + 1] = (m1 * x + m5 * y + m9 * z + m13) * invW;
+            out[i + 2] = (m2 * x + m6 * y + m10 * z + m14) * invW;
+        }
+    }
+}
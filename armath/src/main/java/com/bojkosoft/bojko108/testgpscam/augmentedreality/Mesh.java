@@ -0,0 +1,284 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import java.util.Arrays;
+
+/**
+ * Indexed polygon mesh. Vertices are stored once in a {@link VertexBuffer} and faces
+ * refer to them by index, so a vertex shared by several faces is transformed only once.
+ * Every face is a simple polygon (convex or concave, without holes) with at least three
+ * vertices and a color (ARGB).
+ * <p>
+ * Face normals are calculated in model space when a face is added, so faces can be
+ * culled with a rotated normal instead of a cross product of projected points. Faces
+ * are also split in triangles once, with a {@link Triangulator}, so drawing them as
+ * triangles never needs to triangulate again. If vertices are moved later call
+ * {@link #updateFaces()}.
+ */
+public class Mesh {
+    private VertexBuffer mVertices;
+    // vertex indices of all faces, face after face
+    private int[] mIndices;
+    private int mIndexCount;
+    // index of the first vertex index of every face, one more for the end of the last face
+    private int[] mFaceStarts;
+    private int[] mColors;
+    // x, y, z of the normal of every face, not normalized
+    private double[] mNormals;
+    // corners of the triangles of every face, (face size - 2) * 3 places for each face
+    private int[] mTriangles;
+    private int[] mTriangleCounts;
+    private boolean[] mConvex;
+    private int mFaceCount;
+    private int mMaxFaceSize;
+
+    private final Triangulator mTriangulator = new Triangulator();
+    // face vertices projected on the plane of the face
+    private double[] mPlane = new double[16];
+
+    /**
+     * Construct a new empty mesh
+     *
+     * @param vertexCapacity - initial number of vertices
+     * @param faceCapacity   - initial number of faces
+     */
+    public Mesh(int vertexCapacity, int faceCapacity) {
+        this(vertexCapacity, faceCapacity, faceCapacity * 4);
+    }
+
+    /**
+     * Construct a new empty mesh
+     *
+     * @param vertexCapacity - initial number of vertices
+     * @param faceCapacity   - initial number of faces
+     * @param indexCapacity  - initial number of vertex indices of all faces
+     */
+    public Mesh(int vertexCapacity, int faceCapacity, int indexCapacity) {
+        if (faceCapacity < 1) faceCapacity = 1;
+        if (indexCapacity < 3) indexCapacity = 3;
+        this.mVertices = new VertexBuffer(vertexCapacity);
+        this.mIndices = new int[indexCapacity];
+        this.mFaceStarts = new int[faceCapacity + 1];
+        this.mColors = new int[faceCapacity];
+        this.mNormals = new double[faceCapacity * 3];
+        this.mTriangles = new int[indexCapacity * 3];
+        this.mTriangleCounts = new int[faceCapacity];
+        this.mConvex = new boolean[faceCapacity];
+    }
+
+    /**
+     * add a vertex
+     *
+     * @return index of the added vertex
+     */
+    public int addVertex(double x, double y, double z) {
+        return this.mVertices.add(x, y, z);
+    }
+
+    /**
+     * add a face
+     *
+     * @param color    - face color
+     * @param vertices - indices of the face vertices, at least three
+     * @return index of the added face
+     */
+    public int addFace(int color, int... vertices) {
+        return this.addFace(color, vertices, 0, vertices.length);
+    }
+
+    /**
+     * add a face
+     *
+     * @param color    - face color
+     * @param vertices - indices of the face vertices
+     * @param offset   - position of the first index of the face in vertices
+     * @param count    - number of face vertices, at least three
+     * @return index of the added face
+     */
+    public int addFace(int color, int[] vertices, int offset, int count) {
+        if (count < 3) {
+            throw new IllegalArgumentException("a face needs at least 3 vertices");
+        }
+        for (int i = offset; i < offset + count; i++) {
+            if (vertices[i] < 0 || vertices[i] >= this.mVertices.size()) {
+                throw new IllegalArgumentException("no vertex with index " + vertices[i]);
+            }
+        }
+
+        if (this.mIndexCount + count > this.mIndices.length) {
+            this.mIndices = Arrays.copyOf(this.mIndices, Math.max(this.mIndices.length * 2, this.mIndexCount + count));
+            this.mTriangles = Arrays.copyOf(this.mTriangles, this.mIndices.length * 3);
+        }
+        if (this.mFaceCount + 1 >= this.mFaceStarts.length) {
+            this.mFaceStarts = Arrays.copyOf(this.mFaceStarts, this.mFaceStarts.length * 2);
+            this.mColors = Arrays.copyOf(this.mColors, this.mFaceStarts.length - 1);
+            this.mNormals = Arrays.copyOf(this.mNormals, (this.mFaceStarts.length - 1) * 3);
+            this.mTriangleCounts = Arrays.copyOf(this.mTriangleCounts, this.mFaceStarts.length - 1);
+            this.mConvex = Arrays.copyOf(this.mConvex, this.mFaceStarts.length - 1);
+        }
+
+        System.arraycopy(vertices, offset, this.mIndices, this.mIndexCount, count);
+        this.mIndexCount += count;
+        this.mColors[this.mFaceCount] = color;
+        this.mFaceStarts[++this.mFaceCount] = this.mIndexCount;
+        this.mMaxFaceSize = Math.max(this.mMaxFaceSize, count);
+        this.calculateNormal(this.mFaceCount - 1);
+        this.triangulate(this.mFaceCount - 1);
+
+        return this.mFaceCount - 1;
+    }
+
+    /**
+     * calculate the normals and triangles of all faces again, after vertices were moved
+     */
+    public void updateFaces() {
+        for (int face = 0; face < this.mFaceCount; face++) {
+            this.calculateNormal(face);
+            this.triangulate(face);
+        }
+    }
+
+    /**
+     * @return number of vertex indices of all faces
+     */
+    public int getIndexCount() {
+        return this.mIndexCount;
+    }
+
+    public VertexBuffer getVertexBuffer() {
+        return this.mVertices;
+    }
+
+    public int getVertexCount() {
+        return this.mVertices.size();
+    }
+
+    public int getFaceCount() {
+        return this.mFaceCount;
+    }
+
+    /**
+     * @param face - face index
+     * @return position of the first vertex index of the face in {@link #getIndices()}
+     */
+    public int getFaceStart(int face) {
+        return this.mFaceStarts[face];
+    }
+
+    /**
+     * @param face - face index
+     * @return number of face vertices
+     */
+    public int getFaceSize(int face) {
+        return this.mFaceStarts[face + 1] - this.mFaceStarts[face];
+    }
+
+    /**
+     * @return vertex indices of all faces
+     */
+    public int[] getIndices() {
+        return this.mIndices;
+    }
+
+    public int getColor(int face) {
+        return this.mColors[face];
+    }
+
+    /**
+     * @return x, y and z of the normal of every face
+     */
+    public double[] getNormals() {
+        return this.mNormals;
+    }
+
+    /**
+     * @param face - face index
+     * @return true if the face is convex, it is then split in a fan around its first vertex
+     */
+    public boolean isConvex(int face) {
+        return this.mConvex[face];
+    }
+
+    /**
+     * @param face - face index
+     * @return position of the first triangle corner of the face in {@link #getTriangles()}
+     */
+    public int getTriangleStart(int face) {
+        return (this.mFaceStarts[face] - 2 * face) * 3;
+    }
+
+    /**
+     * @param face - face index
+     * @return number of triangles of the face, face size - 2 unless some corners have no area
+     */
+    public int getTriangleCount(int face) {
+        return this.mTriangleCounts[face];
+    }
+
+    /**
+     * @return triangles of all faces, three corners per triangle - numbers of the face
+     * vertices from 0 to face size - 1, not vertex indices
+     */
+    public int[] getTriangles() {
+        return this.mTriangles;
+    }
+
+    /**
+     * @return number of vertices of the largest face
+     */
+    public int getMaxFaceSize() {
+        return this.mMaxFaceSize;
+    }
+
+    /**
+     * Newell's method - the sum of the edge cross products, which works for all vertices of
+     * a polygon and not only the first three. The normal points towards the side the face
+     * vertices are seen counter-clockwise from, in a right-handed system.
+     */
+    private void calculateNormal(int face) {
+        double[] vertices = this.mVertices.getVertices();
+        int start = this.mFaceStarts[face];
+        int end = this.mFaceStarts[face + 1];
+        double nx = 0, ny = 0, nz = 0;
+
+        int p = this.mIndices[end - 1] * VertexBuffer.STRIDE;
+        for (int i = start; i < end; i++) {
+            int c = this.mIndices[i] * VertexBuffer.STRIDE;
+            nx += (vertices[p + 1] - vertices[c + 1]) * (vertices[p + 2] + vertices[c + 2]);
+            ny += (vertices[p + 2] - vertices[c + 2]) * (vertices[p] + vertices[c]);
+            nz += (vertices[p] - vertices[c]) * (vertices[p + 1] + vertices[c + 1]);
+            p = c;
+        }
+
+        this.mNormals[face * 3] = nx;
+        this.mNormals[face * 3 + 1] = ny;
+        this.mNormals[face * 3 + 2] = nz;
+    }
+
+    /**
+     * Split a face in triangles on the plane of the coordinate axes the face is facing the
+     * most, the normal has to be calculated already.
+     */
+    private void triangulate(int face) {
+        double[] vertices = this.mVertices.getVertices();
+        int start = this.mFaceStarts[face];
+        int size = this.mFaceStarts[face + 1] - start;
+        double nx = Math.abs(this.mNormals[face * 3]);
+        double ny = Math.abs(this.mNormals[face * 3 + 1]);
+        double nz = Math.abs(this.mNormals[face * 3 + 2]);
+        // drop the axis of the largest normal component
+        int u = nx >= ny && nx >= nz ? 1 : (ny >= nz ? 2 : 0);
+        int v = nx >= ny && nx >= nz ? 2 : (ny >= nz ? 0 : 1);
+
+        if (this.mPlane.length < size * 2) {
+            this.mPlane = new double[size * 2];
+        }
+        for (int i = 0; i < size; i++) {
+            int vertex = this.mIndices[start + i] * VertexBuffer.STRIDE;
+            this.mPlane[i * 2] = vertices[vertex + u];
+            this.mPlane[i * 2 + 1] = vertices[vertex + v];
+        }
+
+        this.mConvex[face] = Triangulator.classify(this.mPlane, 0, 2, size) == Triangulator.CONVEX;
+        this.mTriangleCounts[face] = this.mTriangulator.triangulate(this.mPlane, 0, 2, size, this.mTriangles, this.getTriangleStart(face));
+    }
+}
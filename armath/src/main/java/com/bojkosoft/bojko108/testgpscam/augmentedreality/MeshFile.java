@@ -0,0 +1,218 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Compact binary {@link Mesh} format. All values are little-endian:
+ * <pre>
+ * header    6 x int32 - magic "MESH", version, flags, vertex count, face count, index count
+ * vertices  float32 x, y, z for every vertex
+ * colors    int32 ARGB for every face
+ * sizes     uint16 number of vertices of every face
+ * indices   uint16 (or int32 if flags has INDEX_32) vertex indices of all faces
+ * </pre>
+ * Files are memory mapped and vertices are copied from the mapping straight into the
+ * mesh vertex buffer, nothing is parsed and no objects are created per vertex or face.
+ */
+public class MeshFile {
+    /**
+     * "MESH" read as a little-endian int
+     */
+    public static final int MAGIC = 0x4853454D;
+    public static final int VERSION = 1;
+    /**
+     * flag - vertex indices are int32 instead of uint16
+     */
+    public static final int INDEX_32 = 1;
+
+    public static final int HEADER_SIZE = 6 * 4;
+
+    private MeshFile() {
+    }
+
+    /**
+     * load a mesh from a file
+     *
+     * @param file - mesh file
+     * @return loaded mesh
+     * @throws IOException if the file can not be read or is not a valid mesh file
+     */
+    public static Mesh load(File file) throws IOException {
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = input.getChannel();
+            return load(channel, 0, channel.size());
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * Load a mesh from a part of a file. For an uncompressed asset open it with
+     * AssetManager.openFd() and pass the channel of its FileInputStream with the start
+     * offset and the length of the descriptor.
+     *
+     * @param channel  - file channel, it is not closed
+     * @param position - start of the mesh in the file
+     * @param size     - size of the mesh in bytes
+     * @return loaded mesh
+     * @throws IOException if the file can not be read or is not a valid mesh file
+     */
+    public static Mesh load(FileChannel channel, long position, long size) throws IOException {
+        return read(channel.map(FileChannel.MapMode.READ_ONLY, position, size));
+    }
+
+    /**
+     * read a mesh from a buffer, starting at its current position
+     *
+     * @param buffer - mesh data
+     * @return loaded mesh
+     * @throws IOException if the buffer does not contain a valid mesh
+     */
+    public static Mesh read(ByteBuffer buffer) throws IOException {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IOException("mesh file is too short");
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("not a mesh file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("unsupported mesh file version " + version);
+        }
+        int flags = buffer.getInt();
+        int vertexCount = buffer.getInt();
+        int faceCount = buffer.getInt();
+        int indexCount = buffer.getInt();
+        boolean index32 = (flags & INDEX_32) != 0;
+
+        long expected = 12L * vertexCount + 4L * faceCount + 2L * faceCount + (index32 ? 4L : 2L) * indexCount;
+        if (vertexCount < 0 || faceCount < 0 || indexCount < 0 || buffer.remaining() < expected) {
+            throw new IOException("mesh file is truncated");
+        }
+
+        Mesh mesh = new Mesh(vertexCount, faceCount, indexCount);
+        FloatBuffer vertices = buffer.asFloatBuffer();
+        mesh.getVertexBuffer().addAll(vertices, vertexCount);
+        buffer.position(buffer.position() + vertexCount * 12);
+
+        IntBuffer colors = buffer.asIntBuffer();
+        buffer.position(buffer.position() + faceCount * 4);
+        ShortBuffer sizes = buffer.asShortBuffer();
+        buffer.position(buffer.position() + faceCount * 2);
+        IntBuffer indices32 = index32 ? buffer.asIntBuffer() : null;
+        ShortBuffer indices16 = index32 ? null : buffer.asShortBuffer();
+
+        int[] face = new int[16];
+        int index = 0;
+        try {
+            for (int f = 0; f < faceCount; f++) {
+                int count = sizes.get(f) & 0xffff;
+                if (index + count > indexCount) {
+                    throw new IOException("face " + f + " is out of the index block");
+                }
+                if (face.length < count) {
+                    face = new int[count];
+                }
+                for (int i = 0; i < count; i++, index++) {
+                    face[i] = index32 ? indices32.get(index) : indices16.get(index) & 0xffff;
+                }
+                mesh.addFace(colors.get(f), face, 0, count);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("invalid face: " + e.getMessage());
+        } catch (BufferUnderflowException e) {
+            throw new IOException("mesh file is truncated");
+        }
+        buffer.position(buffer.position() + (index32 ? 4 : 2) * indexCount);
+
+        return mesh;
+    }
+
+    /**
+     * write a mesh in a file, uint16 indices are used if the mesh has up to 65536 vertices
+     *
+     * @param mesh - mesh to write
+     * @param file - file to write to, it is replaced if it exists
+     * @throws IOException if the file can not be written
+     */
+    public static void write(Mesh mesh, File file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(getSize(mesh));
+        write(mesh, buffer);
+        buffer.flip();
+
+        RandomAccessFile output = new RandomAccessFile(file, "rw");
+        try {
+            output.setLength(0);
+            FileChannel channel = output.getChannel();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    /**
+     * write a mesh in a buffer
+     *
+     * @param mesh   - mesh to write
+     * @param buffer - buffer with at least {@link #getSize(Mesh)} bytes remaining
+     */
+    public static void write(Mesh mesh, ByteBuffer buffer) {
+        boolean index32 = isIndex32(mesh);
+        int vertexCount = mesh.getVertexCount();
+        int faceCount = mesh.getFaceCount();
+        int indexCount = mesh.getIndexCount();
+
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(index32 ? INDEX_32 : 0);
+        buffer.putInt(vertexCount);
+        buffer.putInt(faceCount);
+        buffer.putInt(indexCount);
+
+        double[] vertices = mesh.getVertexBuffer().getVertices();
+        for (int i = 0; i < vertexCount * VertexBuffer.STRIDE; i++) {
+            buffer.putFloat((float) vertices[i]);
+        }
+        for (int f = 0; f < faceCount; f++) {
+            buffer.putInt(mesh.getColor(f));
+        }
+        for (int f = 0; f < faceCount; f++) {
+            buffer.putShort((short) mesh.getFaceSize(f));
+        }
+        int[] indices = mesh.getIndices();
+        for (int i = 0; i < indexCount; i++) {
+            if (index32) {
+                buffer.putInt(indices[i]);
+            } else {
+                buffer.putShort((short) indices[i]);
+            }
+        }
+    }
+
+    /**
+     * @param mesh - mesh to write
+     * @return size of the mesh file in bytes
+     */
+    public static int getSize(Mesh mesh) {
+        return HEADER_SIZE + mesh.getVertexCount() * 12 + mesh.getFaceCount() * 6
+                + mesh.getIndexCount() * (isIndex32(mesh) ? 4 : 2);
+    }
+
+    private static boolean isIndex32(Mesh mesh) {
+        return mesh.getVertexCount() > 0x10000;
+    }
+}
@@ -0,0 +1,301 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * Projects a {@link Mesh} face by face: vertices are moved to clip space once, faces
+ * facing away are culled with their rotated model space normal, the rest are clipped and
+ * divided. Only the visible faces are sorted back to front with a {@link DepthSorter}. The
+ * projector also tracks whether anything moved enough to be redrawn and the screen bounds
+ * of the visible faces.
+ * <p>
+ * All arrays are allocated in the constructor for the faces the mesh has at that time.
+ * Vertices may be moved later, but a projector has to be created again if faces are added.
+ */
+public class MeshProjector {
+    /**
+     * faces moving less than that (in pixels) are not reported as changed
+     */
+    public static final double CHANGE_EPSILON = 0.25;
+
+    private final Mesh mMesh;
+    private final int mFaceCount;
+    private final DepthSorter mSorter;
+
+    // clipped screen polygon of every face, screen x, screen y and depth per vertex
+    private final int[] mScreenStarts;
+    private final double[] mScreen;
+    private final int[] mScreenCounts;
+    private final boolean[] mVisible;
+    private final double[] mDepths;
+    // indices of the visible faces, only they are sorted
+    private final int[] mVisibleFaces;
+    private int mVisibleCount;
+    // screen polygons as they were the last time something changed
+    private final double[] mLastScreen;
+    private final int[] mLastScreenCounts;
+    private final boolean[] mLastVisible;
+
+    // concave faces cut by the near plane are triangulated again when written to a frame
+    private final Triangulator mTriangulator;
+    private final int[] mCorners;
+
+    private boolean mChanged;
+    private double mLeft;
+    private double mTop;
+    private double mRight;
+    private double mBottom;
+
+    /**
+     * Construct a new projector
+     *
+     * @param mesh - mesh to project
+     */
+    public MeshProjector(Mesh mesh) {
+        this.mMesh = mesh;
+        this.mFaceCount = mesh.getFaceCount();
+        this.mSorter = new DepthSorter();
+
+        this.mScreenStarts = new int[this.mFaceCount];
+        int size = 0;
+        for (int face = 0; face < this.mFaceCount; face++) {
+            this.mScreenStarts[face] = size;
+            size += ClipSpace.getClippedSize(mesh.getFaceSize(face)) * VertexBuffer.STRIDE;
+        }
+        this.mScreen = new double[size];
+        this.mScreenCounts = new int[this.mFaceCount];
+        this.mVisible = new boolean[this.mFaceCount];
+        this.mDepths = new double[this.mFaceCount];
+        this.mVisibleFaces = new int[this.mFaceCount];
+        this.mLastScreen = new double[size];
+        this.mLastScreenCounts = new int[this.mFaceCount];
+        this.mLastVisible = new boolean[this.mFaceCount];
+        this.mTriangulator = new Triangulator();
+        this.mCorners = new int[Math.max(0, ClipSpace.getClippedSize(mesh.getMaxFaceSize()) - 2) * 3];
+    }
+
+    /**
+     * rotate, clip and sort all faces
+     *
+     * @param clipSpace - clip space with the current viewport
+     * @param rotation  - rotation matrix
+     */
+    public void project(ClipSpace clipSpace, Matrix3 rotation) {
+        VertexBuffer vertices = this.mMesh.getVertexBuffer();
+        vertices.clip(clipSpace, rotation);
+
+        double[] clip = vertices.getClip();
+        int[] outcodes = vertices.getOutcodes();
+        int[] indices = this.mMesh.getIndices();
+        double[] normals = this.mMesh.getNormals();
+        double[] screen = this.mScreen;
+        boolean changed = false;
+
+        // normals are scaled by the inverse of the clip space scale of X and Y
+        double fov = clipSpace.getFov();
+        double m00 = rotation.m00 / fov, m01 = rotation.m01 / fov, m02 = rotation.m02 / fov;
+        double m10 = rotation.m10 / fov, m11 = rotation.m11 / fov, m12 = rotation.m12 / fov;
+        double m20 = rotation.m20, m21 = rotation.m21, m22 = rotation.m22;
+
+        this.mLeft = this.mTop = Double.MAX_VALUE;
+        this.mRight = this.mBottom = -Double.MAX_VALUE;
+        this.mVisibleCount = 0;
+
+        for (int face = 0; face < this.mFaceCount; face++) {
+            int start = this.mScreenStarts[face];
+            int faceStart = this.mMesh.getFaceStart(face);
+            int faceSize = this.mMesh.getFaceSize(face);
+
+            // The eye is at the clip space origin, so a face is facing it if the normal points
+            // against the vector to any of the face points - its clip x, y and w (w = z + distance)
+            double nx = normals[face * 3], ny = normals[face * 3 + 1], nz = normals[face * 3 + 2];
+            int c = indices[faceStart] * ClipSpace.STRIDE;
+            double facing = (m00 * nx + m01 * ny + m02 * nz) * clip[c]
+                    + (m10 * nx + m11 * ny + m12 * nz) * clip[c + 1]
+                    + (m20 * nx + m21 * ny + m22 * nz) * clip[c + 3];
+
+            int count = 0;
+            double depth = 0;
+            boolean visible = false;
+            if (facing <= 0) {
+                count = clipSpace.clipPolygon(clip, outcodes, indices, faceStart, faceSize, screen, start);
+                visible = count > 2;
+                for (int i = start; i < start + count * VertexBuffer.STRIDE; i += VertexBuffer.STRIDE) {
+                    depth += screen[i + 2];
+                    if (screen[i] < this.mLeft) this.mLeft = screen[i];
+                    if (screen[i] > this.mRight) this.mRight = screen[i];
+                    if (screen[i + 1] < this.mTop) this.mTop = screen[i + 1];
+                    if (screen[i + 1] > this.mBottom) this.mBottom = screen[i + 1];
+                }
+            }
+            if (count > 0) {
+                depth /= count;
+            }
+            if (visible) {
+                this.mVisibleFaces[this.mVisibleCount++] = face;
+            }
+
+            this.mScreenCounts[face] = count;
+            this.mVisible[face] = visible;
+            this.mDepths[face] = depth;
+            changed |= this.calculateChange(face);
+        }
+
+        // a different order of visible faces is a different picture where they overlap, faces
+        // which became visible or hidden are changed already
+        int moves = this.mSorter.sort(this.mDepths, this.mVisibleFaces, this.mVisibleCount);
+        this.mChanged = changed || moves > 0;
+    }
+
+    /**
+     * @return true if a face moved more than {@link #CHANGE_EPSILON} pixels, its visibility
+     * or the drawing order changed since the last time it was reported as changed
+     */
+    public boolean hasChanged() {
+        return this.mChanged;
+    }
+
+    /**
+     * @return false if no face is visible, the bounds are invalid then
+     */
+    public boolean hasBounds() {
+        return this.mLeft <= this.mRight;
+    }
+
+    public double getLeft() {
+        return this.mLeft;
+    }
+
+    public double getTop() {
+        return this.mTop;
+    }
+
+    public double getRight() {
+        return this.mRight;
+    }
+
+    public double getBottom() {
+        return this.mBottom;
+    }
+
+    public boolean isVisible(int face) {
+        return this.mVisible[face];
+    }
+
+    /**
+     * @param face - face index
+     * @return average depth of the clipped face, 0 if the face is culled
+     */
+    public double getDepth(int face) {
+        return this.mDepths[face];
+    }
+
+    /**
+     * @param face - face index
+     * @return number of vertices of the clipped face, 0 if the face is culled
+     */
+    public int getScreenCount(int face) {
+        return this.mScreenCounts[face];
+    }
+
+    /**
+     * @param face - face index
+     * @return position of the clipped face in {@link #getScreen()}
+     */
+    public int getScreenStart(int face) {
+        return this.mScreenStarts[face];
+    }
+
+    /**
+     * @return clipped screen polygons of all faces
+     */
+    public double[] getScreen() {
+        return this.mScreen;
+    }
+
+    /**
+     * @return indices of the visible faces, back to front
+     */
+    public int[] getOrder() {
+        return this.mSorter.getOrder();
+    }
+
+    /**
+     * @return number of visible faces, the length of {@link #getOrder()} which is used
+     */
+    public int getOrderCount() {
+        return this.mSorter.size();
+    }
+
+    /**
+     * @return maximum number of screen vertices of every face, to create {@link ProjectedFrame}s with
+     */
+    public int[] getScreenCapacities() {
+        int[] capacities = new int[this.mFaceCount];
+        for (int face = 0; face < this.mFaceCount; face++) {
+            capacities[face] = ClipSpace.getClippedSize(this.mMesh.getFaceSize(face));
+        }
+        return capacities;
+    }
+
+    /**
+     * Copy faces, their triangles, colors and drawing order in a frame snapshot. Triangles
+     * of concave faces are taken from the mesh, only a concave face cut by the near plane
+     * has to be triangulated again.
+     *
+     * @param frame - frame created with {@link #getScreenCapacities()}
+     */
+    public void writeTo(ProjectedFrame frame) {
+        Mesh mesh = this.mMesh;
+        for (int face = 0; face < this.mFaceCount; face++) {
+            int start = this.mScreenStarts[face];
+            int count = this.mScreenCounts[face];
+            frame.setFace(face, this.mScreen, start, count, this.mVisible[face]);
+            frame.setColor(face, mesh.getColor(face));
+
+            if (this.mVisible[face] && !mesh.isConvex(face)) {
+                if (this.isClipped(face)) {
+                    int triangles = this.mTriangulator.triangulate(this.mScreen, start, VertexBuffer.STRIDE, count, this.mCorners, 0);
+                    frame.setTriangles(face, this.mCorners, 0, triangles);
+                } else {
+                    frame.setTriangles(face, mesh.getTriangles(), mesh.getTriangleStart(face), mesh.getTriangleCount(face));
+                }
+            }
+        }
+        frame.setOrder(this.mSorter.getOrder(), this.mSorter.size());
+    }
+
+    /**
+     * @return true if a vertex of the face is behind the near plane, the screen polygon
+     * is not made of the face vertices then
+     */
+    private boolean isClipped(int face) {
+        int[] outcodes = this.mMesh.getVertexBuffer().getOutcodes();
+        int[] indices = this.mMesh.getIndices();
+        int start = this.mMesh.getFaceStart(face);
+        for (int i = start; i < start + this.mMesh.getFaceSize(face); i++) {
+            if ((outcodes[indices[i]] & ClipSpace.NEAR) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // small movements are accumulated until they add up to more than CHANGE_EPSILON
+    private boolean calculateChange(int face) {
+        int start = this.mScreenStarts[face];
+        int count = this.mScreenCounts[face];
+        boolean visible = this.mVisible[face];
+        boolean changed = visible != this.mLastVisible[face] || count != this.mLastScreenCounts[face];
+
+        if (!changed && visible) {
+            changed = DirtyRegion.hasMoved(this.mScreen, this.mLastScreen, start, count, CHANGE_EPSILON);
+        }
+
+        if (changed) {
+            this.mLastVisible[face] = visible;
+            this.mLastScreenCounts[face] = count;
+            System.arraycopy(this.mScreen, start, this.mLastScreen, start, count * VertexBuffer.STRIDE);
+        }
+
+        return changed;
+    }
+}
@@ -0,0 +1,259 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * Snapshot of a projected mesh - the screen polygon with depth, visibility and color of
+ * every face and the order to draw them in. Frames are filled by the thread which projects
+ * the mesh and handed to the thread which draws it through a {@link FrameExchange}. Once
+ * published a frame is never written again until the reader gives it back, so for the
+ * reader it is immutable. The writer can attach an image rendered from the frame, so the
+ * reader only has to draw that.
+ */
+public class ProjectedFrame {
+    /**
+     * number of values per point - screen x, screen y
+     */
+    public static final int STRIDE = 2;
+
+    private final int[] mOffsets;
+    private final int[] mCounts;
+    private final boolean[] mVisible;
+    private final int[] mColors;
+    private final int[] mOrder;
+    private int mOrderCount;
+    private final float[] mPoints;
+    private final float[] mDepths;
+    // corners of the triangles of every face, see setTriangles()
+    private final int[] mTriangleOffsets;
+    private final int[] mTriangleCounts;
+    private final int[] mTriangles;
+    private volatile long mSequence;
+    // rendered by the writer, see setImage()
+    private Object mImage;
+
+    /**
+     * Construct a new empty frame, no face is visible
+     *
+     * @param capacities - maximum number of points of every face
+     */
+    public ProjectedFrame(int[] capacities) {
+        this.mOffsets = new int[capacities.length];
+        this.mCounts = new int[capacities.length];
+        this.mVisible = new boolean[capacities.length];
+        this.mColors = new int[capacities.length];
+        this.mOrder = new int[capacities.length];
+        this.mTriangleOffsets = new int[capacities.length];
+        this.mTriangleCounts = new int[capacities.length];
+
+        int size = 0;
+        int triangles = 0;
+        for (int i = 0; i < capacities.length; i++) {
+            this.mOrder[i] = i;
+            this.mOffsets[i] = size;
+            this.mTriangleOffsets[i] = triangles;
+            size += capacities[i] * STRIDE;
+            triangles += Math.max(0, capacities[i] - 2) * 3;
+        }
+        this.mOrderCount = capacities.length;
+        this.mPoints = new float[size];
+        this.mDepths = new float[size / STRIDE];
+        this.mTriangles = new int[triangles];
+    }
+
+    /**
+     * copy a face in this frame
+     *
+     * @param face    - face index
+     * @param screen  - screen polygon, packed as {@link VertexBuffer} projected vertices
+     * @param count   - number of vertices in screen
+     * @param visible - face visibility
+     */
+    public void setFace(int face, double[] screen, int count, boolean visible) {
+        this.setFace(face, screen, 0, count, visible);
+    }
+
+    /**
+     * Copy a face in this frame. The face is split in a fan of triangles around its first
+     * point, call {@link #setTriangles(int, int[], int, int)} after this for a concave face.
+     *
+     * @param face         - face index
+     * @param screen       - screen polygons, packed as {@link VertexBuffer} projected vertices
+     * @param screenOffset - position of the face in screen
+     * @param count        - number of vertices of the face
+     * @param visible      - face visibility
+     */
+    public void setFace(int face, double[] screen, int screenOffset, int count, boolean visible) {
+        float[] points = this.mPoints;
+        int p = this.mOffsets[face];
+        for (int i = screenOffset; i < screenOffset + count * VertexBuffer.STRIDE; i += VertexBuffer.STRIDE) {
+            this.mDepths[p / STRIDE] = (float) screen[i + 2];
+            points[p++] = (float) screen[i];
+            points[p++] = (float) screen[i + 1];
+        }
+        this.mCounts[face] = count;
+        this.mVisible[face] = visible;
+        this.mTriangleCounts[face] = Triangulator.fan(count, this.mTriangles, this.mTriangleOffsets[face]);
+    }
+
+    /**
+     * set the triangles of a face
+     *
+     * @param face    - face index
+     * @param corners - three points of the face (0 to point count - 1) per triangle
+     * @param offset  - position of the first triangle in corners
+     * @param count   - number of triangles, at most point count - 2
+     */
+    public void setTriangles(int face, int[] corners, int offset, int count) {
+        System.arraycopy(corners, offset, this.mTriangles, this.mTriangleOffsets[face], count * 3);
+        this.mTriangleCounts[face] = count;
+    }
+
+    /**
+     * @param face - face index
+     * @return number of triangles of the face
+     */
+    public int getTriangleCount(int face) {
+        return this.mTriangleCounts[face];
+    }
+
+    /**
+     * @param face - face index
+     * @return position of the first triangle of the face in {@link #getTriangles()}
+     */
+    public int getTriangleOffset(int face) {
+        return this.mTriangleOffsets[face];
+    }
+
+    /**
+     * @return triangles of all faces, three points per triangle - point numbers of the face, from 0
+     */
+    public int[] getTriangles() {
+        return this.mTriangles;
+    }
+
+    public void setColor(int face, int color) {
+        this.mColors[face] = color;
+    }
+
+    /**
+     * set the order to draw all faces in
+     *
+     * @param order - face indices, back to front
+     */
+    public void setOrder(int[] order) {
+        this.setOrder(order, this.mOrder.length);
+    }
+
+    /**
+     * set the order to draw faces in, faces not in the order are not drawn
+     *
+     * @param order - face indices, back to front
+     * @param count - number of faces in the order
+     */
+    public void setOrder(int[] order, int count) {
+        System.arraycopy(order, 0, this.mOrder, 0, count);
+        this.mOrderCount = count;
+    }
+
+    public int getFaceCount() {
+        return this.mCounts.length;
+    }
+
+    public boolean isVisible(int face) {
+        return this.mVisible[face];
+    }
+
+    public int getColor(int face) {
+        return this.mColors[face];
+    }
+
+    /**
+     * @return face indices in the order to draw them, list order unless {@link #setOrder(int[])} was called
+     */
+    public int[] getOrder() {
+        return this.mOrder;
+    }
+
+    /**
+     * @return number of faces in {@link #getOrder()}
+     */
+    public int getOrderCount() {
+        return this.mOrderCount;
+    }
+
+    /**
+     * @param face - face index
+     * @return number of points of the face
+     */
+    public int getPointCount(int face) {
+        return this.mCounts[face];
+    }
+
+    /**
+     * @param face - face index
+     * @return index of the first point of the face in {@link #getPoints()}
+     */
+    public int getOffset(int face) {
+        return this.mOffsets[face];
+    }
+
+    /**
+     * @return screen x and y of all points
+     */
+    public float[] getPoints() {
+        return this.mPoints;
+    }
+
+    /**
+     * @return depth of all points, the depth of the first point of a face is at {@link #getOffset(int)} / {@link #STRIDE}
+     */
+    public float[] getDepths() {
+        return this.mDepths;
+    }
+
+    /**
+     * Attach an image rendered from this frame, e.g. a bitmap of its rasterized faces. The
+     * image belongs to the frame and is reused with it, the writer renders in it again
+     * before the frame is published again.
+     *
+     * @param image - image of this frame, null for none
+     */
+    public void setImage(Object image) {
+        this.mImage = image;
+    }
+
+    /**
+     * @return image attached by the writer, null if there is none
+     */
+    public Object getImage() {
+        return this.mImage;
+    }
+
+    /**
+     * fill the visible faces of this frame in a rasterizer, in drawing order, and render them
+     *
+     * @param rasterizer - rasterizer of the size of the screen
+     * @param background - color of pixels no face covers
+     */
+    public void rasterize(Rasterizer rasterizer, int background) {
+        rasterizer.clear(background);
+        for (int i = 0; i < this.mOrderCount; i++) {
+            int face = this.mOrder[i];
+            if (this.mVisible[face] && this.mCounts[face] > 2) {
+                rasterizer.addTriangles(this.mPoints, this.mDepths, this.mOffsets[face] / STRIDE,
+                        this.mTriangles, this.mTriangleOffsets[face], this.mTriangleCounts[face], this.mColors[face]);
+            }
+        }
+        rasterizer.render();
+    }
+
+    /**
+     * @return number of the frame, set when the frame is published, 0 if it never was
+     */
+    public long getSequence() {
+        return this.mSequence;
+    }
+
+    void setSequence(long sequence) {
+        this.mSequence = sequence;
+    }
+}
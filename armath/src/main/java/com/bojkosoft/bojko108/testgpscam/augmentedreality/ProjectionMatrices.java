@@ -22,4 +22,19 @@ public class ProjectionMatrices {
                 {0f, 0f, -1f, 0f}
         };
     }
+
+    /**
+     * Write a perspective projection matrix into an existing array, so no new objects
+     * are created. The matrix is stored in column-major order, see {@link Matrix4}.
+     *
+     * @param m           - array to store the matrix in
+     * @param offset      - index of the first matrix element in m
+     * @param verticalFOV - camera's viewing angle - example: from 45 to 90 degrees
+     * @param aspect      - aspect ration - the width / height of the screen represented by a single number
+     * @param near        - distance from camera lens to near clipping plane
+     * @param far         - distance from camera lens to far clipping plane
+     */
+    public static void perspective(float[] m, int offset, float verticalFOV, float aspect, float near, float far) {
+        Matrix4.perspective(m, offset, verticalFOV, aspect, near, far);
+    }
 }
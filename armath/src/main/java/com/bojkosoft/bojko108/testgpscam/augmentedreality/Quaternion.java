@@ -0,0 +1,280 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * Unit quaternion used for orientations. Rotation vector sensor values can be
+ * converted directly, without going through Euler angles, and two orientations
+ * can be interpolated with a few multiplies.
+ */
+public class Quaternion {
+    // slerp falls back to nlerp when the cosine - the dot product of the two orientations -
+    // is above this, so for small angles where the sine slerp divides by is close to 0
+    private static final double SLERP_THRESHOLD = 0.9995;
+
+    /**
+     * W (scalar) component
+     */
+    public double w;
+    /**
+     * X component
+     */
+    public double x;
+    /**
+     * Y component
+     */
+    public double y;
+    /**
+     * Z component
+     */
+    public double z;
+
+    /**
+     * Construct a new identity quaternion - no rotation
+     */
+    public Quaternion() {
+        this.setIdentity();
+    }
+
+    /**
+     * Construct a new quaternion
+     *
+     * @param w - W (scalar) component
+     * @param x - X component
+     * @param y - Y component
+     * @param z - Z component
+     */
+    public Quaternion(double w, double x, double y, double z) {
+        this.set(w, x, y, z);
+    }
+
+    /**
+     * set quaternion components
+     *
+     * @return this quaternion
+     */
+    public Quaternion set(double w, double x, double y, double z) {
+        this.w = w;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+
+        return this;
+    }
+
+    /**
+     * copy another quaternion
+     *
+     * @param that - quaternion to copy
+     * @return this quaternion
+     */
+    public Quaternion set(Quaternion that) {
+        return this.set(that.w, that.x, that.y, that.z);
+    }
+
+    /**
+     * reset to identity - no rotation
+     *
+     * @return this quaternion
+     */
+    public Quaternion setIdentity() {
+        return this.set(1, 0, 0, 0);
+    }
+
+    /**
+     * Set from rotation vector sensor values - x * sin(a / 2), y * sin(a / 2), z * sin(a / 2)
+     * and optionally cos(a / 2). If the fourth value is missing it is calculated, the same
+     * way as SensorManager.getQuaternionFromVector().
+     *
+     * @param values - rotation vector values
+     * @return this quaternion
+     */
+    public Quaternion fromRotationVector(float[] values) {
+        double qx = values[0];
+        double qy = values[1];
+        double qz = values[2];
+        double qw;
+
+        if (values.length >= 4) {
+            qw = values[3];
+        } else {
+            qw = 1 - qx * qx - qy * qy - qz * qz;
+            qw = (qw > 0) ? Math.sqrt(qw) : 0;
+        }
+
+        return this.set(qw, qx, qy, qz);
+    }
+
+    /**
+     * Set from rotations around Z, X and Y axes - in that order. The result is the same
+     * rotation as {@link Matrix3#setRotation(double, double, double)}.
+     *
+     * @param rX - rotation around X in degrees
+     * @param rY - rotation around Y in degrees
+     * @param rZ - rotation around Z in degrees
+     * @return this quaternion
+     */
+    public Quaternion fromEuler(double rX, double rY, double rZ) {
+        double hx = rX * Math.PI / 360;
+        double hy = rY * Math.PI / 360;
+        double hz = rZ * Math.PI / 360;
+        double cx = Math.cos(hx), sx = Math.sin(hx);
+        double cy = Math.cos(hy), sy = Math.sin(hy);
+        double cz = Math.cos(hz), sz = Math.sin(hz);
+
+        // qY * qX
+        double w = cy * cx;
+        double x = cy * sx;
+        double y = sy * cx;
+        double z = -sy * sx;
+
+        // (qY * qX) * qZ
+        return this.set(
+                w * cz - z * sz,
+                x * cz + y * sz,
+                y * cz - x * sz,
+                w * sz + z * cz);
+    }
+
+    /**
+     * multiply two quaternions: this = left * right, the right rotation is applied first.
+     * Any of the quaternions can be this quaternion.
+     *
+     * @param left  - left quaternion
+     * @param right - right quaternion
+     * @return this quaternion
+     */
+    public Quaternion multiply(Quaternion left, Quaternion right) {
+        double w = left.w * right.w - left.x * right.x - left.y * right.y - left.z * right.z;
+        double x = left.w * right.x + left.x * right.w + left.y * right.z - left.z * right.y;
+        double y = left.w * right.y - left.x * right.z + left.y * right.w + left.z * right.x;
+        double z = left.w * right.z + left.x * right.y - left.y * right.x + left.z * right.w;
+
+        return this.set(w, x, y, z);
+    }
+
+    /**
+     * @param that - second quaternion
+     * @return inner product
+     */
+    public double dot(Quaternion that) {
+        return this.w * that.w + this.x * that.x + this.y * that.y + this.z * that.z;
+    }
+
+    /**
+     * Normalize this quaternion. Magnitude must be greater than 0.
+     *
+     * @return this quaternion
+     */
+    public Quaternion normalize() {
+        double magnitude = Math.sqrt(this.dot(this));
+        if (magnitude == 0)
+            throw new ArithmeticException("zero-quaternion has no direction");
+        return this.set(this.w / magnitude, this.x / magnitude, this.y / magnitude, this.z / magnitude);
+    }
+
+    /**
+     * write the rotation of this unit quaternion in a matrix
+     *
+     * @param out - matrix to store the rotation in
+     * @return out
+     */
+    public Matrix3 toMatrix(Matrix3 out) {
+        double xx = this.x * this.x, yy = this.y * this.y, zz = this.z * this.z;
+        double xy = this.x * this.y, xz = this.x * this.z, yz = this.y * this.z;
+        double wx = this.w * this.x, wy = this.w * this.y, wz = this.w * this.z;
+
+        out.m00 = 1 - 2 * (yy + zz);
+        out.m01 = 2 * (xy - wz);
+        out.m02 = 2 * (xz + wy);
+        out.m10 = 2 * (xy + wz);
+        out.m11 = 1 - 2 * (xx + zz);
+        out.m12 = 2 * (yz - wx);
+        out.m20 = 2 * (xz - wy);
+        out.m21 = 2 * (yz + wx);
+        out.m22 = 1 - 2 * (xx + yy);
+
+        return out;
+    }
+
+    /**
+     * write the rotation of this unit quaternion in a 4x4 column-major matrix, see {@link Matrix4}
+     *
+     * @param m      - matrix to store the rotation in
+     * @param offset - index of the first matrix element
+     */
+    public void toMatrix(float[] m, int offset) {
+        double xx = this.x * this.x, yy = this.y * this.y, zz = this.z * this.z;
+        double xy = this.x * this.y, xz = this.x * this.z, yz = this.y * this.z;
+        double wx = this.w * this.x, wy = this.w * this.y, wz = this.w * this.z;
+
+        m[offset] = (float) (1 - 2 * (yy + zz));
+        m[offset + 1] = (float) (2 * (xy + wz));
+        m[offset + 2] = (float) (2 * (xz - wy));
+        m[offset + 3] = 0f;
+        m[offset + 4] = (float) (2 * (xy - wz));
+        m[offset + 5] = (float) (1 - 2 * (xx + zz));
+        m[offset + 6] = (float) (2 * (yz + wx));
+        m[offset + 7] = 0f;
+        m[offset + 8] = (float) (2 * (xz + wy));
+        m[offset + 9] = (float) (2 * (yz - wx));
+        m[offset + 10] = (float) (1 - 2 * (xx + yy));
+        m[offset + 11] = 0f;
+        m[offset + 12] = 0f;
+        m[offset + 13] = 0f;
+        m[offset + 14] = 0f;
+        m[offset + 15] = 1f;
+    }
+
+    /**
+     * Normalized linear interpolation between two unit quaternions along the shortest path.
+     * Cheaper than {@link #slerp(Quaternion, Quaternion, double)}, but the angular speed is
+     * not constant - good enough for small steps between sensor samples.
+     *
+     * @param from - orientation at t = 0
+     * @param to   - orientation at t = 1
+     * @param t    - interpolation factor from 0 to 1
+     * @return this quaternion
+     */
+    public Quaternion nlerp(Quaternion from, Quaternion to, double t) {
+        double sign = (from.dot(to) < 0) ? -1 : 1;
+        double s = 1 - t;
+        double u = t * sign;
+
+        return this.set(
+                from.w * s + to.w * u,
+                from.x * s + to.x * u,
+                from.y * s + to.y * u,
+                from.z * s + to.z * u).normalize();
+    }
+
+    /**
+     * Spherical linear interpolation between two unit quaternions along the shortest path.
+     *
+     * @param from - orientation at t = 0
+     * @param to   - orientation at t = 1
+     * @param t    - interpolation factor from 0 to 1
+     * @return this quaternion
+     */
+    public Quaternion slerp(Quaternion from, Quaternion to, double t) {
+        double cosine = from.dot(to);
+        double sign = 1;
+        if (cosine < 0) {
+            cosine = -cosine;
+            sign = -1;
+        }
+
+        if (cosine > SLERP_THRESHOLD) {
+            return this.nlerp(from, to, t);
+        }
+
+        double angle = Math.acos(cosine);
+        double sine = Math.sin(angle);
+        double s = Math.sin((1 - t) * angle) / sine;
+        double u = Math.sin(t * angle) / sine * sign;
+
+        return this.set(
+                from.w * s + to.w * u,
+                from.x * s + to.x * u,
+                from.y * s + to.y * u,
+                from.z * s + to.z * u);
+    }
+}
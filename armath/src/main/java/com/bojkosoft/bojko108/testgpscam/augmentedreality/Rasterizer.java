@@ -0,0 +1,426 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Software rasterizer with a depth buffer. Triangles are filled into an int[] ARGB color
+ * buffer and a float[] depth buffer, so occlusion is correct per pixel whatever the
+ * order of the triangles is, and every pixel is written once per covering triangle at
+ * most instead of once per face path.
+ * <p>
+ * Triangles are collected with {@link #addTriangle} and {@link #addPolygon} and drawn
+ * by {@link #render()}. The screen is split in {@link #TILE_SIZE} square tiles, every
+ * triangle is put in the bins of the tiles its bounds overlap and the tiles are filled
+ * independently - in parallel on a fork-join pool if there are enough triangles. A tile
+ * draws its triangles in the order they were added, so the result does not depend on
+ * the number of threads.
+ * <p>
+ * Pixel centers are at +0.5. Vertices are snapped to 1/256 of a pixel, which keeps the
+ * edge functions exact, and the top-left fill rule assigns pixels exactly on an edge
+ * shared by two triangles to one of them only. Smaller depth is closer to the camera.
+ */
+public class Rasterizer {
+    public static final int TILE_SIZE = 64;
+    /**
+     * fewer triangles are always rasterized on the calling thread
+     */
+    public static final int PARALLEL_THRESHOLD = 256;
+
+    private static final double SNAP = 256;
+    // values of the triangle setup - 3 edges (A, B, C) and the depth plane (A, B, C)
+    private static final int SETUP = 12;
+
+    private int mWidth;
+    private int mHeight;
+    private int[] mColors;
+    private float[] mDepths;
+    private double mDistance;
+
+    private int mTilesX;
+    private int mTilesY;
+    // triangle indices of every tile, in the order they were added
+    private int[][] mBins;
+    private int[] mBinCounts;
+
+    private double[] mSetup = new double[SETUP * 64];
+    // pixel bounds of every triangle: left, top, right, bottom (inclusive)
+    private int[] mBounds = new int[4 * 64];
+    // bit i is set if edge i includes its pixels
+    private int[] mEdgeRules = new int[64];
+    private int[] mTriangleColors = new int[64];
+    private int mTriangleCount;
+
+    private boolean mParallel = true;
+    private ForkJoinPool mPool;
+
+    /**
+     * Construct a new rasterizer
+     *
+     * @param width  - buffer width in pixels
+     * @param height - buffer height in pixels
+     */
+    public Rasterizer(int width, int height) {
+        this.setSize(width, height);
+    }
+
+    /**
+     * resize the buffers, they are cleared to transparent black and far depth
+     *
+     * @param width  - buffer width in pixels
+     * @param height - buffer height in pixels
+     */
+    public void setSize(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("size must be greater than 0");
+        }
+        this.mWidth = width;
+        this.mHeight = height;
+        this.mColors = new int[width * height];
+        this.mDepths = new float[width * height];
+        this.mTilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+        this.mTilesY = (height + TILE_SIZE - 1) / TILE_SIZE;
+        this.mBins = new int[this.mTilesX * this.mTilesY][16];
+        this.mBinCounts = new int[this.mBins.length];
+        this.mTriangleCount = 0;
+        this.clear(0);
+    }
+
+    /**
+     * Depth of the added vertices is the rotated Z of {@link ClipSpace}. It is not linear on
+     * screen, so with a camera distance set it is converted to -1 / W, which is. With
+     * distance 0 (the default) depth is interpolated as it is.
+     *
+     * @param distance - view distance the vertices were projected with
+     */
+    public void setDistance(double distance) {
+        this.mDistance = distance;
+    }
+
+    /**
+     * allow rasterizing tiles on several threads, enabled by default
+     *
+     * @param parallel - true to use a fork-join pool
+     */
+    public void setParallel(boolean parallel) {
+        this.mParallel = parallel;
+    }
+
+    /**
+     * fill the color buffer and reset the depth buffer
+     *
+     * @param color - ARGB color
+     */
+    public void clear(int color) {
+        Arrays.fill(this.mColors, color);
+        Arrays.fill(this.mDepths, Float.POSITIVE_INFINITY);
+    }
+
+    /**
+     * add a triangle to draw with the next {@link #render()}, either winding
+     */
+    public void addTriangle(double x0, double y0, double z0, double x1, double y1, double z1,
+                            double x2, double y2, double z2, int color) {
+        x0 = Math.rint(x0 * SNAP) / SNAP;
+        y0 = Math.rint(y0 * SNAP) / SNAP;
+        x1 = Math.rint(x1 * SNAP) / SNAP;
+        y1 = Math.rint(y1 * SNAP) / SNAP;
+        x2 = Math.rint(x2 * SNAP) / SNAP;
+        y2 = Math.rint(y2 * SNAP) / SNAP;
+
+        // bounds of the pixel centers inside of the triangle, clamped to the screen
+        double minX = Math.min(x0, Math.min(x1, x2));
+        double maxX = Math.max(x0, Math.max(x1, x2));
+        double minY = Math.min(y0, Math.min(y1, y2));
+        double maxY = Math.max(y0, Math.max(y1, y2));
+        if (!(minX < this.mWidth && maxX > 0 && minY < this.mHeight && maxY > 0)) {
+            // also rejects NaN
+            return;
+        }
+        int left = Math.max(0, (int) Math.ceil(minX - 0.5));
+        int right = Math.min(this.mWidth - 1, (int) Math.floor(maxX - 0.5));
+        int top = Math.max(0, (int) Math.ceil(minY - 0.5));
+        int bottom = Math.min(this.mHeight - 1, (int) Math.floor(maxY - 0.5));
+        if (left > right || top > bottom) {
+            return;
+        }
+
+        int t = this.mTriangleCount;
+        if (t == this.mTriangleColors.length) {
+            this.mSetup = Arrays.copyOf(this.mSetup, t * 2 * SETUP);
+            this.mBounds = Arrays.copyOf(this.mBounds, t * 2 * 4);
+            this.mEdgeRules = Arrays.copyOf(this.mEdgeRules, t * 2);
+            this.mTriangleColors = Arrays.copyOf(this.mTriangleColors, t * 2);
+        }
+
+        double[] setup = this.mSetup;
+        int s = t * SETUP;
+        edge(x1, y1, x2, y2, setup, s);
+        edge(x2, y2, x0, y0, setup, s + 3);
+        edge(x0, y0, x1, y1, setup, s + 6);
+        double area = setup[s] * x0 + setup[s + 1] * y0 + setup[s + 2];
+        if (area == 0 || Double.isInfinite(area)) {
+            return;
+        }
+        if (area < 0) {
+            for (int i = s; i < s + 9; i++) {
+                setup[i] = -setup[i];
+            }
+            area = -area;
+        }
+
+        int rules = 0;
+        for (int e = 0; e < 3; e++) {
+            double a = setup[s + e * 3];
+            double b = setup[s + e * 3 + 1];
+            // one of the two triangles sharing an edge has it with A > 0 or A = 0 and B > 0
+            if (a > 0 || (a == 0 && b > 0)) {
+                rules |= 1 << e;
+            }
+        }
+
+        if (this.mDistance > 0) {
+            z0 = -1 / (this.mDistance + z0);
+            z1 = -1 / (this.mDistance + z1);
+            z2 = -1 / (this.mDistance + z2);
+        }
+        // depth = (w0 * z0 + w1 * z1 + w2 * z2) / area, which is a plane as well
+        for (int i = 0; i < 3; i++) {
+            setup[s + 9 + i] = (setup[s + i] * z0 + setup[s + 3 + i] * z1 + setup[s + 6 + i] * z2) / area;
+        }
+
+        this.mEdgeRules[t] = rules;
+        this.mTriangleColors[t] = color;
+        this.mBounds[t * 4] = left;
+        this.mBounds[t * 4 + 1] = top;
+        this.mBounds[t * 4 + 2] = right;
+        this.mBounds[t * 4 + 3] = bottom;
+        this.mTriangleCount++;
+
+        for (int ty = top / TILE_SIZE; ty <= bottom / TILE_SIZE; ty++) {
+            for (int tx = left / TILE_SIZE; tx <= right / TILE_SIZE; tx++) {
+                int tile = ty * this.mTilesX + tx;
+                if (this.mBinCounts[tile] == this.mBins[tile].length) {
+                    this.mBins[tile] = Arrays.copyOf(this.mBins[tile], this.mBins[tile].length * 2);
+                }
+                this.mBins[tile][this.mBinCounts[tile]++] = t;
+            }
+        }
+    }
+
+    /**
+     * add a convex polygon as a fan of triangles, see {@link #addTriangles} for concave ones
+     *
+     * @param points - x, y of the points
+     * @param depths - depth of the points
+     * @param offset - index of the first point
+     * @param count  - number of points
+     * @param color  - ARGB color
+     */
+    public void addPolygon(float[] points, float[] depths, int offset, int count, int color) {
+        int p0 = offset * 2;
+        for (int i = offset + 1; i < offset + count - 1; i++) {
+            int p1 = i * 2;
+            int p2 = p1 + 2;
+            this.addTriangle(points[p0], points[p0 + 1], depths[offset],
+                    points[p1], points[p1 + 1], depths[i],
+                    points[p2], points[p2 + 1], depths[i + 1], color);
+        }
+    }
+
+    /**
+     * add the triangles of a polygon
+     *
+     * @param points        - x, y of the points
+     * @param depths        - depth of the points
+     * @param offset        - index of the first point of the polygon
+     * @param corners       - three polygon points (0 to point count - 1) per triangle
+     * @param cornersOffset - position of the first triangle in corners
+     * @param count         - number of triangles
+     * @param color         - ARGB color
+     */
+    public void addTriangles(float[] points, float[] depths, int offset, int[] corners, int cornersOffset, int count, int color) {
+        for (int t = cornersOffset; t < cornersOffset + count * 3; t += 3) {
+            int a = offset + corners[t];
+            int b = offset + corners[t + 1];
+            int c = offset + corners[t + 2];
+            this.addTriangle(points[a * 2], points[a * 2 + 1], depths[a],
+                    points[b * 2], points[b * 2 + 1], depths[b],
+                    points[c * 2], points[c * 2 + 1], depths[c], color);
+        }
+    }
+
+    /**
+     * draw all added triangles and remove them
+     */
+    public void render() {
+        int tileCount = this.mBins.length;
+        if (this.mParallel && this.mTriangleCount >= PARALLEL_THRESHOLD && tileCount > 1) {
+            this.getPool().invoke(new TileTask(0, tileCount));
+        } else {
+            for (int tile = 0; tile < tileCount; tile++) {
+                this.renderTile(tile);
+            }
+        }
+
+        Arrays.fill(this.mBinCounts, 0);
+        this.mTriangleCount = 0;
+    }
+
+    /**
+     * @return number of triangles waiting for {@link #render()}, triangles off screen are not counted
+     */
+    public int getTriangleCount() {
+        return this.mTriangleCount;
+    }
+
+    public int getWidth() {
+        return this.mWidth;
+    }
+
+    public int getHeight() {
+        return this.mHeight;
+    }
+
+    /**
+     * @return ARGB color of every pixel, row after row
+     */
+    public int[] getColors() {
+        return this.mColors;
+    }
+
+    /**
+     * @return depth of every pixel, row after row, positive infinity where nothing was drawn
+     */
+    public float[] getDepths() {
+        return this.mDepths;
+    }
+
+    /**
+     * stop the worker threads, if any were started
+     */
+    public void shutdown() {
+        if (this.mPool != null) {
+            this.mPool.shutdown();
+            this.mPool = null;
+        }
+    }
+
+    /**
+     * fill all triangles of a tile, on the calling thread
+     */
+    private void renderTile(int tile) {
+        int count = this.mBinCounts[tile];
+        if (count == 0) {
+            return;
+        }
+        int[] bin = this.mBins[tile];
+        int tileLeft = (tile % this.mTilesX) * TILE_SIZE;
+        int tileTop = (tile / this.mTilesX) * TILE_SIZE;
+        int tileRight = Math.min(tileLeft + TILE_SIZE, this.mWidth) - 1;
+        int tileBottom = Math.min(tileTop + TILE_SIZE, this.mHeight) - 1;
+        double[] setup = this.mSetup;
+        int[] bounds = this.mBounds;
+        int[] colors = this.mColors;
+        float[] depths = this.mDepths;
+        int width = this.mWidth;
+
+        for (int n = 0; n < count; n++) {
+            int t = bin[n];
+            int s = t * SETUP;
+            int left = Math.max(tileLeft, bounds[t * 4]);
+            int top = Math.max(tileTop, bounds[t * 4 + 1]);
+            int right = Math.min(tileRight, bounds[t * 4 + 2]);
+            int bottom = Math.min(tileBottom, bounds[t * 4 + 3]);
+
+            double a0 = setup[s], b0 = setup[s + 1], c0 = setup[s + 2];
+            double a1 = setup[s + 3], b1 = setup[s + 4], c1 = setup[s + 5];
+            double a2 = setup[s + 6], b2 = setup[s + 7], c2 = setup[s + 8];
+            double za = setup[s + 9], zb = setup[s + 10], zc = setup[s + 11];
+            int rules = this.mEdgeRules[t];
+            boolean in0 = (rules & 1) != 0;
+            boolean in1 = (rules & 2) != 0;
+            boolean in2 = (rules & 4) != 0;
+            int color = this.mTriangleColors[t];
+
+            for (int y = top; y <= bottom; y++) {
+                double py = y + 0.5;
+                double r0 = b0 * py + c0;
+                double r1 = b1 * py + c1;
+                double r2 = b2 * py + c2;
+                double rz = zb * py + zc;
+                int row = y * width;
+
+                for (int x = left; x <= right; x++) {
+                    double px = x + 0.5;
+                    double w0 = a0 * px + r0;
+                    double w1 = a1 * px + r1;
+                    double w2 = a2 * px + r2;
+                    if ((w0 > 0 || (w0 == 0 && in0)) && (w1 > 0 || (w1 == 0 && in1)) && (w2 > 0 || (w2 == 0 && in2))) {
+                        float z = (float) (za * px + rz);
+                        int i = row + x;
+                        if (z < depths[i]) {
+                            depths[i] = z;
+                            colors[i] = color;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Edge function of the line from a to b: A * x + B * y + C. The coefficients are
+     * calculated from the lower of the two points, so an edge shared by two triangles has
+     * exactly opposite coefficients in both.
+     */
+    private static void edge(double ax, double ay, double bx, double by, double[] setup, int s) {
+        boolean swap = ay > by || (ay == by && ax > bx);
+        if (swap) {
+            double x = ax, y = ay;
+            ax = bx;
+            ay = by;
+            bx = x;
+            by = y;
+        }
+        double a = ay - by;
+        double b = bx - ax;
+        double c = -a * ax - b * ay;
+        setup[s] = swap ? -a : a;
+        setup[s + 1] = swap ? -b : b;
+        setup[s + 2] = swap ? -c : c;
+    }
+
+    private ForkJoinPool getPool() {
+        // ForkJoinPool.commonPool() requires API 24
+        if (this.mPool == null) {
+            this.mPool = new ForkJoinPool();
+        }
+        return this.mPool;
+    }
+
+    private class TileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int mFrom;
+        private final int mTo;
+
+        TileTask(int from, int to) {
+            this.mFrom = from;
+            this.mTo = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.mTo - this.mFrom <= 2) {
+                for (int tile = this.mFrom; tile < this.mTo; tile++) {
+                    renderTile(tile);
+                }
+            } else {
+                int middle = (this.mFrom + this.mTo) >>> 1;
+                invokeAll(new TileTask(this.mFrom, middle), new TileTask(middle, this.mTo));
+            }
+        }
+    }
+}
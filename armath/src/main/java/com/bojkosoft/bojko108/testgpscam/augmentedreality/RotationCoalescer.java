@@ -0,0 +1,109 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * Keeps only the latest rotation between two display frames. A new rotation replaces the
+ * one still waiting for a frame, and a rotation equal to the waiting one - or to the last
+ * one taken if none is waiting - is dropped, so no frame has to be scheduled for it.
+ * <p>
+ * Not thread safe, all calls come from the UI thread.
+ */
+public class RotationCoalescer {
+    private final Matrix3 mPending = new Matrix3();
+    private final Matrix3 mLast = new Matrix3();
+    private boolean mHasPending;
+    private boolean mHasLast;
+
+    private long mUpdateCount;
+    private long mCoalescedCount;
+    private long mDroppedCount;
+
+    /**
+     * @param rotation - new rotation, copied
+     * @return true if a frame has to be scheduled for it, false if it was dropped
+     */
+    public boolean offer(Matrix3 rotation) {
+        this.mUpdateCount++;
+        if (this.mHasPending) {
+            if (isEqual(rotation, this.mPending)) {
+                this.mDroppedCount++;
+                return false;
+            }
+            this.mCoalescedCount++;
+        } else if (this.mHasLast && isEqual(rotation, this.mLast)) {
+            this.mDroppedCount++;
+            return false;
+        }
+
+        this.mPending.set(rotation);
+        this.mHasPending = true;
+        return true;
+    }
+
+    /**
+     * Take the last rotation again with the next frame, when something else than the
+     * rotation changed. Before the first frame that is the identity.
+     */
+    public void invalidate() {
+        if (!this.mHasPending) {
+            this.mPending.set(this.mLast);
+            this.mHasPending = true;
+        }
+    }
+
+    /**
+     * @return true if a rotation is waiting for a frame
+     */
+    public boolean hasPending() {
+        return this.mHasPending;
+    }
+
+    /**
+     * Take the waiting rotation for a frame.
+     *
+     * @param out - matrix to copy the rotation to
+     * @return false if no rotation was waiting, out is not changed then
+     */
+    public boolean take(Matrix3 out) {
+        if (!this.mHasPending) {
+            return false;
+        }
+        this.mHasPending = false;
+        this.mHasLast = true;
+        this.mLast.set(this.mPending);
+        out.set(this.mPending);
+        return true;
+    }
+
+    /**
+     * @return number of rotations offered
+     */
+    public long getUpdateCount() {
+        return this.mUpdateCount;
+    }
+
+    /**
+     * @return number of rotations replaced by a newer one before they were taken
+     */
+    public long getCoalescedCount() {
+        return this.mCoalescedCount;
+    }
+
+    /**
+     * @return number of rotations dropped because they were the same as the waiting or the last one
+     */
+    public long getDroppedCount() {
+        return this.mDroppedCount;
+    }
+
+    public void resetCounters() {
+        this.mUpdateCount = 0;
+        this.mCoalescedCount = 0;
+        this.mDroppedCount = 0;
+    }
+
+    private static boolean isEqual(Matrix3 a, Matrix3 b) {
+        return a.m00 == b.m00 && a.m01 == b.m01 && a.m02 == b.m02
+                && a.m10 == b.m10 && a.m11 == b.m11 && a.m12 == b.m12
+                && a.m20 == b.m20 && a.m21 == b.m21 && a.m22 == b.m22;
+    }
+}
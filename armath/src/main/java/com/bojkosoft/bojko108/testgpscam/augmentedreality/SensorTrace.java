@@ -0,0 +1,33 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * Compact binary trace of rotation vector sensor events, written by
+ * {@link SensorTraceRecorder} and read by {@link SensorTraceReplayer}. All values are
+ * little-endian:
+ * <pre>
+ * header  2 x int32 - magic "STRC", version
+ * events  {@link #RECORD_SIZE} bytes each:
+ *         int64   timestamp in nanoseconds
+ *         float32 {@link #MAX_VALUES} sensor values, unused ones are 0
+ *         uint8   number of sensor values
+ *         int8    accuracy
+ *         int8    display rotation
+ *         int8    unused
+ * </pre>
+ * Records have a fixed size, so a trace cut off while recording is still read up to its
+ * last complete event.
+ */
+public class SensorTrace {
+    /**
+     * "STRC" read as a little-endian int
+     */
+    public static final int MAGIC = 0x43525453;
+    public static final int VERSION = 1;
+
+    public static final int HEADER_SIZE = 2 * 4;
+    public static final int MAX_VALUES = 5;
+    public static final int RECORD_SIZE = 8 + MAX_VALUES * 4 + 4;
+
+    private SensorTrace() {
+    }
+}
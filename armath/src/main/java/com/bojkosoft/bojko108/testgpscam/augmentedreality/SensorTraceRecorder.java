@@ -0,0 +1,118 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Appends sensor events to a {@link SensorTrace} file. Events are collected in a direct
+ * buffer and written to the file channel when it is full, recording an event creates no
+ * objects and touches the file only once per {@link #BUFFER_SIZE} bytes.
+ * <p>
+ * Not thread safe - record from the thread that gets the sensor events.
+ */
+public class SensorTraceRecorder implements Closeable {
+    /**
+     * default buffer size in bytes, 2048 events
+     */
+    public static final int BUFFER_SIZE = 2048 * SensorTrace.RECORD_SIZE;
+
+    private final RandomAccessFile mFile;
+    private final FileChannel mChannel;
+    private final ByteBuffer mBuffer;
+    private long mEventCount;
+
+    /**
+     * @param file - trace file, it is replaced if it exists
+     * @throws IOException if the file can not be written
+     */
+    public SensorTraceRecorder(File file) throws IOException {
+        this(file, BUFFER_SIZE);
+    }
+
+    /**
+     * @param file       - trace file, it is replaced if it exists
+     * @param bufferSize - bytes collected before they are written, at least one record
+     * @throws IOException if the file can not be written
+     */
+    public SensorTraceRecorder(File file, int bufferSize) throws IOException {
+        if (bufferSize < SensorTrace.RECORD_SIZE) {
+            throw new IllegalArgumentException("buffer is smaller than a record");
+        }
+        this.mBuffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+        this.mFile = new RandomAccessFile(file, "rw");
+        try {
+            this.mFile.setLength(0);
+            this.mChannel = this.mFile.getChannel();
+            this.mBuffer.putInt(SensorTrace.MAGIC);
+            this.mBuffer.putInt(SensorTrace.VERSION);
+        } catch (IOException e) {
+            this.mFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * add an event to the trace
+     *
+     * @param timestamp       - time of the event in nanoseconds
+     * @param values          - sensor values, only the first {@link SensorTrace#MAX_VALUES} are recorded
+     * @param accuracy        - accuracy of the event
+     * @param displayRotation - display rotation when the event came, see {@link CompassProcessor#setDisplayRotation(int)}
+     * @throws IOException if the buffer could not be written to the file
+     */
+    public void record(long timestamp, float[] values, int accuracy, int displayRotation) throws IOException {
+        if (this.mBuffer.remaining() < SensorTrace.RECORD_SIZE) {
+            this.flush();
+        }
+        ByteBuffer buffer = this.mBuffer;
+        int count = Math.min(values.length, SensorTrace.MAX_VALUES);
+        buffer.putLong(timestamp);
+        for (int i = 0; i < SensorTrace.MAX_VALUES; i++) {
+            buffer.putFloat(i < count ? values[i] : 0);
+        }
+        buffer.put((byte) count);
+        buffer.put((byte) accuracy);
+        buffer.put((byte) displayRotation);
+        buffer.put((byte) 0);
+        this.mEventCount++;
+    }
+
+    /**
+     * write the collected events to the file
+     *
+     * @throws IOException if the file can not be written
+     */
+    public void flush() throws IOException {
+        this.mBuffer.flip();
+        while (this.mBuffer.hasRemaining()) {
+            this.mChannel.write(this.mBuffer);
+        }
+        this.mBuffer.clear();
+    }
+
+    /**
+     * @return number of recorded events
+     */
+    public long getEventCount() {
+        return this.mEventCount;
+    }
+
+    /**
+     * write the collected events and close the file
+     *
+     * @throws IOException if the file can not be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.flush();
+        } finally {
+            this.mFile.close();
+        }
+    }
+}
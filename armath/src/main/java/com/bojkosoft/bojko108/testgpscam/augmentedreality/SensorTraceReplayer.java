@@ -0,0 +1,185 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a {@link SensorTrace} and feeds its events to a {@link CompassProcessor} - the same
+ * processing DeviceCompass does on the device - either as fast as possible or with the
+ * time between the events of the recording. Replays are deterministic, the same trace
+ * and processor settings always report the same azimuths.
+ * <p>
+ * Events can also be read one by one with {@link #next()}. The values array of an event
+ * is reused, reading and replaying create no objects per event.
+ */
+public class SensorTraceReplayer {
+    /**
+     * called for every replayed event
+     */
+    public interface OnEventListener {
+        /**
+         * @param timestamp - time of the event in nanoseconds
+         * @param changed   - true if the processor reported a change for the event
+         * @param processor - processor with the azimuth, pitch and roll of the event
+         */
+        void onEvent(long timestamp, boolean changed, CompassProcessor processor);
+    }
+
+    private final ByteBuffer mBuffer;
+    private final int mEventCount;
+    // values arrays by number of values - the rotation matrix depends on the length
+    private final float[][] mValues = new float[SensorTrace.MAX_VALUES + 1][];
+
+    private long mTimestamp;
+    private float[] mEventValues;
+    private int mAccuracy;
+    private int mDisplayRotation;
+
+    /**
+     * load a trace from a file, a record cut off at the end is ignored
+     *
+     * @param file - trace file
+     * @return replayer at the first event
+     * @throws IOException if the file can not be read or is not a trace
+     */
+    public static SensorTraceReplayer load(File file) throws IOException {
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = input.getChannel();
+            return new SensorTraceReplayer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * @param buffer - trace data from its current position
+     * @throws IOException if the buffer does not contain a trace
+     */
+    public SensorTraceReplayer(ByteBuffer buffer) throws IOException {
+        ByteBuffer trace = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (trace.remaining() < SensorTrace.HEADER_SIZE) {
+            throw new IOException("trace file is too short");
+        }
+        if (trace.getInt() != SensorTrace.MAGIC) {
+            throw new IOException("not a trace file");
+        }
+        int version = trace.getInt();
+        if (version != SensorTrace.VERSION) {
+            throw new IOException("unsupported trace file version " + version);
+        }
+        this.mBuffer = trace;
+        this.mEventCount = trace.remaining() / SensorTrace.RECORD_SIZE;
+        for (int i = 0; i < this.mValues.length; i++) {
+            this.mValues[i] = new float[i];
+        }
+    }
+
+    /**
+     * @return number of complete events in the trace
+     */
+    public int getEventCount() {
+        return this.mEventCount;
+    }
+
+    /**
+     * go back to the first event
+     */
+    public void rewind() {
+        this.mBuffer.position(SensorTrace.HEADER_SIZE);
+    }
+
+    /**
+     * read the next event
+     *
+     * @return false if there are no more events
+     * @throws IOException if the event is not valid
+     */
+    public boolean next() throws IOException {
+        ByteBuffer buffer = this.mBuffer;
+        if (buffer.remaining() < SensorTrace.RECORD_SIZE) {
+            return false;
+        }
+        int start = buffer.position();
+        int count = buffer.get(start + 8 + SensorTrace.MAX_VALUES * 4) & 0xff;
+        if (count < 3 || count > SensorTrace.MAX_VALUES) {
+            throw new IOException("event " + (start - SensorTrace.HEADER_SIZE) / SensorTrace.RECORD_SIZE + " has " + count + " values");
+        }
+        float[] values = this.mValues[count];
+        this.mTimestamp = buffer.getLong();
+        for (int i = 0; i < SensorTrace.MAX_VALUES; i++) {
+            float value = buffer.getFloat();
+            if (i < count) {
+                values[i] = value;
+            }
+        }
+        buffer.get();
+        this.mAccuracy = buffer.get();
+        this.mDisplayRotation = buffer.get();
+        buffer.get();
+        this.mEventValues = values;
+        return true;
+    }
+
+    public long getTimestamp() {
+        return this.mTimestamp;
+    }
+
+    /**
+     * @return values of the current event, the array is reused for the next events
+     */
+    public float[] getValues() {
+        return this.mEventValues;
+    }
+
+    public int getAccuracy() {
+        return this.mAccuracy;
+    }
+
+    public int getDisplayRotation() {
+        return this.mDisplayRotation;
+    }
+
+    /**
+     * Feed all events from the current one on to a processor. In real time the events are
+     * spaced like in the recording, measured from the first replayed event.
+     *
+     * @param processor - processor to feed, its display rotation follows the trace
+     * @param realTime  - true to wait between the events, false to replay as fast as possible
+     * @param listener  - listener for every event, can be null
+     * @return number of events the processor reported a change for
+     * @throws IOException          if an event is not valid
+     * @throws InterruptedException if the thread was interrupted while waiting for an event
+     */
+    public int replay(CompassProcessor processor, boolean realTime, OnEventListener listener) throws IOException, InterruptedException {
+        int changes = 0;
+        long start = System.nanoTime();
+        long first = 0;
+        boolean started = false;
+        while (this.next()) {
+            if (realTime) {
+                if (!started) {
+                    first = this.mTimestamp;
+                    started = true;
+                }
+                long wait = (this.mTimestamp - first) - (System.nanoTime() - start);
+                if (wait > 0) {
+                    Thread.sleep(wait / 1000000, (int) (wait % 1000000));
+                }
+            }
+            processor.setDisplayRotation(this.mDisplayRotation);
+            boolean changed = processor.process(this.mEventValues, this.mTimestamp);
+            if (changed) {
+                changes++;
+            }
+            if (listener != null) {
+                listener.onEvent(this.mTimestamp, changed, processor);
+            }
+        }
+        return changes;
+    }
+}
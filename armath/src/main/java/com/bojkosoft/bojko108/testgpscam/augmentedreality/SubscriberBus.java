@@ -0,0 +1,260 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands orientation changes from the sensor thread to any number of subscribers, each on
+ * its own executor and at most at its own rate. Changes between two calls of a subscriber
+ * are merged, it always gets the latest orientation. Every subscriber needs a rate profile
+ * - the slowest one delivering its rate - and the sensor runs with the fastest profile
+ * any subscriber needs.
+ * <p>
+ * Subscribers can be added and removed on any thread. The list is copied on every change
+ * and read without locks by {@link #publish}, which is called on the sensor thread only.
+ */
+public class SubscriberBus {
+
+    public interface Listener {
+        void onOrientationChanged(float azimuth, float pitch, float roll);
+    }
+
+    /**
+     * 5 events per second, batched in the sensor FIFO for up to a second
+     */
+    public static final int PROFILE_LOW_POWER = 0;
+    /**
+     * about 15 events per second, delivered as they come
+     */
+    public static final int PROFILE_UI = 1;
+    /**
+     * 50 events per second, delivered as they come
+     */
+    public static final int PROFILE_AR_TRACKING = 2;
+    /**
+     * as fast as the sensor can, delivered as they come
+     */
+    public static final int PROFILE_MAX = 3;
+
+    // events per second of the profiles, PROFILE_MAX takes anything faster
+    private static final double[] RATES = new double[]{5, 15, 50};
+
+    private final AtomicReference<Subscriber[]> mSubscribers = new AtomicReference<Subscriber[]>(new Subscriber[0]);
+
+    /**
+     * @param maxRate - calls per second, 0 or less for every change
+     * @return slowest profile delivering maxRate events per second
+     */
+    public static int getProfile(double maxRate) {
+        int profile = PROFILE_LOW_POWER;
+        while (profile < PROFILE_MAX && (maxRate <= 0 || maxRate > RATES[profile])) {
+            profile++;
+        }
+        return profile;
+    }
+
+    /**
+     * Add a listener called at most maxRate times per second.
+     *
+     * @param listener - listener
+     * @param maxRate  - maximum calls per second, 0 or less for every change
+     * @param executor - executor the listener is called on, null for the sensor thread
+     * @return the subscriber, to remove exactly this one
+     */
+    public Subscriber add(Listener listener, double maxRate, Executor executor) {
+        Subscriber subscriber = new Subscriber(listener, maxRate, executor, false);
+        this.add(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * Add a listener called for every change, which runs the sensor with the default
+     * profile passed to {@link #getDemandedProfile(int)} instead of one of its own.
+     *
+     * @param listener - listener
+     * @param executor - executor the listener is called on, null for the sensor thread
+     * @return the subscriber, to remove exactly this one
+     */
+    public Subscriber addWithDefaultProfile(Listener listener, Executor executor) {
+        Subscriber subscriber = new Subscriber(listener, 0, executor, true);
+        this.add(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * @param subscriber - subscriber returned by add
+     * @return true if it was removed, false if it was removed already
+     */
+    public boolean remove(Subscriber subscriber) {
+        Subscriber[] current;
+        Subscriber[] next;
+        do {
+            current = this.mSubscribers.get();
+            int index = -1;
+            for (int i = 0; i < current.length && index < 0; i++) {
+                if (current[i] == subscriber) {
+                    index = i;
+                }
+            }
+            if (index < 0) {
+                return false;
+            }
+            next = new Subscriber[current.length - 1];
+            System.arraycopy(current, 0, next, 0, index);
+            System.arraycopy(current, index + 1, next, index, next.length - index);
+        } while (!this.mSubscribers.compareAndSet(current, next));
+        return true;
+    }
+
+    /**
+     * remove the first subscriber of a listener added with {@link #add(Listener, double, Executor)}
+     *
+     * @param listener - listener
+     * @return true if a subscriber was removed
+     */
+    public boolean remove(Listener listener) {
+        for (Subscriber subscriber : this.mSubscribers.get()) {
+            if (subscriber.mListener == listener && !subscriber.mDefaultProfile) {
+                return this.remove(subscriber);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return number of subscribers
+     */
+    public int size() {
+        return this.mSubscribers.get().length;
+    }
+
+    /**
+     * @param defaultProfile - profile of subscribers without their own and of no subscribers at all
+     * @return profile the sensor should run with - the fastest any subscriber needs
+     */
+    public int getDemandedProfile(int defaultProfile) {
+        int profile = -1;
+        for (Subscriber subscriber : this.mSubscribers.get()) {
+            profile = Math.max(profile, subscriber.mDefaultProfile ? defaultProfile : subscriber.mProfile);
+        }
+        return profile < 0 ? defaultProfile : profile;
+    }
+
+    /**
+     * Sensor thread - hand an event to all subscribers. Throttled subscribers get a change
+     * with a later event, even if that one is no change.
+     *
+     * @param timestamp - time of the event in nanoseconds
+     * @param changed   - true if the orientation changed enough to be reported
+     * @param azimuth   - azimuth in degrees
+     * @param pitch     - pitch in degrees
+     * @param roll      - roll in degrees
+     */
+    public void publish(long timestamp, boolean changed, float azimuth, float pitch, float roll) {
+        for (Subscriber subscriber : this.mSubscribers.get()) {
+            subscriber.offer(timestamp, changed, azimuth, pitch, roll);
+        }
+    }
+
+    private void add(Subscriber subscriber) {
+        Subscriber[] current;
+        Subscriber[] next;
+        do {
+            current = this.mSubscribers.get();
+            next = new Subscriber[current.length + 1];
+            System.arraycopy(current, 0, next, 0, current.length);
+            next[current.length] = subscriber;
+        } while (!this.mSubscribers.compareAndSet(current, next));
+    }
+
+    /**
+     * A listener with its rate and executor. Changes are kept on the sensor thread until the
+     * listener may be called again, then handed over - one pending call at most, which
+     * gets the latest values when it runs.
+     */
+    public static final class Subscriber implements Runnable {
+        final Listener mListener;
+        final Executor mExecutor;
+        final long mInterval;
+        final int mProfile;
+        // follows the default profile instead of its own rate
+        final boolean mDefaultProfile;
+
+        // sensor thread only
+        private boolean mChanged;
+        private boolean mStarted;
+        private long mLastTimestamp;
+        private float mNextAzimuth;
+        private float mNextPitch;
+        private float mNextRoll;
+
+        // guarded by this
+        private boolean mPending;
+        private float mAzimuth;
+        private float mPitch;
+        private float mRoll;
+
+        Subscriber(Listener listener, double maxRate, Executor executor, boolean defaultProfile) {
+            this.mListener = listener;
+            this.mExecutor = executor;
+            this.mDefaultProfile = defaultProfile;
+            this.mInterval = maxRate > 0 ? (long) (1e9 / maxRate) : 0;
+            this.mProfile = SubscriberBus.getProfile(maxRate);
+        }
+
+        public Listener getListener() {
+            return this.mListener;
+        }
+
+        /**
+         * @return rate profile this subscriber needs
+         */
+        public int getProfile() {
+            return this.mProfile;
+        }
+
+        void offer(long timestamp, boolean changed, float azimuth, float pitch, float roll) {
+            if (changed) {
+                this.mChanged = true;
+                this.mNextAzimuth = azimuth;
+                this.mNextPitch = pitch;
+                this.mNextRoll = roll;
+            }
+            if (!this.mChanged || (this.mStarted && timestamp - this.mLastTimestamp < this.mInterval)) {
+                return;
+            }
+            this.mChanged = false;
+            this.mStarted = true;
+            this.mLastTimestamp = timestamp;
+
+            if (this.mExecutor == null) {
+                this.mListener.onOrientationChanged(this.mNextAzimuth, this.mNextPitch, this.mNextRoll);
+                return;
+            }
+            synchronized (this) {
+                this.mAzimuth = this.mNextAzimuth;
+                this.mPitch = this.mNextPitch;
+                this.mRoll = this.mNextRoll;
+                if (this.mPending) {
+                    return;
+                }
+                this.mPending = true;
+            }
+            this.mExecutor.execute(this);
+        }
+
+        @Override
+        public void run() {
+            float azimuth;
+            float pitch;
+            float roll;
+            synchronized (this) {
+                this.mPending = false;
+                azimuth = this.mAzimuth;
+                pitch = this.mPitch;
+                roll = this.mRoll;
+            }
+            this.mListener.onOrientationChanged(azimuth, pitch, roll);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * All visible faces of a {@link ProjectedFrame} as one list of triangles in drawing order,
+ * with a color for every triangle vertex - the layout of Canvas.drawVertices in TRIANGLES
+ * mode. Faces are split in the triangles stored in the frame, nothing is triangulated here.
+ * <p>
+ * Arrays are reused and grow only when a frame needs more triangles than any frame
+ * before. Like {@link FaceBatches} the triangles are built again only when a different
+ * frame or a newer publication of the same frame is given to {@link #update(ProjectedFrame)}.
+ */
+public class TriangleBatch {
+    private ProjectedFrame mFrame;
+    private long mSequence = -1;
+
+    // x, y of every triangle vertex
+    private float[] mVertices = new float[0];
+    private int[] mColors = new int[0];
+    private int mVertexCount;
+    private long mBuildCount;
+
+    /**
+     * triangulate the visible faces of a frame, if it is not the frame the triangles were built for
+     *
+     * @param frame - frame to draw
+     * @return true if the triangles were built again
+     */
+    public boolean update(ProjectedFrame frame) {
+        long sequence = frame.getSequence();
+        if (frame == this.mFrame && sequence == this.mSequence) {
+            return false;
+        }
+        this.mFrame = frame;
+        this.mSequence = sequence;
+        this.mBuildCount++;
+
+        int[] order = frame.getOrder();
+        int faceCount = frame.getOrderCount();
+        int needed = 0;
+        for (int i = 0; i < faceCount; i++) {
+            if (frame.isVisible(order[i]) && frame.getPointCount(order[i]) > 2) {
+                needed += frame.getTriangleCount(order[i]) * 3;
+            }
+        }
+        if (this.mColors.length < needed) {
+            this.mVertices = new float[needed * ProjectedFrame.STRIDE];
+            this.mColors = new int[needed];
+        }
+
+        float[] points = frame.getPoints();
+        int[] triangles = frame.getTriangles();
+        float[] vertices = this.mVertices;
+        int[] colors = this.mColors;
+        int v = 0;
+        for (int i = 0; i < faceCount; i++) {
+            int face = order[i];
+            int count = frame.getPointCount(face);
+            if (!frame.isVisible(face) || count < 3) {
+                continue;
+            }
+
+            int color = frame.getColor(face);
+            int first = frame.getOffset(face);
+            int t = frame.getTriangleOffset(face);
+            int end = t + frame.getTriangleCount(face) * 3;
+            for (; t < end; t++) {
+                int p = first + triangles[t] * ProjectedFrame.STRIDE;
+                vertices[v * ProjectedFrame.STRIDE] = points[p];
+                vertices[v * ProjectedFrame.STRIDE + 1] = points[p + 1];
+                colors[v++] = color;
+            }
+        }
+        this.mVertexCount = v;
+
+        return true;
+    }
+
+    /**
+     * @return x and y of all triangle vertices
+     */
+    public float[] getVertices() {
+        return this.mVertices;
+    }
+
+    /**
+     * @return color of all triangle vertices
+     */
+    public int[] getColors() {
+        return this.mColors;
+    }
+
+    /**
+     * @return number of triangle vertices, three per triangle
+     */
+    public int getVertexCount() {
+        return this.mVertexCount;
+    }
+
+    /**
+     * @return number of times the triangles were built
+     */
+    public long getBuildCount() {
+        return this.mBuildCount;
+    }
+}
@@ -0,0 +1,190 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * Splits simple polygons (no holes, not crossing themselves) in triangles. Convex
+ * polygons are split in a fan around the first point, concave ones by ear clipping.
+ * Triangles are written as corner numbers of the polygon, 0 to count - 1, three per
+ * triangle, with the winding of the polygon.
+ * <p>
+ * Points are read from a packed array: x at offset + i * stride and y right after it,
+ * so projected vertices, screen polygons and frame points can be used as they are.
+ * Scratch arrays are kept between calls, triangulating polygons not larger than any
+ * polygon before creates no objects.
+ */
+public class Triangulator {
+    /**
+     * not a polygon - fewer than three points or all points on a line
+     */
+    public static final int DEGENERATE = 0;
+    public static final int CONVEX = 1;
+    public static final int CONCAVE = -1;
+
+    // remaining polygon as a circular list
+    private int[] mPrev = new int[8];
+    private int[] mNext = new int[8];
+
+    /**
+     * Classify a polygon by the turns at its corners - all turns to the same side make it
+     * convex. Collinear corners are ignored.
+     *
+     * @param points - packed points
+     * @param offset - position of the x of the first point
+     * @param stride - number of values per point, at least 2
+     * @param count  - number of points
+     * @return {@link #CONVEX}, {@link #CONCAVE} or {@link #DEGENERATE}
+     */
+    public static int classify(double[] points, int offset, int stride, int count) {
+        if (count < 3) {
+            return DEGENERATE;
+        }
+        int flag = 0;
+        for (int i = 0; i < count; i++) {
+            double turn = cross(points, offset, stride, i, (i + 1) % count, (i + 2) % count);
+            if (turn < 0) {
+                flag |= 1;
+            } else if (turn > 0) {
+                flag |= 2;
+            }
+            if (flag == 3) {
+                return CONCAVE;
+            }
+        }
+        return flag != 0 ? CONVEX : DEGENERATE;
+    }
+
+    /**
+     * split a polygon in triangles
+     *
+     * @param points    - packed points
+     * @param offset    - position of the x of the first point
+     * @param stride    - number of values per point, at least 2
+     * @param count     - number of points
+     * @param out       - corners of the triangles, room for (count - 2) * 3 values
+     * @param outOffset - position of the first value in out
+     * @return number of triangles, fewer than count - 2 if some corners had no area
+     */
+    public int triangulate(double[] points, int offset, int stride, int count, int[] out, int outOffset) {
+        int type = classify(points, offset, stride, count);
+        if (type == DEGENERATE) {
+            return 0;
+        }
+        if (type == CONVEX) {
+            return fan(count, out, outOffset);
+        }
+
+        if (this.mPrev.length < count) {
+            this.mPrev = new int[count];
+            this.mNext = new int[count];
+        }
+        int[] prev = this.mPrev;
+        int[] next = this.mNext;
+        for (int i = 0; i < count; i++) {
+            prev[i] = (i + count - 1) % count;
+            next[i] = (i + 1) % count;
+        }
+        double winding = area(points, offset, stride, count) > 0 ? 1 : -1;
+
+        int triangles = 0;
+        int o = outOffset;
+        int remaining = count;
+        int vertex = 0;
+        // corners checked since the last ear, all of them without an ear means the polygon is not simple
+        int checked = 0;
+        while (remaining > 3) {
+            int a = prev[vertex];
+            int b = next[vertex];
+            double turn = cross(points, offset, stride, a, vertex, b) * winding;
+            boolean ear = turn > 0 && !this.containsPoint(points, offset, stride, a, vertex, b);
+
+            if (ear || turn == 0 || checked > remaining) {
+                // a corner without area is removed without a triangle
+                if (turn != 0 || checked > remaining) {
+                    out[o++] = a;
+                    out[o++] = vertex;
+                    out[o++] = b;
+                    triangles++;
+                }
+                next[a] = b;
+                prev[b] = a;
+                remaining--;
+                checked = 0;
+                vertex = b;
+            } else {
+                checked++;
+                vertex = next[vertex];
+            }
+        }
+
+        int a = prev[vertex];
+        int b = next[vertex];
+        if (cross(points, offset, stride, a, vertex, b) != 0) {
+            out[o++] = a;
+            out[o++] = vertex;
+            out[o] = b;
+            triangles++;
+        }
+        return triangles;
+    }
+
+    /**
+     * split a convex polygon in a fan around its first point
+     *
+     * @param count     - number of points
+     * @param out       - corners of the triangles, room for (count - 2) * 3 values
+     * @param outOffset - position of the first value in out
+     * @return number of triangles, count - 2
+     */
+    public static int fan(int count, int[] out, int outOffset) {
+        int o = outOffset;
+        for (int i = 1; i < count - 1; i++) {
+            out[o++] = 0;
+            out[o++] = i;
+            out[o++] = i + 1;
+        }
+        return Math.max(0, count - 2);
+    }
+
+    /**
+     * check if a point of the remaining polygon, other than a, b and c, is inside of or on
+     * the triangle a, b, c
+     */
+    private boolean containsPoint(double[] points, int offset, int stride, int a, int b, int c) {
+        double ax = points[offset + a * stride], ay = points[offset + a * stride + 1];
+        double bx = points[offset + b * stride], by = points[offset + b * stride + 1];
+        double cx = points[offset + c * stride], cy = points[offset + c * stride + 1];
+        double area = (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+
+        for (int p = this.mNext[c]; p != a; p = this.mNext[p]) {
+            double px = points[offset + p * stride], py = points[offset + p * stride + 1];
+            if ((px == ax && py == ay) || (px == bx && py == by) || (px == cx && py == cy)) {
+                continue;
+            }
+            double u = ((bx - ax) * (py - ay) - (by - ay) * (px - ax)) * area;
+            double v = ((cx - bx) * (py - by) - (cy - by) * (px - bx)) * area;
+            double w = ((ax - cx) * (py - cy) - (ay - cy) * (px - cx)) * area;
+            if (u >= 0 && v >= 0 && w >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // z of the cross product of a -> b and b -> c, positive for a turn to the left
+    private static double cross(double[] points, int offset, int stride, int a, int b, int c) {
+        int ia = offset + a * stride;
+        int ib = offset + b * stride;
+        int ic = offset + c * stride;
+        return (points[ib] - points[ia]) * (points[ic + 1] - points[ib + 1])
+                - (points[ib + 1] - points[ia + 1]) * (points[ic] - points[ib]);
+    }
+
+    // twice the signed area
+    private static double area(double[] points, int offset, int stride, int count) {
+        double area = 0;
+        for (int i = 0, j = count - 1; i < count; j = i++) {
+            area += points[offset + j * stride] * points[offset + i * stride + 1]
+                    - points[offset + i * stride] * points[offset + j * stride + 1];
+        }
+        return area;
+    }
+}
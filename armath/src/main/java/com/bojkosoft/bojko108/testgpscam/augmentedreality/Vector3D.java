@@ -66,6 +66,32 @@ public class Vector3D {
         this(coords[0], coords[1], coords[2]);
     }
 
+    /**
+     * set vector components
+     *
+     * @param x - X component of the vector
+     * @param y - Y component of the vector
+     * @param z - Z component of the vector
+     * @return this vector
+     */
+    public Vector3D set(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+
+        return this;
+    }
+
+    /**
+     * copy components from another vector
+     *
+     * @param that - vector to copy
+     * @return this vector
+     */
+    public Vector3D set(Vector3D that) {
+        return this.set(that.x, that.y, that.z);
+    }
+
     /**
      * rotate the vector around X component (axis)
      *
@@ -73,11 +99,10 @@ public class Vector3D {
      * @return rotated vector
      */
     public Vector3D rotateX(double angle) {
-        double rad, cosa, sina, yn, zn;
+        double cosa, sina, yn, zn;
 
-        rad = angle * Math.PI / 180;
-        cosa = Math.cos(rad);
-        sina = Math.sin(rad);
+        cosa = FastTrig.cos(angle);
+        sina = FastTrig.sin(angle);
         yn = this.y * cosa - this.z * sina;
         zn = this.y * sina + this.z * cosa;
 
@@ -91,11 +116,10 @@ public class Vector3D {
      * @return rotated vector
      */
     public Vector3D rotateY(double angle) {
-        double rad, cosa, sina, xn, zn;
+        double cosa, sina, xn, zn;
 
-        rad = angle * Math.PI / 180;
-        cosa = Math.cos(rad);
-        sina = Math.sin(rad);
+        cosa = FastTrig.cos(angle);
+        sina = FastTrig.sin(angle);
         zn = this.z * cosa - this.x * sina;
         xn = this.z * sina + this.x * cosa;
 
@@ -109,17 +133,54 @@ public class Vector3D {
      * @return rotated vector
      */
     public Vector3D rotateZ(double angle) {
-        double rad, cosa, sina, xn, yn;
+        double cosa, sina, xn, yn;
 
-        rad = angle * Math.PI / 180;
-        cosa = Math.cos(rad);
-        sina = Math.sin(rad);
+        cosa = FastTrig.cos(angle);
+        sina = FastTrig.sin(angle);
         xn = this.x * cosa - this.y * sina;
         yn = this.x * sina + this.y * cosa;
 
         return new Vector3D(xn, yn, this.z);
     }
 
+    /**
+     * rotate the vector around Z, X and Y components (axes) - in that order, same as
+     * rotateZ(rZ).rotateX(rX).rotateY(rY) - without creating new vectors
+     *
+     * @param rX  - rotation around X in degrees
+     * @param rY  - rotation around Y in degrees
+     * @param rZ  - rotation around Z in degrees
+     * @param out - vector to store the result in, can be this vector
+     * @return out
+     */
+    public Vector3D rotateInto(double rX, double rY, double rZ, Vector3D out) {
+        double cosa, sina, xn, yn, zn, t;
+
+        xn = this.x;
+        yn = this.y;
+        zn = this.z;
+
+        cosa = FastTrig.cos(rZ);
+        sina = FastTrig.sin(rZ);
+        t = xn * cosa - yn * sina;
+        yn = xn * sina + yn * cosa;
+        xn = t;
+
+        cosa = FastTrig.cos(rX);
+        sina = FastTrig.sin(rX);
+        t = yn * cosa - zn * sina;
+        zn = yn * sina + zn * cosa;
+        yn = t;
+
+        cosa = FastTrig.cos(rY);
+        sina = FastTrig.sin(rY);
+        t = zn * cosa - xn * sina;
+        xn = zn * sina + xn * cosa;
+        zn = t;
+
+        return out.set(xn, yn, zn);
+    }
+
     /**
      * TODO: need to check what projection is used... and change it to perspective
      * project this vector
@@ -144,14 +205,47 @@ public class Vector3D {
         return new Vector3D(xn, yn, this.z);
     }
 
+    /**
+     * project this vector without creating a new one, see {@link #project(int, int, double, double)}
+     *
+     * @param xOrigin
+     * @param yOrigin
+     * @param fov          - camera field of view
+     * @param viewDistance - view distance
+     * @param out          - vector to store the result in, can be this vector
+     * @return out
+     */
+    public Vector3D projectInto(int xOrigin, int yOrigin, double fov, double viewDistance, Vector3D out) {
+        double factor = fov / (viewDistance + this.z);
+
+        return out.set(this.x * factor + xOrigin, this.y * factor + yOrigin, this.z);
+    }
+
     /**
      * project this vector
      *
-     * @param matrix - perspective projection matrix
+     * @param matrix - perspective projection matrix, column-major, see {@link Matrix4}
      * @return projected vector
      */
     public Vector3D project(float[] matrix) {
-        return this;
+        return this.projectInto(matrix, new Vector3D());
+    }
+
+    /**
+     * project this vector without creating a new one: multiply (x, y, z, 1) by the
+     * matrix and divide by the resulting w
+     *
+     * @param matrix - perspective projection matrix, column-major, see {@link Matrix4}
+     * @param out    - vector to store the result in, can be this vector
+     * @return out
+     */
+    public Vector3D projectInto(float[] matrix, Vector3D out) {
+        double x = matrix[0] * this.x + matrix[4] * this.y + matrix[8] * this.z + matrix[12];
+        double y = matrix[1] * this.x + matrix[5] * this.y + matrix[9] * this.z + matrix[13];
+        double z = matrix[2] * this.x + matrix[6] * this.y + matrix[10] * this.z + matrix[14];
+        double w = matrix[3] * this.x + matrix[7] * this.y + matrix[11] * this.z + matrix[15];
+
+        return out.set(x / w, y / w, z / w);
     }
 
 
@@ -210,6 +304,21 @@ public class Vector3D {
         return new Vector3D(x, y, z);
     }
 
+    /**
+     * Calculate the cross-product without creating a new vector. THIS is the left vector.
+     *
+     * @param rightVector - right vector
+     * @param out         - vector to store the result in, can be this or rightVector
+     * @return out
+     */
+    public Vector3D crossInto(Vector3D rightVector, Vector3D out) {
+        double x = this.y * rightVector.z - this.z * rightVector.y;
+        double y = this.z * rightVector.x - this.x * rightVector.z;
+        double z = this.x * rightVector.y - this.y * rightVector.x;
+
+        return out.set(x, y, z);
+    }
+
     /**
      * calculate magnitude (length)
      * magnitude = Math.sqrt(x*x + y*y + z*z)
@@ -230,6 +339,17 @@ public class Vector3D {
         return new Vector3D(fromVector.x - this.x, fromVector.y - this.y, fromVector.z - this.z);
     }
 
+    /**
+     * subtract this vector from fromVector without creating a new vector
+     *
+     * @param fromVector - vector to subtract from
+     * @param out        - vector to store the result in, can be this or fromVector
+     * @return out
+     */
+    public Vector3D subtractFromInto(Vector3D fromVector, Vector3D out) {
+        return out.set(fromVector.x - this.x, fromVector.y - this.y, fromVector.z - this.z);
+    }
+
     /**
      * scale the vector
      *
@@ -265,9 +385,10 @@ public class Vector3D {
      * @return vector direction
      */
     public Vector3D direction() {
-        if (this.magnitude() == 0.0f)
+        float magnitude = this.magnitude();
+        if (magnitude == 0.0f)
             throw new ArithmeticException("zero-vector has no direction");
-        return this.scale(1.0f / this.magnitude());
+        return this.scale(1.0f / magnitude);
     }
 
     /**
@@ -295,11 +416,24 @@ public class Vector3D {
      */
     public Vector3D normalize() {
         float magnitude = this.magnitude();
-        if (this.magnitude() == 0.0f)
+        if (magnitude == 0.0f)
             throw new ArithmeticException("zero-vector has no direction");
         return this.divideBy(magnitude);
     }
 
+    /**
+     * Normalize this vector without creating a new one. Vector magnitude
+     * must be greater than 0.
+     *
+     * @return this vector
+     */
+    public Vector3D normalizeInPlace() {
+        float magnitude = this.magnitude();
+        if (magnitude == 0.0f)
+            throw new ArithmeticException("zero-vector has no direction");
+        return this.set(this.x / magnitude, this.y / magnitude, this.z / magnitude);
+    }
+
     /**
      * Calculate the Euclidean distance between this and toVector
      *
@@ -310,44 +444,3 @@ public class Vector3D {
         return this.subtractFrom(toVector).magnitude();
     }
 }
-
-
-/*
-   http://www.homer.com.au/webdoc/geometry/polygonorder.htm
-
-   Example and test program for testing whether a polygon is convex or concave. For MICROSOFT WINDOWS, contributed by G. Adam Stanislav.
-
-   Return whether a polygon in 2D is concave or convex
-   return 0 for incomputables eg: colinear points
-          CONVEX == 1
-          CONCAVE == -1
-   It is assumed that the polygon is simple
-   (does not intersect itself or have holes)
-
-int Convex(XY *p,int n)
-{
-int i,j,k;
-int flag = 0;
-double z;
-
-if (n < 3)
-return(0);
-
-for (i=0;i<n;i++) {
-j = (i + 1) % n;
-k = (i + 2) % n;
-z  = (p[j].x - p[i].x) * (p[k].y - p[j].y);
-z -= (p[j].y - p[i].y) * (p[k].x - p[j].x);
-if (z < 0)
-flag |= 1;
-else if (z > 0)
-flag |= 2;
-if (flag == 3)
-return(CONCAVE);
-}
-if (flag != 0)
-return(CONVEX);
-else
-return(0);
-}
-*/
\ No newline at end of file
@@ -0,0 +1,436 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ * Single precision version of {@link Vector3D}, for vertex data which ends up as float anyway
+ */
+public class Vector3F {
+    /**
+     * A test vector in Right-handed Cartesian coordinate system.
+     * Can be used for example if we need to calculate the dot product
+     * with camera vector, but we don't actually have a camera.
+     */
+    public static final Vector3F RIGHT_HANDED = new Vector3F(0, 0, 1);
+    /**
+     * A test vector in Left-handed Cartesian coordinate system.
+     * Can be used for example if we need to calculate the dot product
+     * with camera vector, but we don't actually have a camera.
+     */
+    public static final Vector3F LEFT_HANDED = new Vector3F(0, 0, -1);
+
+    public static final Vector3F PLUS_X = new Vector3F(1, 0, 0);
+    public static final Vector3F PLUS_Y = new Vector3F(0, 1, 0);
+    public static final Vector3F PLUS_Z = new Vector3F(0, 0, 1);
+    public static final Vector3F MINUS_X = new Vector3F(-1, 0, 0);
+    public static final Vector3F MINUS_Y = new Vector3F(0, -1, 0);
+    public static final Vector3F MINUS_Z = new Vector3F(0, 0, -1);
+
+    /**
+     * X component
+     */
+    public float x;
+    /**
+     * Y component
+     */
+    public float y;
+    /**
+     * Z component
+     */
+    public float z;
+
+    /**
+     * Construct a new 3D Vector with X = Y = Z = 0
+     */
+    public Vector3F() {
+        x = y = z = 0f;
+    }
+
+    /**
+     * Construct a new 3D Vector
+     *
+     * @param x - X component of the vector
+     * @param y - Y component of the vector
+     * @param z - Z component of the vector
+     */
+    public Vector3F(float x, float y, float z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    /**
+     * Construct a new 3D Vector
+     *
+     * @param coords - coordinates array
+     */
+    public Vector3F(float[] coords) {
+        this(coords[0], coords[1], coords[2]);
+    }
+
+    /**
+     * set vector components
+     *
+     * @param x - X component of the vector
+     * @param y - Y component of the vector
+     * @param z - Z component of the vector
+     * @return this vector
+     */
+    public Vector3F set(float x, float y, float z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+
+        return this;
+    }
+
+    /**
+     * copy components from another vector
+     *
+     * @param that - vector to copy
+     * @return this vector
+     */
+    public Vector3F set(Vector3F that) {
+        return this.set(that.x, that.y, that.z);
+    }
+
+    /**
+     * rotate the vector around X component (axis)
+     *
+     * @param angle in degrees
+     * @return rotated vector
+     */
+    public Vector3F rotateX(float angle) {
+        float cosa, sina, yn, zn;
+
+        cosa = (float) FastTrig.cos(angle);
+        sina = (float) FastTrig.sin(angle);
+        yn = this.y * cosa - this.z * sina;
+        zn = this.y * sina + this.z * cosa;
+
+        return new Vector3F(this.x, yn, zn);
+    }
+
+    /**
+     * rotate the vector around Y component (axis)
+     *
+     * @param angle in degrees
+     * @return rotated vector
+     */
+    public Vector3F rotateY(float angle) {
+        float cosa, sina, xn, zn;
+
+        cosa = (float) FastTrig.cos(angle);
+        sina = (float) FastTrig.sin(angle);
+        zn = this.z * cosa - this.x * sina;
+        xn = this.z * sina + this.x * cosa;
+
+        return new Vector3F(xn, this.y, zn);
+    }
+
+    /**
+     * rotate the vector around Z component (axis)
+     *
+     * @param angle in degrees
+     * @return rotated vector
+     */
+    public Vector3F rotateZ(float angle) {
+        float cosa, sina, xn, yn;
+
+        cosa = (float) FastTrig.cos(angle);
+        sina = (float) FastTrig.sin(angle);
+        xn = this.x * cosa - this.y * sina;
+        yn = this.x * sina + this.y * cosa;
+
+        return new Vector3F(xn, yn, this.z);
+    }
+
+    /**
+     * rotate the vector around Z, X and Y components (axes) - in that order, same as
+     * rotateZ(rZ).rotateX(rX).rotateY(rY) - without creating new vectors
+     *
+     * @param rX  - rotation around X in degrees
+     * @param rY  - rotation around Y in degrees
+     * @param rZ  - rotation around Z in degrees
+     * @param out - vector to store the result in, can be this vector
+     * @return out
+     */
+    public Vector3F rotateInto(float rX, float rY, float rZ, Vector3F out) {
+        float cosa, sina, xn, yn, zn, t;
+
+        xn = this.x;
+        yn = this.y;
+        zn = this.z;
+
+        cosa = (float) FastTrig.cos(rZ);
+        sina = (float) FastTrig.sin(rZ);
+        t = xn * cosa - yn * sina;
+        yn = xn * sina + yn * cosa;
+        xn = t;
+
+        cosa = (float) FastTrig.cos(rX);
+        sina = (float) FastTrig.sin(rX);
+        t = yn * cosa - zn * sina;
+        zn = yn * sina + zn * cosa;
+        yn = t;
+
+        cosa = (float) FastTrig.cos(rY);
+        sina = (float) FastTrig.sin(rY);
+        t = zn * cosa - xn * sina;
+        xn = zn * sina + xn * cosa;
+        zn = t;
+
+        return out.set(xn, yn, zn);
+    }
+
+    /**
+     * project this vector - x and y are divided by viewDistance + z
+     *
+     * @param xOrigin
+     * @param yOrigin
+     * @param fov          - camera field of view
+     * @param viewDistance - view distance
+     * @return projected vector
+     */
+    public Vector3F project(int xOrigin, int yOrigin, float fov, float viewDistance) {
+        return this.projectInto(xOrigin, yOrigin, fov, viewDistance, new Vector3F());
+    }
+
+    /**
+     * project this vector without creating a new one, see {@link #project(int, int, float, float)}
+     *
+     * @param xOrigin
+     * @param yOrigin
+     * @param fov          - camera field of view
+     * @param viewDistance - view distance
+     * @param out          - vector to store the result in, can be this vector
+     * @return out
+     */
+    public Vector3F projectInto(int xOrigin, int yOrigin, float fov, float viewDistance, Vector3F out) {
+        float factor = fov / (viewDistance + this.z);
+
+        return out.set(this.x * factor + xOrigin, this.y * factor + yOrigin, this.z);
+    }
+
+    /**
+     * project this vector
+     *
+     * @param matrix - perspective projection matrix, column-major, see {@link Matrix4}
+     * @return projected vector
+     */
+    public Vector3F project(float[] matrix) {
+        return this.projectInto(matrix, new Vector3F());
+    }
+
+    /**
+     * project this vector without creating a new one: multiply (x, y, z, 1) by the
+     * matrix and divide by the resulting w
+     *
+     * @param matrix - perspective projection matrix, column-major, see {@link Matrix4}
+     * @param out    - vector to store the result in, can be this vector
+     * @return out
+     */
+    public Vector3F projectInto(float[] matrix, Vector3F out) {
+        float x = matrix[0] * this.x + matrix[4] * this.y + matrix[8] * this.z + matrix[12];
+        float y = matrix[1] * this.x + matrix[5] * this.y + matrix[9] * this.z + matrix[13];
+        float z = matrix[2] * this.x + matrix[6] * this.y + matrix[10] * this.z + matrix[14];
+        float w = matrix[3] * this.x + matrix[7] * this.y + matrix[11] * this.z + matrix[15];
+
+        return out.set(x / w, y / w, z / w);
+    }
+
+
+    /**
+     * sum of two vectors
+     *
+     * @param toVector - vector to add to
+     * @return assembled vector
+     */
+    public Vector3F addTo(Vector3F toVector) {
+        return new Vector3F(toVector.x + this.x, toVector.y + this.y, toVector.z + this.z);
+    }
+
+    /**
+     * multiplies two vectors
+     *
+     * @param second vector
+     * @return resulting vector
+     */
+    public Vector3F multiply(Vector3F second) {
+        return new Vector3F(second.x * this.x, second.y * this.y, second.z * this.z);
+    }
+
+    /**
+     * get the angle between two vectors
+     *
+     * @param toVector - second vector
+     * @return angle in radians
+     */
+    public float angle(Vector3F toVector) {
+        Vector3F a = this.normalize();
+        Vector3F b = toVector.normalize();
+
+        float cosine = a.dot(b);
+        if (cosine > 1.0f) {
+            return 0f;
+        } else {
+            return (float) Math.acos(cosine);
+        }
+    }
+
+    /**
+     * Calculate the cross-product. THIS is the left vector.
+     * returnValue.x = left.y * right.z - left.z * right.y;
+     * returnValue.y = left.z * right.x - left.x * right.z;
+     * returnValue.z = left.x * right.y - left.y * right.x;
+     *
+     * @param rightVector - right vector
+     * @return cross-product
+     */
+    public Vector3F cross(Vector3F rightVector) {
+        float x = this.y * rightVector.z - this.z * rightVector.y;
+        float y = this.z * rightVector.x - this.x * rightVector.z;
+        float z = this.x * rightVector.y - this.y * rightVector.x;
+
+        return new Vector3F(x, y, z);
+    }
+
+    /**
+     * Calculate the cross-product without creating a new vector. THIS is the left vector.
+     *
+     * @param rightVector - right vector
+     * @param out         - vector to store the result in, can be this or rightVector
+     * @return out
+     */
+    public Vector3F crossInto(Vector3F rightVector, Vector3F out) {
+        float x = this.y * rightVector.z - this.z * rightVector.y;
+        float y = this.z * rightVector.x - this.x * rightVector.z;
+        float z = this.x * rightVector.y - this.y * rightVector.x;
+
+        return out.set(x, y, z);
+    }
+
+    /**
+     * calculate magnitude (length)
+     * magnitude = Math.sqrt(x*x + y*y + z*z)
+     *
+     * @return magnitude (length)
+     */
+    public float magnitude() {
+        return (float) Math.sqrt(this.dot(this));
+    }
+
+    /**
+     * subtract this vector from fromVector
+     *
+     * @param fromVector - vector to subtract from
+     * @return subtracted vector
+     */
+    public Vector3F subtractFrom(Vector3F fromVector) {
+        return new Vector3F(fromVector.x - this.x, fromVector.y - this.y, fromVector.z - this.z);
+    }
+
+    /**
+     * subtract this vector from fromVector without creating a new vector
+     *
+     * @param fromVector - vector to subtract from
+     * @param out        - vector to store the result in, can be this or fromVector
+     * @return out
+     */
+    public Vector3F subtractFromInto(Vector3F fromVector, Vector3F out) {
+        return out.set(fromVector.x - this.x, fromVector.y - this.y, fromVector.z - this.z);
+    }
+
+    /**
+     * scale the vector
+     *
+     * @param factor - scale factor
+     * @return scaled vector
+     */
+    public Vector3F scale(float factor) {
+        return new Vector3F(this.x * factor, this.y * factor, this.z * factor);
+    }
+
+    /**
+     * inverse vector components
+     *
+     * @return inverted vector
+     */
+    public Vector3F inverse() {
+        return new Vector3F(1.0f / this.x, 1.0f / this.y, 1.0f / this.z);
+    }
+
+    /**
+     * divide the vector
+     *
+     * @param factor - division factor
+     * @return divided vector
+     */
+    public Vector3F divideBy(float factor) {
+        return new Vector3F(this.x / factor, this.y / factor, this.z / factor);
+    }
+
+    /**
+     * calculate vector direction
+     *
+     * @return vector direction
+     */
+    public Vector3F direction() {
+        float magnitude = this.magnitude();
+        if (magnitude == 0.0f)
+            throw new ArithmeticException("zero-vector has no direction");
+        return this.scale(1.0f / magnitude);
+    }
+
+    /**
+     * return inner product with that Vector
+     * dot = x*x + y*y + z*z
+     *
+     * @param that - Vector3F
+     * @return inner product
+     */
+    public float dot(Vector3F that) {
+        float sum = 0.0f;
+
+        sum += (this.x * that.x);
+        sum += (this.y * that.y);
+        sum += (this.z * that.z);
+
+        return sum;
+    }
+
+    /**
+     * Calculate normalized vector. Vector magnitude
+     * must be greater than 0.
+     *
+     * @return normalized vector
+     */
+    public Vector3F normalize() {
+        float magnitude = this.magnitude();
+        if (magnitude == 0.0f)
+            throw new ArithmeticException("zero-vector has no direction");
+        return this.divideBy(magnitude);
+    }
+
+    /**
+     * Normalize this vector without creating a new one. Vector magnitude
+     * must be greater than 0.
+     *
+     * @return this vector
+     */
+    public Vector3F normalizeInPlace() {
+        float magnitude = this.magnitude();
+        if (magnitude == 0.0f)
+            throw new ArithmeticException("zero-vector has no direction");
+        return this.set(this.x / magnitude, this.y / magnitude, this.z / magnitude);
+    }
+
+    /**
+     * Calculate the Euclidean distance between this and toVector
+     *
+     * @param toVector - vector to calculate distance to
+     * @return distance
+     */
+    public float distanceTo(Vector3F toVector) {
+        return this.subtractFrom(toVector).magnitude();
+    }
+}
+
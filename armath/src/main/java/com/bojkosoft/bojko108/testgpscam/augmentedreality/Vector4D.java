@@ -0,0 +1,420 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+/**
+ *
+ */
+public class Vector4D {
+    /**
+     * A test vector in Right-handed Cartesian coordinate system.
+     * Can be used for example if we need to calculate the dot product
+     * with camera vector, but we don't actually have a camera.
+     */
+    public static final Vector4D RIGHT_HANDED = new Vector4D(0, 0, 1, 0);
+    /**
+     * A test vector in Left-handed Cartesian coordinate system.
+     * Can be used for example if we need to calculate the dot product
+     * with camera vector, but we don't actually have a camera.
+     */
+    public static final Vector4D LEFT_HANDED = new Vector4D(0, 0, -1, 0);
+
+    public static final Vector4D PLUS_X = new Vector4D(1, 0, 0, 0);
+    public static final Vector4D PLUS_Y = new Vector4D(0, 1, 0, 0);
+    public static final Vector4D PLUS_Z = new Vector4D(0, 0, 1, 0);
+    public static final Vector4D MINUS_X = new Vector4D(-1, 0, 0, 0);
+    public static final Vector4D MINUS_Y = new Vector4D(0, -1, 0, 0);
+    public static final Vector4D MINUS_Z = new Vector4D(0, 0, -1, 0);
+
+    /**
+     * X component
+     */
+    public double x;
+    /**
+     * Y component
+     */
+    public double y;
+    /**
+     * Z component
+     */
+    public double z;
+    /**
+     * W component
+     */
+    public double w;
+
+    /**
+     * Construct a new 3D Vector with X = Y = Z = W = 0
+     */
+    public Vector4D() {
+        x = y = z = w = 0;
+    }
+
+    /**
+     * Construct a new 4D Vector
+     *
+     * @param x - X component of the vector
+     * @param y - Y component of the vector
+     * @param z - Z component of the vector
+     * @param w - W component of the vector
+     */
+    public Vector4D(double x, double y, double z, double w) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.w = w;
+    }
+
+    /**
+     * Construct a new 4D Vector
+     *
+     * @param coords - coordinates array
+     */
+    public Vector4D(double[] coords) {
+        this(coords[0], coords[1], coords[2], coords[3]);
+    }
+
+    /**
+     * set vector components
+     *
+     * @param x - X component of the vector
+     * @param y - Y component of the vector
+     * @param z - Z component of the vector
+     * @param w - W component of the vector
+     * @return this vector
+     */
+    public Vector4D set(double x, double y, double z, double w) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.w = w;
+
+        return this;
+    }
+
+    /**
+     * copy components from another vector
+     *
+     * @param that - vector to copy
+     * @return this vector
+     */
+    public Vector4D set(Vector4D that) {
+        return this.set(that.x, that.y, that.z, that.w);
+    }
+
+    /**
+     * rotate X, Y and Z components of the vector around Z, X and Y axes - in that order -
+     * without creating new vectors. W component is not changed.
+     *
+     * @param rX  - rotation around X in degrees
+     * @param rY  - rotation around Y in degrees
+     * @param rZ  - rotation around Z in degrees
+     * @param out - vector to store the result in, can be this vector
+     * @return out
+     */
+    public Vector4D rotateInto(double rX, double rY, double rZ, Vector4D out) {
+        double cosa, sina, xn, yn, zn, t;
+
+        xn = this.x;
+        yn = this.y;
+        zn = this.z;
+
+        cosa = FastTrig.cos(rZ);
+        sina = FastTrig.sin(rZ);
+        t = xn * cosa - yn * sina;
+        yn = xn * sina + yn * cosa;
+        xn = t;
+
+        cosa = FastTrig.cos(rX);
+        sina = FastTrig.sin(rX);
+        t = yn * cosa - zn * sina;
+        zn = yn * sina + zn * cosa;
+        yn = t;
+
+        cosa = FastTrig.cos(rY);
+        sina = FastTrig.sin(rY);
+        t = zn * cosa - xn * sina;
+        xn = zn * sina + xn * cosa;
+        zn = t;
+
+        return out.set(xn, yn, zn, this.w);
+    }
+
+    /**
+     * project X and Y components of this vector without creating a new one,
+     * same as {@link Vector3D#projectInto(int, int, double, double, Vector3D)}
+     *
+     * @param xOrigin
+     * @param yOrigin
+     * @param fov          - camera field of view
+     * @param viewDistance - view distance
+     * @param out          - vector to store the result in, can be this vector
+     * @return out
+     */
+    public Vector4D projectInto(int xOrigin, int yOrigin, double fov, double viewDistance, Vector4D out) {
+        double factor = fov / (viewDistance + this.z);
+
+        return out.set(this.x * factor + xOrigin, this.y * factor + yOrigin, this.z, this.w);
+    }
+
+    /**
+     * multiply this vector by a matrix
+     *
+     * @param matrix - 4x4 matrix, column-major, see {@link Matrix4}
+     * @return transformed vector
+     */
+    public Vector4D transform(float[] matrix) {
+        return this.transformInto(matrix, new Vector4D());
+    }
+
+    /**
+     * multiply this vector by a matrix without creating a new vector
+     *
+     * @param matrix - 4x4 matrix, column-major, see {@link Matrix4}
+     * @param out    - vector to store the result in, can be this vector
+     * @return out
+     */
+    public Vector4D transformInto(float[] matrix, Vector4D out) {
+        double x = matrix[0] * this.x + matrix[4] * this.y + matrix[8] * this.z + matrix[12] * this.w;
+        double y = matrix[1] * this.x + matrix[5] * this.y + matrix[9] * this.z + matrix[13] * this.w;
+        double z = matrix[2] * this.x + matrix[6] * this.y + matrix[10] * this.z + matrix[14] * this.w;
+        double w = matrix[3] * this.x + matrix[7] * this.y + matrix[11] * this.z + matrix[15] * this.w;
+
+        return out.set(x, y, z, w);
+    }
+
+    /**
+     * Homogeneous clip coordinates of a rotated point, without creating a new vector.
+     * X and Y are scaled by the field of view and W is the depth the point is divided
+     * by - the same numbers {@link #projectInto(int, int, double, double, Vector4D)}
+     * uses, but without the division, so points behind the camera can be clipped
+     * before they are projected. See {@link ClipSpace}.
+     *
+     * @param fov          - camera field of view
+     * @param viewDistance - view distance
+     * @param out          - vector to store the result in, can be this vector
+     * @return out
+     */
+    public Vector4D toClipInto(double fov, double viewDistance, Vector4D out) {
+        return out.set(this.x * fov, this.y * fov, this.z, viewDistance + this.z);
+    }
+
+    /**
+     * perspective divide of a clip space vector, W must be greater than 0
+     *
+     * @param xOrigin - screen X of the origin
+     * @param yOrigin - screen Y of the origin
+     * @param out     - vector to store screen X, screen Y and depth in
+     * @return out
+     */
+    public Vector3D divideInto(double xOrigin, double yOrigin, Vector3D out) {
+        return out.set(this.x / this.w + xOrigin, this.y / this.w + yOrigin, this.z);
+    }
+
+    /**
+     * linear interpolation between this vector and that vector, all four components
+     *
+     * @param that - vector at t = 1
+     * @param t    - interpolation factor from 0 to 1
+     * @param out  - vector to store the result in, can be this vector
+     * @return out
+     */
+    public Vector4D lerpInto(Vector4D that, double t, Vector4D out) {
+        return out.set(this.x + (that.x - this.x) * t,
+                this.y + (that.y - this.y) * t,
+                this.z + (that.z - this.z) * t,
+                this.w + (that.w - this.w) * t);
+    }
+
+    /**
+     * sum of two vectors
+     *
+     * @param toVector - vector to add to
+     * @return assembled vector
+     */
+    public Vector4D addTo(Vector4D toVector) {
+        return new Vector4D(toVector.x + this.x, toVector.y + this.y, toVector.z + this.z, toVector.w + this.w);
+    }
+
+    /**
+     * multiplies two vectors
+     *
+     * @param second vector
+     * @return resulting vector
+     */
+    public Vector4D multiply(Vector4D second) {
+        return new Vector4D(second.x * this.x, second.y * this.y, second.z * this.z, second.w * this.w);
+    }
+
+    /**
+     * get the angle between two vectors
+     *
+     * @param toVector - second vector
+     * @return angle in radians
+     */
+    public float angle(Vector4D toVector) {
+        Vector4D a = this.normalize();
+        Vector4D b = toVector.normalize();
+
+        float cosine = a.dot(b);
+        if (cosine > 1.0f) {
+            return 0f;
+        } else {
+            return (float) Math.acos(cosine);
+        }
+    }
+
+    /**
+     * Calculate the cross-product. THIS is the left vector.
+     * returnValue.x = left.y * right.z - left.z * right.y;
+     * returnValue.y = left.z * right.x - left.x * right.z;
+     * returnValue.z = left.x * right.y - left.y * right.x;
+     * returnValue.w = 0;
+     *
+     * @param rightVector - right vector
+     * @return cross-product
+     */
+    public Vector4D cross(Vector4D rightVector) {
+        return this.crossInto(rightVector, new Vector4D());
+    }
+
+    /**
+     * Calculate the cross-product of X, Y and Z components without creating a new vector.
+     * THIS is the left vector. The result is a direction, so W is set to 0.
+     *
+     * @param rightVector - right vector
+     * @param out         - vector to store the result in, can be this or rightVector
+     * @return out
+     */
+    public Vector4D crossInto(Vector4D rightVector, Vector4D out) {
+        double x = this.y * rightVector.z - this.z * rightVector.y;
+        double y = this.z * rightVector.x - this.x * rightVector.z;
+        double z = this.x * rightVector.y - this.y * rightVector.x;
+
+        return out.set(x, y, z, 0);
+    }
+
+    /**
+     * calculate magnitude (length)
+     * magnitude = Math.sqrt(x*x + y*y + z*z)
+     *
+     * @return magnitude (length)
+     */
+    public float magnitude() {
+        return (float) Math.sqrt(this.dot(this));
+    }
+
+    /**
+     * subtract this vector from fromVector
+     *
+     * @param fromVector - vector to subtract from
+     * @return subtracted vector
+     */
+    public Vector4D subtractFrom(Vector4D fromVector) {
+        return new Vector4D(fromVector.x - this.x, fromVector.y - this.y, fromVector.z - this.z, fromVector.w - this.w);
+    }
+
+    /**
+     * subtract this vector from fromVector without creating a new vector
+     *
+     * @param fromVector - vector to subtract from
+     * @param out        - vector to store the result in, can be this or fromVector
+     * @return out
+     */
+    public Vector4D subtractFromInto(Vector4D fromVector, Vector4D out) {
+        return out.set(fromVector.x - this.x, fromVector.y - this.y, fromVector.z - this.z, fromVector.w - this.w);
+    }
+
+    /**
+     * scale the vector
+     *
+     * @param factor - scale factor
+     * @return scaled vector
+     */
+    public Vector4D scale(float factor) {
+        return new Vector4D(this.x * factor, this.y * factor, this.z * factor, this.w * factor);
+    }
+
+    /**
+     * inverse vector components
+     *
+     * @return inverted vector
+     */
+    public Vector4D inverse() {
+        return new Vector4D(1.0f / this.x, 1.0f / this.y, 1.0f / this.z, 1.0f / this.w);
+    }
+
+    /**
+     * divide the vector
+     *
+     * @param factor - division factor
+     * @return divided vector
+     */
+    public Vector4D divideBy(float factor) {
+        return new Vector4D(this.x / factor, this.y / factor, this.z / factor, this.w / factor);
+    }
+
+    /**
+     * calculate vector direction
+     *
+     * @return vector direction
+     */
+    public Vector4D direction() {
+        float magnitude = this.magnitude();
+        if (magnitude == 0.0f)
+            throw new ArithmeticException("zero-vector has no direction");
+        return this.scale(1.0f / magnitude);
+    }
+
+    /**
+     * return inner product with that Vector
+     * dot = x*x + y*y + z*z
+     *
+     * @param that - Vector3D
+     * @return inner product
+     */
+    public float dot(Vector4D that) {
+        float sum = 0.0f;
+
+        sum += (this.x * that.x);
+        sum += (this.y * that.y);
+        sum += (this.z * that.z);
+        sum += (this.w * that.w);
+
+        return sum;
+    }
+
+    /**
+     * Calculate normalized vector. Vector magnitude
+     * must be greater than 0.
+     *
+     * @return normalized vector
+     */
+    public Vector4D normalize() {
+        float magnitude = this.magnitude();
+        if (magnitude == 0.0f)
+            throw new ArithmeticException("zero-vector has no direction");
+        return this.divideBy(magnitude);
+    }
+
+    /**
+     * Normalize this vector without creating a new one. Vector magnitude
+     * must be greater than 0.
+     *
+     * @return this vector
+     */
+    public Vector4D normalizeInPlace() {
+        float magnitude = this.magnitude();
+        if (magnitude == 0.0f)
+            throw new ArithmeticException("zero-vector has no direction");
+        return this.set(this.x / magnitude, this.y / magnitude, this.z / magnitude, this.w / magnitude);
+    }
+
+    /**
+     * Calculate the Euclidean distance between this and toVector
+     *
+     * @param toVector - vector to calculate distance to
+     * @return distance
+     */
+    public float distanceTo(Vector4D toVector) {
+        return this.subtractFrom(toVector).magnitude();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,222 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Packed vertex storage. Model vertices and projected vertices are kept in two
+ * interleaved double arrays (x, y, z, x, y, z, ...) so a whole mesh can be
+ * transformed in one pass by {@link VertexTransformer} without walking objects.
+ * Projected vertices hold screen X, screen Y and the rotated Z (depth). For clipping
+ * the rotated vertices can be kept in homogeneous clip space instead, see
+ * {@link #clip(ClipSpace, Matrix3)}.
+ */
+public class VertexBuffer {
+    /**
+     * number of values per vertex
+     */
+    public static final int STRIDE = 3;
+
+    private double[] mVertices;
+    private double[] mProjected;
+    private double[] mClip;
+    private int[] mOutcodes;
+    private int mCount;
+
+    /**
+     * Construct a new empty vertex buffer
+     *
+     * @param capacity - initial number of vertices
+     */
+    public VertexBuffer(int capacity) {
+        if (capacity < 1) capacity = 1;
+        this.mVertices = new double[capacity * STRIDE];
+        this.mProjected = new double[capacity * STRIDE];
+        this.mClip = new double[capacity * ClipSpace.STRIDE];
+        this.mOutcodes = new int[capacity];
+    }
+
+    /**
+     * add a vertex
+     *
+     * @param x - X component
+     * @param y - Y component
+     * @param z - Z component
+     * @return index of the added vertex
+     */
+    public int add(double x, double y, double z) {
+        this.ensureCapacity(this.mCount + 1);
+        this.set(this.mCount, x, y, z);
+        return this.mCount++;
+    }
+
+    /**
+     * add packed vertices straight from a buffer, for example a memory mapped file
+     *
+     * @param src   - x, y, z for every vertex, read from the current position of the buffer
+     * @param count - number of vertices to add
+     * @return index of the first added vertex
+     */
+    public int addAll(FloatBuffer src, int count) {
+        this.ensureCapacity(this.mCount + count);
+        double[] vertices = this.mVertices;
+        int position = src.position();
+        int start = this.mCount * STRIDE;
+        int end = start + count * STRIDE;
+        for (int i = start; i < end; i++) {
+            vertices[i] = src.get(position++);
+        }
+        src.position(position);
+
+        int first = this.mCount;
+        this.mCount += count;
+        return first;
+    }
+
+    /**
+     * add a vertex
+     *
+     * @param vertex - vertex to add
+     * @return index of the added vertex
+     */
+    public int add(Vector3D vertex) {
+        return this.add(vertex.x, vertex.y, vertex.z);
+    }
+
+    /**
+     * replace a vertex
+     *
+     * @param index - vertex index
+     * @param x     - X component
+     * @param y     - Y component
+     * @param z     - Z component
+     */
+    public void set(int index, double x, double y, double z) {
+        int i = index * STRIDE;
+        this.mVertices[i] = x;
+        this.mVertices[i + 1] = y;
+        this.mVertices[i + 2] = z;
+    }
+
+    /**
+     * remove all vertices, allocated memory is kept
+     */
+    public void clear() {
+        this.mCount = 0;
+    }
+
+    /**
+     * @return number of vertices
+     */
+    public int size() {
+        return this.mCount;
+    }
+
+    /**
+     * @return model vertices - x, y, z for every vertex
+     */
+    public double[] getVertices() {
+        return this.mVertices;
+    }
+
+    /**
+     * @return projected vertices - screen x, screen y and depth for every vertex
+     */
+    public double[] getProjected() {
+        return this.mProjected;
+    }
+
+    /**
+     * @return clip space vertices - x, y, z and w for every vertex
+     */
+    public double[] getClip() {
+        return this.mClip;
+    }
+
+    /**
+     * @return frustum outcodes of the clip space vertices
+     */
+    public int[] getOutcodes() {
+        return this.mOutcodes;
+    }
+
+    /**
+     * copy a model vertex
+     *
+     * @param index - vertex index
+     * @param out   - vector to store the vertex in
+     * @return out
+     */
+    public Vector3D getVertex(int index, Vector3D out) {
+        int i = index * STRIDE;
+        return out.set(this.mVertices[i], this.mVertices[i + 1], this.mVertices[i + 2]);
+    }
+
+    /**
+     * copy a projected vertex
+     *
+     * @param index - vertex index
+     * @param out   - vector to store the vertex in
+     * @return out
+     */
+    public Vector3D getProjected(int index, Vector3D out) {
+        int i = index * STRIDE;
+        return out.set(this.mProjected[i], this.mProjected[i + 1], this.mProjected[i + 2]);
+    }
+
+    /**
+     * Check if a projected face is facing the camera. The normal of the face is the cross
+     * product of (v1 - v0) and (v2 - v0), the face is visible if the dot product of the normal
+     * and the view vector [0, 0, -1] is not negative. Only the Z component of the normal is
+     * needed for that, so nothing is normalized.
+     *
+     * @param i0 - index of the first vertex
+     * @param i1 - index of the second vertex
+     * @param i2 - index of the third vertex
+     * @return face visibility
+     */
+    public boolean isFrontFacing(int i0, int i1, int i2) {
+        double[] p = this.mProjected;
+        int a = i0 * STRIDE;
+        int b = i1 * STRIDE;
+        int c = i2 * STRIDE;
+
+        double ux = p[b] - p[a];
+        double uy = p[b + 1] - p[a + 1];
+        double vx = p[c] - p[a];
+        double vy = p[c + 1] - p[a + 1];
+
+        return ux * vy - uy * vx <= 0;
+    }
+
+    /**
+     * rotate and project all vertices
+     *
+     * @param transformer - transformer with the current viewport
+     * @param rotation    - rotation matrix
+     */
+    public void project(VertexTransformer transformer, Matrix3 rotation) {
+        transformer.transform(rotation, this.mVertices, this.mProjected, this.mCount);
+    }
+
+    /**
+     * rotate all vertices into clip space, faces are then clipped and divided one by one
+     * with {@link ClipSpace#clipPolygon(double[], int[], int, int, double[])}
+     *
+     * @param clipSpace - clip space with the current viewport
+     * @param rotation  - rotation matrix
+     */
+    public void clip(ClipSpace clipSpace, Matrix3 rotation) {
+        clipSpace.transform(rotation, this.mVertices, this.mClip, this.mOutcodes, 0, this.mCount);
+    }
+
+    private void ensureCapacity(int count) {
+        if (count * STRIDE > this.mVertices.length) {
+            int capacity = Math.max(this.mCount * 2, count);
+            this.mVertices = Arrays.copyOf(this.mVertices, capacity * STRIDE);
+            this.mProjected = Arrays.copyOf(this.mProjected, capacity * STRIDE);
+            this.mClip = Arrays.copyOf(this.mClip, capacity * ClipSpace.STRIDE);
+            this.mOutcodes = Arrays.copyOf(this.mOutcodes, capacity);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Batch transform stage. Rotates, divides by depth and maps to screen a whole
+ * packed vertex array in one loop - the same math as
+ * {@link Vector3D#projectInto(int, int, double, double, Vector3D)}, applied to
+ * {@link VertexBuffer#STRIDE} values per vertex. Large meshes are split between
+ * the threads of a fork-join pool. Packed vertices can be double or float, the
+ * float version moves half the memory for the same mesh.
+ */
+public class VertexTransformer {
+    /**
+     * meshes with fewer vertices are always transformed on the calling thread
+     */
+    public static final int PARALLEL_THRESHOLD = 8192;
+
+    private double mXOrigin;
+    private double mYOrigin;
+    private double mFov;
+    private double mDistance;
+
+    private boolean mParallel = true;
+    private ForkJoinPool mPool;
+
+    /**
+     * set screen mapping parameters
+     *
+     * @param xOrigin  - screen X of the origin
+     * @param yOrigin  - screen Y of the origin
+     * @param fov      - camera field of view
+     * @param distance - view distance
+     */
+    public void setViewport(double xOrigin, double yOrigin, double fov, double distance) {
+        this.mXOrigin = xOrigin;
+        this.mYOrigin = yOrigin;
+        this.mFov = fov;
+        this.mDistance = distance;
+    }
+
+    /**
+     * allow splitting large meshes between several threads, enabled by default
+     *
+     * @param parallel - true to allow fork-join split
+     */
+    public void setParallel(boolean parallel) {
+        this.mParallel = parallel;
+    }
+
+    /**
+     * transform packed vertices
+     *
+     * @param matrix - rotation matrix
+     * @param src    - model vertices: x, y, z for every vertex
+     * @param dst    - projected vertices: screen x, screen y, depth for every vertex
+     * @param count  - number of vertices to transform
+     */
+    public void transform(Matrix3 matrix, double[] src, double[] dst, int count) {
+        if (this.mParallel && count >= PARALLEL_THRESHOLD) {
+            this.getPool().invoke(new TransformTask(matrix, src, dst, null, null, 0, count));
+        } else {
+            this.transformRange(matrix, src, dst, 0, count);
+        }
+    }
+
+    /**
+     * transform packed single precision vertices
+     *
+     * @param matrix - rotation matrix
+     * @param src    - model vertices: x, y, z for every vertex
+     * @param dst    - projected vertices: screen x, screen y, depth for every vertex
+     * @param count  - number of vertices to transform
+     */
+    public void transform(Matrix3 matrix, float[] src, float[] dst, int count) {
+        if (this.mParallel && count >= PARALLEL_THRESHOLD) {
+            this.getPool().invoke(new TransformTask(matrix, null, null, src, dst, 0, count));
+        } else {
+            this.transformRange(matrix, src, dst, 0, count);
+        }
+    }
+
+    /**
+     * transform packed vertices from index from (inclusive) to index to (exclusive)
+     * on the calling thread
+     */
+    public void transformRange(Matrix3 matrix, double[] src, double[] dst, int from, int to) {
+        double m00 = matrix.m00, m01 = matrix.m01, m02 = matrix.m02;
+        double m10 = matrix.m10, m11 = matrix.m11, m12 = matrix.m12;
+        double m20 = matrix.m20, m21 = matrix.m21, m22 = matrix.m22;
+        double xOrigin = this.mXOrigin;
+        double yOrigin = this.mYOrigin;
+        double fov = this.mFov;
+        double distance = this.mDistance;
+
+        int end = to * VertexBuffer.STRIDE;
+        for (int i = from * VertexBuffer.STRIDE; i < end; i += VertexBuffer.STRIDE) {
+            double x = src[i];
+            double y = src[i + 1];
+            double z = src[i + 2];
+
+            double xr = m00 * x + m01 * y + m02 * z;
+            double yr = m10 * x + m11 * y + m12 * z;
+            double zr = m20 * x + m21 * y + m22 * z;
+
+            double factor = fov / (distance + zr);
+            dst[i] = xr * factor + xOrigin;
+            dst[i + 1] = yr * factor + yOrigin;
+            dst[i + 2] = zr;
+        }
+    }
+
+    /**
+     * transform packed single precision vertices from index from (inclusive) to index
+     * to (exclusive) on the calling thread
+     */
+    public void transformRange(Matrix3 matrix, float[] src, float[] dst, int from, int to) {
+        float m00 = (float) matrix.m00, m01 = (float) matrix.m01, m02 = (float) matrix.m02;
+        float m10 = (float) matrix.m10, m11 = (float) matrix.m11, m12 = (float) matrix.m12;
+        float m20 = (float) matrix.m20, m21 = (float) matrix.m21, m22 = (float) matrix.m22;
+        float xOrigin = (float) this.mXOrigin;
+        float yOrigin = (float) this.mYOrigin;
+        float fov = (float) this.mFov;
+        float distance = (float) this.mDistance;
+
+        int end = to * VertexBuffer.STRIDE;
+        for (int i = from * VertexBuffer.STRIDE; i < end; i += VertexBuffer.STRIDE) {
+            float x = src[i];
+            float y = src[i + 1];
+            float z = src[i + 2];
+
+            float xr = m00 * x + m01 * y + m02 * z;
+            float yr = m10 * x + m11 * y + m12 * z;
+            float zr = m20 * x + m21 * y + m22 * z;
+
+            float factor = fov / (distance + zr);
+            dst[i] = xr * factor + xOrigin;
+            dst[i + 1] = yr * factor + yOrigin;
+            dst[i + 2] = zr;
+        }
+    }
+
+    /**
+     * stop the worker threads, if any were started
+     */
+    public void shutdown() {
+        if (this.mPool != null) {
+            this.mPool.shutdown();
+            this.mPool = null;
+        }
+    }
+
+    private ForkJoinPool getPool() {
+        // ForkJoinPool.commonPool() requires API 24
+        if (this.mPool == null) {
+            this.mPool = new ForkJoinPool();
+        }
+        return this.mPool;
+    }
+
+    private class TransformTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Matrix3 mMatrix;
+        // either double or float arrays are set
+        private final double[] mSrc;
+        private final double[] mDst;
+        private final float[] mSrcF;
+        private final float[] mDstF;
+        private final int mFrom;
+        private final int mTo;
+
+        TransformTask(Matrix3 matrix, double[] src, double[] dst, float[] srcF, float[] dstF, int from, int to) {
+            this.mMatrix = matrix;
+            this.mSrc = src;
+            this.mDst = dst;
+            this.mSrcF = srcF;
+            this.mDstF = dstF;
+            this.mFrom = from;
+            this.mTo = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.mTo - this.mFrom <= PARALLEL_THRESHOLD) {
+                if (this.mSrc != null) {
+                    transformRange(this.mMatrix, this.mSrc, this.mDst, this.mFrom, this.mTo);
+                } else {
+                    transformRange(this.mMatrix, this.mSrcF, this.mDstF, this.mFrom, this.mTo);
+                }
+            } else {
+                int middle = (this.mFrom + this.mTo) >>> 1;
+                invokeAll(new TransformTask(this.mMatrix, this.mSrc, this.mDst, this.mSrcF, this.mDstF, this.mFrom, middle),
+                        new TransformTask(this.mMatrix, this.mSrc, this.mDst, this.mSrcF, this.mDstF, middle, this.mTo));
+            }
+        }
+    }
+}
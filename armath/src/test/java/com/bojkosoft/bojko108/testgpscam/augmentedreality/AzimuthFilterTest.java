@@ -0,0 +1,105 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AzimuthFilterTest {
+    private static final double DELTA = 1e-9;
+    // 50 events per second
+    private static final long PERIOD = 20000000L;
+
+    @Test
+    public void difference_takesShortWay() throws Exception {
+        assertEquals(2, AzimuthFilterChain.difference(1, 359), DELTA);
+        assertEquals(-2, AzimuthFilterChain.difference(359, 1), DELTA);
+        assertEquals(90, AzimuthFilterChain.difference(90, 0), DELTA);
+        assertEquals(0, AzimuthFilterChain.normalize(360), DELTA);
+        assertEquals(350, AzimuthFilterChain.normalize(-10), DELTA);
+        assertTrue(AzimuthFilterChain.normalize(-1e-20) < 360);
+    }
+
+    @Test
+    public void circularLowPass_averagesAcrossNorth() throws Exception {
+        CircularLowPassFilter filter = new CircularLowPassFilter(0.5);
+
+        assertEquals(359, filter.filter(359, 0), DELTA);
+        assertEquals(0, AzimuthFilterChain.difference(filter.filter(1, PERIOD), 0), DELTA);
+    }
+
+    @Test
+    public void complementary_followsTurnRateAndMeasurement() throws Exception {
+        ComplementaryFilter filter = new ComplementaryFilter(1);
+        filter.filter(350, 0);
+
+        // a measurement 20 degrees away moves the azimuth by dt / (tau + dt), across north
+        double azimuth = filter.filter(10, 1000000000L);
+        assertEquals(0, azimuth, 1e-6);
+
+        // a turn of 30 degrees per second with a measurement that agrees
+        filter.reset();
+        filter.setTurnRate(30);
+        filter.filter(350, 0);
+        assertEquals(5, filter.filter(5, 500000000L), 1e-6);
+    }
+
+    @Test
+    public void kalman_reducesNoiseAroundNorth() throws Exception {
+        Random random = new Random(5);
+        KalmanHeadingFilter filter = new KalmanHeadingFilter(1, 9);
+
+        double rawError = 0;
+        double filteredError = 0;
+        for (int i = 0; i < 2000; i++) {
+            double noise = random.nextGaussian() * 3;
+            double azimuth = filter.filter(AzimuthFilterChain.normalize(noise), i * PERIOD);
+            if (i >= 100) {
+                rawError += noise * noise;
+                double error = AzimuthFilterChain.difference(azimuth, 0);
+                filteredError += error * error;
+            }
+        }
+        assertTrue(filteredError * 10 < rawError);
+        assertTrue(filter.getVariance() < 9);
+    }
+
+    @Test
+    public void hysteresis_dropsJitter() throws Exception {
+        HysteresisGate gate = new HysteresisGate(2);
+
+        assertEquals(359, gate.filter(359, 0), DELTA);
+        assertTrue(Double.isNaN(gate.filter(1, 0)));
+        assertTrue(Double.isNaN(gate.filter(357.5, 0)));
+        assertEquals(2, gate.filter(2, 0), DELTA);
+    }
+
+    @Test
+    public void chain_stopsAtDroppedAzimuth() throws Exception {
+        HysteresisGate first = new HysteresisGate(5);
+        HysteresisGate second = new HysteresisGate(0);
+        AzimuthFilterChain chain = new AzimuthFilterChain(first, second);
+
+        assertEquals(10, chain.filter(10, 0), DELTA);
+        assertTrue(Double.isNaN(chain.filter(12, 0)));
+        // the second gate did not see 12, so 10 is still its last azimuth
+        assertTrue(Double.isNaN(second.filter(10, 0)));
+    }
+
+    @Test
+    public void chain_reportsFewerSteadierUpdates() throws Exception {
+        Random random = new Random(8);
+        AzimuthFilterChain chain = new AzimuthFilterChain(new KalmanHeadingFilter(1, 9), new HysteresisGate(1));
+        HysteresisGate raw = new HysteresisGate(1);
+
+        int rawUpdates = 0;
+        int filteredUpdates = 0;
+        for (int i = 0; i < 1000; i++) {
+            double azimuth = AzimuthFilterChain.normalize(random.nextGaussian() * 3);
+            if (!Double.isNaN(raw.filter(azimuth, i * PERIOD))) rawUpdates++;
+            if (!Double.isNaN(chain.filter(azimuth, i * PERIOD))) filteredUpdates++;
+        }
+        assertTrue(filteredUpdates * 10 < rawUpdates);
+    }
+}
@@ -0,0 +1,181 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ClipSpaceTest {
+    private static final double EPSILON = 1e-9;
+    private static final double FOV = Math.toRadians(90);
+
+    @Test
+    public void vector4D_constructorSetsW() throws Exception {
+        assertEquals(4, new Vector4D(1, 2, 3, 4).w, 0);
+        assertEquals(4, new Vector4D(new double[]{1, 2, 3, 4}).w, 0);
+        assertEquals(4f, new Vector4F(1, 2, 3, 4).w, 0);
+    }
+
+    @Test
+    public void clipPolygon_visibleFaceMatchesProjection() throws Exception {
+        VertexBuffer buffer = new VertexBuffer(4);
+        buffer.add(-1, 1, 1);
+        buffer.add(1, 1, 1);
+        buffer.add(1, -1, 1);
+        buffer.add(-1, -1, 1);
+        Matrix3 rotation = new Matrix3().setRotation(-10, 0, 20);
+
+        VertexTransformer transformer = new VertexTransformer();
+        transformer.setViewport(200, 150, FOV, 3);
+        buffer.project(transformer, rotation);
+
+        ClipSpace clipSpace = new ClipSpace();
+        clipSpace.setViewport(200, 150, FOV, 3);
+        buffer.clip(clipSpace, rotation);
+
+        double[] screen = new double[ClipSpace.getClippedSize(4) * VertexBuffer.STRIDE];
+        assertEquals(4, clipSpace.clipPolygon(buffer.getClip(), buffer.getOutcodes(), 0, 4, screen));
+
+        double[] projected = buffer.getProjected();
+        for (int i = 0; i < 4 * VertexBuffer.STRIDE; i++) {
+            assertEquals(projected[i], screen[i], EPSILON);
+        }
+        assertEquals(buffer.isFrontFacing(0, 1, 2), ClipSpace.isFrontFacing(screen, 4));
+    }
+
+    @Test
+    public void clipPolygon_rejectsFaceBehindCamera() throws Exception {
+        VertexBuffer buffer = new VertexBuffer(4);
+        buffer.add(-1, 1, -2);
+        buffer.add(1, 1, -2);
+        buffer.add(1, -1, -2);
+        buffer.add(-1, -1, -2);
+
+        ClipSpace clipSpace = new ClipSpace();
+        clipSpace.setViewport(200, 150, FOV, 1);
+        buffer.clip(clipSpace, new Matrix3());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue((buffer.getOutcodes()[i] & ClipSpace.NEAR) != 0);
+        }
+        assertEquals(0, clipSpace.clipPolygon(buffer.getClip(), buffer.getOutcodes(), 0, 4, new double[ClipSpace.getClippedSize(4) * VertexBuffer.STRIDE]));
+    }
+
+    @Test
+    public void clipPolygon_rejectsFaceOutsideOfView() throws Exception {
+        VertexBuffer buffer = new VertexBuffer(3);
+        buffer.add(600, 0, 1);
+        buffer.add(620, 1, 1);
+        buffer.add(610, -1, 1);
+
+        ClipSpace clipSpace = new ClipSpace();
+        clipSpace.setViewport(200, 150, FOV, 1);
+        buffer.clip(clipSpace, new Matrix3());
+
+        assertEquals(0, clipSpace.clipPolygon(buffer.getClip(), buffer.getOutcodes(), 0, 3, new double[ClipSpace.getClippedSize(3) * VertexBuffer.STRIDE]));
+    }
+
+    @Test
+    public void clipPolygon_clipsFaceCrossingNearPlane() throws Exception {
+        // a floor quad going from in front of the camera to behind it
+        VertexBuffer buffer = new VertexBuffer(4);
+        buffer.add(-1, 1, 2);
+        buffer.add(1, 1, 2);
+        buffer.add(1, 1, -2);
+        buffer.add(-1, 1, -2);
+
+        ClipSpace clipSpace = new ClipSpace();
+        clipSpace.setViewport(200, 150, FOV, 1);
+        buffer.clip(clipSpace, new Matrix3());
+
+        double[] screen = new double[ClipSpace.getClippedSize(4) * VertexBuffer.STRIDE];
+        int count = clipSpace.clipPolygon(buffer.getClip(), buffer.getOutcodes(), 0, 4, screen);
+        assertEquals(4, count);
+
+        double near = clipSpace.getNear();
+        double limit = FOV / near + 200;
+        for (int i = 0; i < count * VertexBuffer.STRIDE; i += VertexBuffer.STRIDE) {
+            assertTrue(Math.abs(screen[i]) <= limit);
+            assertTrue(Math.abs(screen[i + 1]) <= limit);
+            // every vertex is in front of the near plane
+            assertTrue(screen[i + 2] + 1 >= near - EPSILON);
+        }
+        // the two new vertices are on the near plane: w = distance + z = near
+        assertEquals(near - 1, screen[2 * VertexBuffer.STRIDE + 2], EPSILON);
+        assertEquals(near - 1, screen[3 * VertexBuffer.STRIDE + 2], EPSILON);
+    }
+
+    @Test
+    public void vector4D_clipAndDivideMatchesProjection() throws Exception {
+        Vector3D projected = new Vector3D(0.5, -0.25, 2).projectInto(200, 150, FOV, 3, new Vector3D());
+        Vector3D divided = new Vector4D(0.5, -0.25, 2, 1).toClipInto(FOV, 3, new Vector4D()).divideInto(200, 150, new Vector3D());
+
+        assertEquals(projected.x, divided.x, EPSILON);
+        assertEquals(projected.y, divided.y, EPSILON);
+        assertEquals(projected.z, divided.z, EPSILON);
+    }
+
+    @Test
+    public void clipPolygon_concaveFaceGainsVertexPerRun() throws Exception {
+        // a floor comb with two spikes behind the camera
+        VertexBuffer buffer = new VertexBuffer(8);
+        buffer.add(-3, 1, 3);
+        buffer.add(3, 1, 3);
+        buffer.add(3, 1, 2);
+        buffer.add(2, 1, -2);
+        buffer.add(1, 1, 2);
+        buffer.add(-1, 1, 2);
+        buffer.add(-2, 1, -2);
+        buffer.add(-3, 1, 2);
+
+        ClipSpace clipSpace = new ClipSpace();
+        clipSpace.setViewport(200, 150, FOV, 1);
+        buffer.clip(clipSpace, new Matrix3());
+
+        // both spikes are replaced by two vertices, one more than a convex face can gain
+        double[] screen = new double[ClipSpace.getClippedSize(8) * VertexBuffer.STRIDE];
+        assertEquals(10, clipSpace.clipPolygon(buffer.getClip(), buffer.getOutcodes(), 0, 8, screen));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void clipPolygon_rejectsTooSmallScreen() throws Exception {
+        VertexBuffer buffer = new VertexBuffer(4);
+        buffer.add(-1, 1, 2);
+        buffer.add(1, 1, 2);
+        buffer.add(1, 1, -2);
+        buffer.add(-1, 1, -2);
+
+        ClipSpace clipSpace = new ClipSpace();
+        clipSpace.setViewport(200, 150, FOV, 1);
+        buffer.clip(clipSpace, new Matrix3());
+
+        clipSpace.clipPolygon(buffer.getClip(), buffer.getOutcodes(), 0, 4, new double[5 * VertexBuffer.STRIDE]);
+    }
+
+    @Test
+    public void transform_parallelMatchesSequential() throws Exception {
+        // an odd range, so the halves differ in size and the first vertex is not 0
+        int from = 5;
+        int to = from + ClipSpace.PARALLEL_THRESHOLD * 4 + 17;
+        Random random = new Random(42);
+        double[] src = new double[to * VertexBuffer.STRIDE];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = random.nextDouble() * 4 - 2;
+        }
+        double[] sequential = new double[to * ClipSpace.STRIDE];
+        double[] parallel = new double[sequential.length];
+        int[] sequentialCodes = new int[to];
+        int[] parallelCodes = new int[to];
+        Matrix3 rotation = new Matrix3().setRotation(30, 60, 90);
+
+        ClipSpace clipSpace = new ClipSpace();
+        clipSpace.setViewport(100, 100, FOV, 1);
+        clipSpace.transformRange(rotation, src, sequential, sequentialCodes, from, to);
+        clipSpace.transform(rotation, src, parallel, parallelCodes, from, to);
+        clipSpace.shutdown();
+
+        assertArrayEquals(sequential, parallel, 0);
+        assertArrayEquals(sequentialCodes, parallelCodes);
+    }
+}
@@ -0,0 +1,152 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CompassProcessorTest {
+    private static final double DELTA = 1e-3;
+
+    // rotation vector of a rotation by angle degrees about an axis
+    private static float[] rotationVector(double angle, double x, double y, double z) {
+        double half = Math.toRadians(angle) / 2;
+        double sin = Math.sin(half);
+        return new float[]{(float) (x * sin), (float) (y * sin), (float) (z * sin), (float) Math.cos(half)};
+    }
+
+    @Test
+    public void process_flatDevice() throws Exception {
+        CompassProcessor processor = new CompassProcessor();
+        processor.setDeclination(0);
+
+        // turned 30 degrees to the left from north
+        assertTrue(processor.process(rotationVector(30, 0, 0, 1), 0));
+        assertEquals(330, processor.getAzimuth(), DELTA);
+        assertEquals(0, processor.getPitch(), DELTA);
+        assertEquals(0, processor.getRoll(), DELTA);
+    }
+
+    @Test
+    public void process_uprightDeviceUsesCameraDirection() throws Exception {
+        CompassProcessor processor = new CompassProcessor();
+        processor.setDeclination(5);
+
+        // screen to the user, camera to the north
+        assertTrue(processor.process(rotationVector(90, 1, 0, 0), 0));
+        assertEquals(5, processor.getAzimuth(), DELTA);
+        // asin of a float close to 1 is not very precise
+        assertEquals(-90, processor.getPitch(), 0.1);
+
+        // turned to the east
+        float[] upright = rotationVector(90, 1, 0, 0);
+        float[] east = rotationVector(-90, 0, 0, 1);
+        assertTrue(processor.process(multiply(east, upright), 0));
+        assertEquals(95, processor.getAzimuth(), DELTA);
+    }
+
+    @Test
+    public void process_reportsOnlyChangesLargerThanStep() throws Exception {
+        CompassProcessor processor = new CompassProcessor();
+        processor.setAzimuthStep(2);
+
+        assertTrue(processor.process(rotationVector(-10, 0, 0, 1), 0));
+        assertFalse(processor.process(rotationVector(-11, 0, 0, 1), 0));
+        assertEquals(15, processor.getAzimuth(), DELTA);
+        assertTrue(processor.process(rotationVector(-13, 0, 0, 1), 0));
+        assertEquals(18, processor.getAzimuth(), DELTA);
+    }
+
+    @Test
+    public void process_stepWrapsAroundNorth() throws Exception {
+        CompassProcessor processor = new CompassProcessor();
+        processor.setDeclination(0);
+        processor.setAzimuthStep(5);
+
+        assertTrue(processor.process(rotationVector(1, 0, 0, 1), 0));
+        assertEquals(359, processor.getAzimuth(), DELTA);
+        // 2 degrees to the east, not 358 to the west
+        assertFalse(processor.process(rotationVector(-1, 0, 0, 1), 0));
+        assertTrue(processor.process(rotationVector(-6, 0, 0, 1), 0));
+        assertEquals(6, processor.getAzimuth(), DELTA);
+    }
+
+    @Test
+    public void process_declinationKeepsAzimuthBelow360() throws Exception {
+        CompassProcessor processor = new CompassProcessor();
+        processor.setDeclination(5);
+
+        assertTrue(processor.process(rotationVector(2, 0, 0, 1), 0));
+        assertEquals(3, processor.getAzimuth(), DELTA);
+    }
+
+    @Test
+    public void remapCoordinateSystem_displayRotations() throws Exception {
+        float[] r = new float[9];
+        CompassProcessor.getRotationMatrixFromVector(r, rotationVector(90, 0, 0, 1));
+        float[] out = new float[9];
+
+        // the remapped matrix of a device rotated by 90 degrees, on a display rotated by 90 degrees, is the identity
+        CompassProcessor.remapCoordinateSystem(r, CompassProcessor.AXIS_Y, CompassProcessor.AXIS_MINUS_X, out);
+        float[] orientation = new float[3];
+        CompassProcessor.getOrientation(out, orientation);
+        assertEquals(0, orientation[0], DELTA);
+        for (int i = 0; i < 9; i++) {
+            assertEquals(i % 4 == 0 ? 1 : 0, out[i], DELTA);
+        }
+    }
+
+    @Test
+    public void process_allocatesNothing() throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+        Assume.assumeTrue(bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled());
+
+        // fake sensor, events reuse their values array like SensorEvent does
+        Random random = new Random(3);
+        float[][] events = new float[64][];
+        for (int i = 0; i < events.length; i++) {
+            double x = random.nextGaussian(), y = random.nextGaussian(), z = random.nextGaussian();
+            double norm = Math.sqrt(x * x + y * y + z * z);
+            events[i] = rotationVector(random.nextDouble() * 360, x / norm, y / norm, z / norm);
+        }
+        CompassProcessor processor = new CompassProcessor();
+        processor.setAzimuthStep(1);
+        processor.setAzimuthFilter(new AzimuthFilterChain(new KalmanHeadingFilter(50, 4),
+                new ComplementaryFilter(0.2), new CircularLowPassFilter(0.5), new HysteresisGate(0.5)));
+
+        int rounds = 20000;
+        int reported = 0;
+        // warm up, let the JIT compile process
+        for (int i = 0; i < rounds; i++) {
+            processor.setDisplayRotation(i & 3);
+            if (processor.process(events[i % events.length], i * 20000000L)) reported++;
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = bean.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < rounds; i++) {
+            processor.setDisplayRotation(i & 3);
+            if (processor.process(events[i % events.length], i * 20000000L)) reported++;
+        }
+        long allocated = bean.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue(reported > 0);
+        // less than one byte per event - nothing but the measurement itself
+        assertTrue("allocated " + allocated + " bytes", allocated < rounds);
+    }
+
+    // quaternion product a * b of rotation vectors with w
+    private static float[] multiply(float[] a, float[] b) {
+        return new float[]{
+                a[3] * b[0] + a[0] * b[3] + a[1] * b[2] - a[2] * b[1],
+                a[3] * b[1] - a[0] * b[2] + a[1] * b[3] + a[2] * b[0],
+                a[3] * b[2] + a[0] * b[1] - a[1] * b[0] + a[2] * b[3],
+                a[3] * b[3] - a[0] * b[0] - a[1] * b[1] - a[2] * b[2]};
+    }
+}
@@ -0,0 +1,82 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DirtyRegionTest {
+    private static void assertRegion(DirtyRegion region, int left, int top, int right, int bottom) {
+        assertFalse(region.isEmpty());
+        assertEquals(left, region.getLeft());
+        assertEquals(top, region.getTop());
+        assertEquals(right, region.getRight());
+        assertEquals(bottom, region.getBottom());
+    }
+
+    @Test
+    public void update_emptyLastFrameCoversNewBounds() throws Exception {
+        DirtyRegion region = new DirtyRegion();
+
+        assertTrue(region.update(true, 10.5, 20.2, 30.7, 40));
+        // whole pixels and one more for anti-aliasing
+        assertRegion(region, 9, 19, 32, 41);
+    }
+
+    @Test
+    public void update_unionOfLastAndNewBounds() throws Exception {
+        DirtyRegion region = new DirtyRegion();
+        region.update(true, 10, 10, 20, 20);
+
+        assertTrue(region.update(true, 50, 5, 60, 15));
+        assertRegion(region, 9, 4, 61, 21);
+        // the last frame is the one before, not the union
+        assertTrue(region.update(true, 50, 5, 60, 15));
+        assertRegion(region, 49, 4, 61, 16);
+    }
+
+    @Test
+    public void update_allFacesCulled() throws Exception {
+        DirtyRegion region = new DirtyRegion();
+
+        // nothing visible, nothing was visible
+        assertFalse(region.update(false, 0, 0, 0, 0));
+        assertTrue(region.isEmpty());
+
+        region.update(true, 10, 10, 20, 20);
+        // the faces disappeared, their old area is cleared
+        assertTrue(region.update(false, 0, 0, 0, 0));
+        assertRegion(region, 9, 9, 21, 21);
+        assertFalse(region.update(false, 0, 0, 0, 0));
+    }
+
+    @Test
+    public void reset_forgetsLastFrame() throws Exception {
+        DirtyRegion region = new DirtyRegion();
+        region.update(true, 10, 10, 20, 20);
+        region.reset();
+
+        assertTrue(region.isEmpty());
+        assertTrue(region.update(true, 100, 100, 110, 110));
+        assertRegion(region, 99, 99, 111, 111);
+    }
+
+    @Test
+    public void hasMoved_ignoresSubPixelMovement() throws Exception {
+        double[] last = new double[]{0, 0, 1, 10, 0, 1, 10, 10, 1};
+        double[] screen = last.clone();
+        double epsilon = MeshProjector.CHANGE_EPSILON;
+
+        assertFalse(DirtyRegion.hasMoved(screen, last, 0, 3, epsilon));
+        screen[3] += epsilon;
+        assertFalse(DirtyRegion.hasMoved(screen, last, 0, 3, epsilon));
+        screen[7] -= epsilon * 1.01;
+        assertTrue(DirtyRegion.hasMoved(screen, last, 0, 3, epsilon));
+        // only the vertices of the polygon are compared
+        assertFalse(DirtyRegion.hasMoved(screen, last, 0, 2, epsilon));
+
+        // the depth is not a movement on the screen
+        screen = last.clone();
+        screen[2] = 100;
+        assertFalse(DirtyRegion.hasMoved(screen, last, 0, 3, epsilon));
+    }
+}
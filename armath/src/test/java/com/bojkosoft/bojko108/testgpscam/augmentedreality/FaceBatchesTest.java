@@ -0,0 +1,74 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class FaceBatchesTest {
+    private static final double[] TRIANGLE = new double[]{0, 0, 0, 10, 0, 0, 0, 10, 0};
+
+    private static ProjectedFrame createFrame(int[] colors, boolean[] visible, int[] order) {
+        int[] capacities = new int[colors.length];
+        for (int i = 0; i < capacities.length; i++) {
+            capacities[i] = 3;
+        }
+        ProjectedFrame frame = new ProjectedFrame(capacities);
+        for (int face = 0; face < colors.length; face++) {
+            frame.setFace(face, TRIANGLE, 3, visible[face]);
+            frame.setColor(face, colors[face]);
+        }
+        frame.setOrder(order);
+        return frame;
+    }
+
+    @Test
+    public void update_groupsNeighbouringFacesOfOneColor() throws Exception {
+        ProjectedFrame frame = createFrame(
+                new int[]{1, 2, 1, 1, 2},
+                new boolean[]{true, true, true, false, true},
+                new int[]{0, 2, 3, 1, 4});
+        FaceBatches batches = new FaceBatches();
+
+        assertTrue(batches.update(frame));
+        // 0 and 2 are next to each other, 3 is hidden, 1 and 4 have the same color
+        assertEquals(2, batches.getBatchCount());
+        assertEquals(1, batches.getColor(0));
+        assertEquals(2, batches.getColor(1));
+        assertEquals(0, batches.getBatchStart(0));
+        assertEquals(2, batches.getBatchEnd(0));
+        assertEquals(4, batches.getBatchEnd(1));
+        assertArrayEquals(new int[]{0, 2, 1, 4}, Arrays.copyOf(batches.getFaces(), 4));
+    }
+
+    @Test
+    public void update_keepsOrderOfDifferentColors() throws Exception {
+        ProjectedFrame frame = createFrame(
+                new int[]{1, 2, 1},
+                new boolean[]{true, true, true},
+                new int[]{0, 1, 2});
+        FaceBatches batches = new FaceBatches();
+        batches.update(frame);
+
+        // face 1 is between faces 0 and 2, they can not be drawn together
+        assertEquals(3, batches.getBatchCount());
+    }
+
+    @Test
+    public void update_buildsOncePerPublishedFrame() throws Exception {
+        ProjectedFrame frame = createFrame(new int[]{1}, new boolean[]{true}, new int[]{0});
+        FaceBatches batches = new FaceBatches();
+
+        assertTrue(batches.update(frame));
+        assertFalse(batches.update(frame));
+        assertFalse(batches.update(frame));
+        assertEquals(1, batches.getBuildCount());
+
+        frame.setSequence(frame.getSequence() + 1);
+        assertTrue(batches.update(frame));
+        // another frame with the same sequence
+        assertTrue(batches.update(createFrame(new int[]{1}, new boolean[]{true}, new int[]{0})));
+        assertEquals(3, batches.getBuildCount());
+    }
+}
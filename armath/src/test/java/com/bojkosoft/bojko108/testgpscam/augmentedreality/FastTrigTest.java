@@ -0,0 +1,62 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FastTrigTest {
+
+    @Test
+    public void wholeDegrees_areExact() throws Exception {
+        for (int degrees = 0; degrees < 360; degrees++) {
+            double rad = degrees * Math.PI / 180;
+            assertEquals(Math.sin(rad), FastTrig.sin(degrees), 0);
+            assertEquals(Math.cos(rad), FastTrig.cos(degrees), 0);
+        }
+    }
+
+    @Test
+    public void wholeDegrees_wrapAround() throws Exception {
+        for (int degrees = -1080; degrees <= 1080; degrees++) {
+            double rad = degrees * Math.PI / 180;
+            assertEquals(Math.sin(rad), FastTrig.sin(degrees), 1e-13);
+            assertEquals(Math.cos(rad), FastTrig.cos(degrees), 1e-13);
+        }
+    }
+
+    @Test
+    public void fractionalDegrees_withinMaxError() throws Exception {
+        double maxError = 0;
+        for (double degrees = -720; degrees <= 720; degrees += 0.00731) {
+            maxError = Math.max(maxError, error(degrees));
+        }
+
+        Random random = new Random(7);
+        for (int i = 0; i < 100000; i++) {
+            maxError = Math.max(maxError, error((random.nextDouble() * 2 - 1) * 1e6));
+        }
+
+        assertTrue("max error " + maxError, maxError <= FastTrig.MAX_ERROR);
+    }
+
+    @Test
+    public void floatDegrees_withinMaxError() throws Exception {
+        for (float degrees = -360f; degrees <= 360f; degrees += 0.013f) {
+            assertTrue(error(degrees) <= FastTrig.MAX_ERROR);
+        }
+    }
+
+    @Test
+    public void invalidAngles_giveNaN() throws Exception {
+        assertTrue(Double.isNaN(FastTrig.sin(Double.NaN)));
+        assertTrue(Double.isNaN(FastTrig.cos(Double.POSITIVE_INFINITY)));
+        assertTrue(Double.isNaN(FastTrig.sin(Double.NEGATIVE_INFINITY)));
+    }
+
+    private static double error(double degrees) {
+        double rad = Math.toRadians(degrees);
+        return Math.max(Math.abs(Math.sin(rad) - FastTrig.sin(degrees)), Math.abs(Math.cos(rad) - FastTrig.cos(degrees)));
+    }
+}
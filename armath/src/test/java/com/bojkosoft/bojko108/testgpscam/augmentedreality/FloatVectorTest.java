@@ -0,0 +1,130 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Vector3F and Vector4F give the results of Vector3D and Vector4D within float precision.
+ */
+public class FloatVectorTest {
+    // relative to the magnitude of the result - three chained rotations of values up to 2
+    // lose a few bits to cancellation in float
+    private static final double EPSILON = 1e-4;
+    private static final int ROUNDS = 1000;
+
+    private static void assertClose(double expected, double actual) {
+        assertEquals(expected, actual, EPSILON * Math.max(1, Math.abs(expected)));
+    }
+
+    private static void assertClose(Vector3D expected, Vector3F actual) {
+        assertClose(expected.x, actual.x);
+        assertClose(expected.y, actual.y);
+        assertClose(expected.z, actual.z);
+    }
+
+    private static void assertClose(Vector4D expected, Vector4F actual) {
+        assertClose(expected.x, actual.x);
+        assertClose(expected.y, actual.y);
+        assertClose(expected.z, actual.z);
+        assertClose(expected.w, actual.w);
+    }
+
+    private static float next(Random random) {
+        return random.nextFloat() * 4 - 2;
+    }
+
+    @Test
+    public void vector3F_matchesVector3D() throws Exception {
+        Random random = new Random(7);
+        Matrix3 rotation = new Matrix3();
+        float[] projection = new float[16];
+        Matrix4.perspective(projection, 0, 90, 1f, 0.01f, 100f);
+
+        for (int n = 0; n < ROUNDS; n++) {
+            Vector3F a = new Vector3F(next(random), next(random), next(random));
+            Vector3F b = new Vector3F(next(random), next(random), next(random));
+            Vector3D ad = new Vector3D(a.x, a.y, a.z);
+            Vector3D bd = new Vector3D(b.x, b.y, b.z);
+            float rX = random.nextFloat() * 360;
+            float rY = random.nextFloat() * 360;
+            float rZ = random.nextFloat() * 360;
+            float factor = next(random);
+
+            assertClose(ad.rotateX(rX), a.rotateX(rX));
+            assertClose(ad.rotateY(rY), a.rotateY(rY));
+            assertClose(ad.rotateZ(rZ), a.rotateZ(rZ));
+            assertClose(ad.rotateInto(rX, rY, rZ, new Vector3D()), a.rotateInto(rX, rY, rZ, new Vector3F()));
+            assertClose(rotation.setRotation(rX, rY, rZ).transform(ad, new Vector3D()), rotation.transform(a, new Vector3F()));
+            // the view distance keeps viewDistance + z away from 0
+            assertClose(ad.project(200, 100, 500, 3), a.project(200, 100, 500f, 3f));
+            assertClose(ad.projectInto(200, 100, 500, 3, new Vector3D()), a.projectInto(200, 100, 500f, 3f, new Vector3F()));
+            assertClose(ad.addTo(bd), a.addTo(b));
+            assertClose(ad.subtractFrom(bd), a.subtractFrom(b));
+            assertClose(ad.multiply(bd), a.multiply(b));
+            assertClose(ad.cross(bd), a.cross(b));
+            assertClose(ad.scale(factor), a.scale(factor));
+            assertClose(ad.divideBy(factor), a.divideBy(factor));
+            assertClose(ad.inverse(), a.inverse());
+            assertClose(ad.normalize(), a.normalize());
+            assertClose(ad.direction(), a.direction());
+            assertClose(ad.dot(bd), a.dot(b));
+            assertClose(ad.magnitude(), a.magnitude());
+            assertClose(ad.distanceTo(bd), a.distanceTo(b));
+            assertClose(ad.angle(bd), a.angle(b));
+
+            // points in front of the camera
+            Vector3F front = new Vector3F(a.x, a.y, a.z - 5);
+            assertClose(new Vector3D(front.x, front.y, front.z).project(projection), front.project(projection));
+        }
+    }
+
+    @Test
+    public void vector4F_matchesVector4D() throws Exception {
+        Random random = new Random(9);
+        float[] matrix = new float[16];
+        Matrix4.perspective(matrix, 0, 70, 0.5f, 0.1f, 50f);
+
+        for (int n = 0; n < ROUNDS; n++) {
+            Vector4F a = new Vector4F(next(random), next(random), next(random), 1);
+            Vector4F b = new Vector4F(next(random), next(random), next(random), 1);
+            Vector4D ad = new Vector4D(a.x, a.y, a.z, a.w);
+            Vector4D bd = new Vector4D(b.x, b.y, b.z, b.w);
+            float rX = random.nextFloat() * 360;
+            float rY = random.nextFloat() * 360;
+            float rZ = random.nextFloat() * 360;
+            float t = random.nextFloat();
+            float factor = next(random);
+
+            assertClose(ad.rotateInto(rX, rY, rZ, new Vector4D()), a.rotateInto(rX, rY, rZ, new Vector4F()));
+            assertClose(ad.projectInto(200, 100, 500, 3, new Vector4D()), a.projectInto(200, 100, 500f, 3f, new Vector4F()));
+            assertClose(ad.transform(matrix), a.transform(matrix));
+            assertClose(ad.transformInto(matrix, new Vector4D()), a.transformInto(matrix, new Vector4F()));
+            assertClose(ad.lerpInto(bd, t, new Vector4D()), a.lerpInto(b, t, new Vector4F()));
+
+            Vector4D clip = ad.toClipInto(500, 3, new Vector4D());
+            Vector4F clipF = a.toClipInto(500f, 3f, new Vector4F());
+            assertClose(clip, clipF);
+            assertClose(clip.divideInto(200, 100, new Vector3D()), clipF.divideInto(200f, 100f, new Vector3F()));
+
+            assertClose(ad.addTo(bd), a.addTo(b));
+            assertClose(ad.subtractFrom(bd), a.subtractFrom(b));
+            assertClose(ad.multiply(bd), a.multiply(b));
+            assertClose(ad.cross(bd), a.cross(b));
+            // a cross-product is a direction
+            assertEquals(0, ad.cross(bd).w, 0);
+            assertEquals(0, a.cross(b).w, 0);
+            assertClose(ad.scale(factor), a.scale(factor));
+            assertClose(ad.divideBy(factor), a.divideBy(factor));
+            assertClose(ad.inverse(), a.inverse());
+            assertClose(ad.normalize(), a.normalize());
+            assertClose(ad.direction(), a.direction());
+            assertClose(ad.dot(bd), a.dot(b));
+            assertClose(ad.magnitude(), a.magnitude());
+            assertClose(ad.distanceTo(bd), a.distanceTo(b));
+            assertClose(ad.angle(bd), a.angle(b));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class FrameExchangeTest {
+    private static final int[] CAPACITIES = new int[]{5, 5, 3};
+
+    private static FrameExchange createExchange() {
+        return new FrameExchange(new ProjectedFrame(CAPACITIES), new ProjectedFrame(CAPACITIES), new ProjectedFrame(CAPACITIES));
+    }
+
+    // every value of the frame is set to value
+    private static void fill(ProjectedFrame frame, double value) {
+        double[] screen = new double[5 * VertexBuffer.STRIDE];
+        Arrays.fill(screen, value);
+        for (int face = 0; face < frame.getFaceCount(); face++) {
+            frame.setFace(face, screen, CAPACITIES[face], true);
+        }
+    }
+
+    @Test
+    public void setFace_copiesScreenPoints() throws Exception {
+        ProjectedFrame frame = new ProjectedFrame(CAPACITIES);
+        frame.setFace(1, new double[]{1, 2, 0.5, 3, 4, 0.5, 5, 6, 0.5}, 3, true);
+
+        assertFalse(frame.isVisible(0));
+        assertTrue(frame.isVisible(1));
+        assertEquals(3, frame.getPointCount(1));
+        assertEquals(5 * ProjectedFrame.STRIDE, frame.getOffset(1));
+
+        float[] expected = new float[]{1, 2, 3, 4, 5, 6};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], frame.getPoints()[frame.getOffset(1) + i], 0);
+        }
+    }
+
+    @Test
+    public void getFrontFrame_returnsLatestPublishedFrame() throws Exception {
+        FrameExchange exchange = createExchange();
+        ProjectedFrame initial = exchange.getFrontFrame();
+        assertEquals(0, initial.getSequence());
+
+        fill(exchange.getBackFrame(), 1);
+        exchange.publish();
+        fill(exchange.getBackFrame(), 2);
+        exchange.publish();
+
+        ProjectedFrame front = exchange.getFrontFrame();
+        assertEquals(2, front.getSequence());
+        assertEquals(2, front.getPoints()[0], 0);
+        // nothing new - the same frame again
+        assertSame(front, exchange.getFrontFrame());
+        assertNotSame(front, exchange.getBackFrame());
+    }
+
+    @Test
+    public void getFrontFrame_neverSeesHalfWrittenFrame() throws Exception {
+        final FrameExchange exchange = createExchange();
+        final AtomicBoolean done = new AtomicBoolean();
+
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 1; i <= 200000; i++) {
+                    fill(exchange.getBackFrame(), i);
+                    exchange.publish();
+                }
+                done.set(true);
+            }
+        });
+        writer.start();
+
+        long last = 0;
+        while (!done.get()) {
+            ProjectedFrame frame = exchange.getFrontFrame();
+            assertTrue(frame.getSequence() >= last);
+            last = frame.getSequence();
+
+            float[] points = frame.getPoints();
+            for (int i = 0; i < points.length; i++) {
+                assertEquals(points[0], points[i], 0);
+            }
+        }
+        writer.join();
+
+        assertEquals(200000, exchange.getFrontFrame().getSequence());
+    }
+}
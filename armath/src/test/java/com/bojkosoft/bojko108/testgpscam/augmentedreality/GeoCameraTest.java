@@ -0,0 +1,70 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GeoCameraTest {
+
+    @Test
+    public void rotation_doesNotRebuildProjection() throws Exception {
+        GeoCamera camera = new GeoCamera();
+        camera.setViewport(400, 300);
+        camera.getViewProjectionMatrix();
+        int view = camera.getViewVersion();
+        int projection = camera.getProjectionVersion();
+
+        camera.setOrientation(10, 20, 30);
+        camera.getViewProjectionMatrix();
+
+        assertEquals(view + 1, camera.getViewVersion());
+        assertEquals(projection, camera.getProjectionVersion());
+    }
+
+    @Test
+    public void viewport_doesNotRebuildView() throws Exception {
+        GeoCamera camera = new GeoCamera();
+        camera.getViewProjectionMatrix();
+        int view = camera.getViewVersion();
+        int projection = camera.getProjectionVersion();
+
+        camera.setViewport(640, 480);
+        camera.setFieldOfView(60);
+        camera.getViewProjectionMatrix();
+
+        assertEquals(view, camera.getViewVersion());
+        assertEquals(projection + 1, camera.getProjectionVersion());
+    }
+
+    @Test
+    public void sameValues_doNotRebuild() throws Exception {
+        GeoCamera camera = new GeoCamera();
+        camera.setOrientation(5, 0, 90);
+        camera.setViewport(200, 100);
+        camera.getViewProjectionMatrix();
+        int view = camera.getViewVersion();
+        int projection = camera.getProjectionVersion();
+
+        camera.setOrientation(5, 0, 90);
+        camera.setViewport(200, 100);
+        camera.getViewProjectionMatrix();
+
+        assertEquals(view, camera.getViewVersion());
+        assertEquals(projection, camera.getProjectionVersion());
+    }
+
+    @Test
+    public void projectPoints_mapsAxisToViewportCenter() throws Exception {
+        GeoCamera camera = new GeoCamera();
+        camera.setViewport(400, 300);
+        camera.setDistance(5);
+
+        float[] points = new float[]{0, 0, 0, 1, 0, 0};
+        camera.projectPoints(points, points, 2);
+
+        assertEquals(200f, points[0], 1e-4f);
+        assertEquals(150f, points[1], 1e-4f);
+        assertTrue(points[3] > 200f);
+        assertEquals(150f, points[4], 1e-4f);
+    }
+}
@@ -0,0 +1,92 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class Matrix3Test {
+    private static final double EPSILON = 1e-12;
+
+    // rotate around Z, X and Y - in that order - with Math.sin and Math.cos
+    private static Vector3D rotate(Vector3D vertex, double rX, double rY, double rZ) {
+        double x = vertex.x, y = vertex.y, z = vertex.z;
+        double a = rZ * Math.PI / 180;
+        double xn = x * Math.cos(a) - y * Math.sin(a);
+        y = x * Math.sin(a) + y * Math.cos(a);
+        x = xn;
+        a = rX * Math.PI / 180;
+        double yn = y * Math.cos(a) - z * Math.sin(a);
+        z = y * Math.sin(a) + z * Math.cos(a);
+        y = yn;
+        a = rY * Math.PI / 180;
+        double zn = z * Math.cos(a) - x * Math.sin(a);
+        x = z * Math.sin(a) + x * Math.cos(a);
+        z = zn;
+        return new Vector3D(x, y, z);
+    }
+
+    @Test
+    public void rotation_matchesEulerOrder() throws Exception {
+        Matrix3 matrix = new Matrix3();
+        Vector3D vertex = new Vector3D(-1, 1, 1);
+        Vector3D rotated = new Vector3D();
+
+        // whole degrees are read from the FastTrig table without interpolation
+        for (int rX = -180; rX <= 180; rX += 15) {
+            for (int rY = -180; rY <= 180; rY += 15) {
+                for (int rZ = 0; rZ <= 360; rZ += 15) {
+                    Vector3D expected = rotate(vertex, rX, rY, rZ);
+                    matrix.setRotation(rX, rY, rZ);
+                    matrix.transform(vertex, rotated);
+
+                    assertEquals(expected.x, rotated.x, EPSILON);
+                    assertEquals(expected.y, rotated.y, EPSILON);
+                    assertEquals(expected.z, rotated.z, EPSILON);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void rotation_fractionalAnglesWithinFastTrigError() throws Exception {
+        Matrix3 matrix = new Matrix3();
+        Vector3D vertex = new Vector3D(-1, 1, 1);
+        Vector3D rotated = new Vector3D();
+        // every rotation adds at most MAX_ERROR * (|a| + |b|) <= MAX_ERROR * sqrt(2) * |vertex|
+        double maxError = 3 * Math.sqrt(2) * Math.sqrt(3) * FastTrig.MAX_ERROR;
+
+        for (int rX = -180; rX <= 180; rX += 15) {
+            for (int rY = -180; rY <= 180; rY += 15) {
+                for (int rZ = 0; rZ <= 360; rZ += 15) {
+                    Vector3D expected = rotate(vertex, rX + 0.33, rY - 0.77, rZ + 0.15);
+                    matrix.setRotation(rX + 0.33, rY - 0.77, rZ + 0.15);
+                    matrix.transform(vertex, rotated);
+
+                    assertEquals(expected.x, rotated.x, maxError);
+                    assertEquals(expected.y, rotated.y, maxError);
+                    assertEquals(expected.z, rotated.z, maxError);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void multiply_composesRotations() throws Exception {
+        Matrix3 rX = new Matrix3().setRotation(30, 0, 0);
+        Matrix3 rY = new Matrix3().setRotation(0, 45, 0);
+        Matrix3 rZ = new Matrix3().setRotation(0, 0, 60);
+        Matrix3 composed = new Matrix3().multiply(rY, rX);
+        composed.multiply(composed, rZ);
+        Matrix3 expected = new Matrix3().setRotation(30, 45, 60);
+
+        assertEquals(expected.m00, composed.m00, EPSILON);
+        assertEquals(expected.m01, composed.m01, EPSILON);
+        assertEquals(expected.m02, composed.m02, EPSILON);
+        assertEquals(expected.m10, composed.m10, EPSILON);
+        assertEquals(expected.m11, composed.m11, EPSILON);
+        assertEquals(expected.m12, composed.m12, EPSILON);
+        assertEquals(expected.m20, composed.m20, EPSILON);
+        assertEquals(expected.m21, composed.m21, EPSILON);
+        assertEquals(expected.m22, composed.m22, EPSILON);
+    }
+}
@@ -0,0 +1,112 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class Matrix4Test {
+    private static final float EPSILON = 1e-5f;
+
+    @Test
+    public void invert_givesIdentity() throws Exception {
+        float[] view = new float[16];
+        float[] projection = new float[16];
+        float[] m = new float[16];
+        float[] inverse = new float[16];
+        float[] product = new float[16];
+        float[] identity = new float[16];
+
+        Matrix4.lookAt(view, 0, 1, 2, 3, 0, 0, 0, 0, 1, 0);
+        Matrix4.perspective(projection, 0, 60, 1.5f, 0.1f, 100f);
+        Matrix4.multiply(m, 0, projection, 0, view, 0);
+
+        assertTrue(Matrix4.invert(inverse, 0, m, 0));
+        Matrix4.multiply(product, 0, m, 0, inverse, 0);
+        Matrix4.setIdentity(identity, 0);
+
+        assertArrayEquals(identity, product, EPSILON);
+    }
+
+    @Test
+    public void invert_singularMatrix() throws Exception {
+        float[] m = new float[16];
+        float[] inverse = new float[16];
+
+        assertFalse(Matrix4.invert(inverse, 0, m, 0));
+    }
+
+    @Test
+    public void transpose_swapsRowsAndColumns() throws Exception {
+        float[] m = new float[16];
+        float[] t = new float[16];
+        for (int i = 0; i < 16; i++) {
+            m[i] = i;
+        }
+
+        Matrix4.transpose(t, 0, m, 0);
+
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 4; col++) {
+                assertEquals(m[col * 4 + row], t[row * 4 + col], 0f);
+            }
+        }
+    }
+
+    @Test
+    public void lookAt_movesEyeToOrigin() throws Exception {
+        float[] view = new float[16];
+        float[] eye = new float[]{4, 5, 6, 1};
+        float[] center = new float[]{1, 1, 1, 1};
+        float[] result = new float[4];
+
+        Matrix4.lookAt(view, 0, eye[0], eye[1], eye[2], center[0], center[1], center[2], 0, 1, 0);
+
+        Matrix4.multiplyVector(result, 0, view, 0, eye, 0);
+        assertArrayEquals(new float[]{0, 0, 0, 1}, result, EPSILON);
+
+        Matrix4.multiplyVector(result, 0, view, 0, center, 0);
+        assertEquals(0f, result[0], EPSILON);
+        assertEquals(0f, result[1], EPSILON);
+        assertTrue(result[2] < 0f);
+    }
+
+    @Test
+    public void frustum_matchesPerspective() throws Exception {
+        float near = 0.5f;
+        float far = 50f;
+        float top = near * (float) Math.tan(Math.toRadians(45) / 2);
+        float right = top * 2f;
+        float[] perspective = new float[16];
+        float[] frustum = new float[16];
+
+        Matrix4.perspective(perspective, 0, 45, 2f, near, far);
+        Matrix4.frustum(frustum, 0, -right, right, -top, top, near, far);
+
+        assertArrayEquals(perspective, frustum, EPSILON);
+    }
+
+    @Test
+    public void ortho_mapsBoxToUnitCube() throws Exception {
+        float[] m = new float[16];
+        float[] points = new float[]{-2, -1, -1, 2, 1, -10};
+
+        Matrix4.ortho(m, 0, -2, 2, -1, 1, 1, 10);
+        Matrix4.transformPoints(m, points, points, 2);
+
+        assertArrayEquals(new float[]{-1, -1, -1, 1, 1, 1}, points, EPSILON);
+    }
+
+    @Test
+    public void transformPoints_matchesVectorProjection() throws Exception {
+        float[] m = new float[16];
+        float[] points = new float[]{0.5f, -0.25f, -3f};
+
+        Matrix4.perspective(m, 0, 90, 1f, 0.1f, 10f);
+        Vector3D expected = new Vector3D(0.5, -0.25, -3).project(m);
+        Matrix4.transformPoints(m, points, points, 1);
+
+        assertEquals(expected.x, points[0], EPSILON);
+        assertEquals(expected.y, points[1], EPSILON);
+        assertEquals(expected.z, points[2], EPSILON);
+    }
+}
@@ -0,0 +1,93 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class MeshFileTest {
+
+    private static Mesh createGrid(int size) {
+        Mesh mesh = new Mesh(size * size, (size - 1) * (size - 1));
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                mesh.addVertex(x * 0.5, y * 0.25, x * y * 0.125);
+            }
+        }
+        for (int y = 0; y < size - 1; y++) {
+            for (int x = 0; x < size - 1; x++) {
+                int i = y * size + x;
+                mesh.addFace(0xff000000 | i, i, i + 1, i + size + 1, i + size);
+            }
+        }
+        return mesh;
+    }
+
+    private static void assertSameMesh(Mesh expected, Mesh actual) {
+        assertEquals(expected.getVertexCount(), actual.getVertexCount());
+        assertEquals(expected.getFaceCount(), actual.getFaceCount());
+        assertEquals(expected.getIndexCount(), actual.getIndexCount());
+        for (int i = 0; i < expected.getVertexCount() * VertexBuffer.STRIDE; i++) {
+            assertEquals(expected.getVertexBuffer().getVertices()[i], actual.getVertexBuffer().getVertices()[i], 0);
+        }
+        for (int face = 0; face < expected.getFaceCount(); face++) {
+            assertEquals(expected.getColor(face), actual.getColor(face));
+            assertEquals(expected.getFaceSize(face), actual.getFaceSize(face));
+        }
+        for (int i = 0; i < expected.getIndexCount(); i++) {
+            assertEquals(expected.getIndices()[i], actual.getIndices()[i]);
+        }
+    }
+
+    @Test
+    public void load_readsWrittenMesh() throws Exception {
+        Mesh mesh = createGrid(20);
+        File file = File.createTempFile("mesh", ".bin");
+        try {
+            MeshFile.write(mesh, file);
+            assertEquals(MeshFile.getSize(mesh), file.length());
+            assertSameMesh(mesh, MeshFile.load(file));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void read_uses32BitIndicesForLargeMeshes() throws Exception {
+        // more vertices than uint16 indices can address
+        Mesh mesh = createGrid(300);
+        ByteBuffer buffer = ByteBuffer.allocate(MeshFile.getSize(mesh));
+        MeshFile.write(mesh, buffer);
+        buffer.flip();
+
+        assertEquals(MeshFile.INDEX_32, buffer.getInt(8));
+        assertSameMesh(mesh, MeshFile.read(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rejectsOtherFiles() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.put("not a mesh at all".getBytes("US-ASCII"));
+        buffer.rewind();
+        MeshFile.read(buffer);
+    }
+
+    @Test(expected = IOException.class)
+    public void load_rejectsTruncatedFile() throws Exception {
+        File file = File.createTempFile("mesh", ".bin");
+        try {
+            MeshFile.write(createGrid(5), file);
+            RandomAccessFile output = new RandomAccessFile(file, "rw");
+            output.setLength(file.length() - 3);
+            output.close();
+            MeshFile.load(file);
+        } finally {
+            file.delete();
+        }
+    }
+}
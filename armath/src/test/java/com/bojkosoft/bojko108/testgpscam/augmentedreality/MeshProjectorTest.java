@@ -0,0 +1,256 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MeshProjectorTest {
+    private static final double FOV = Math.toRadians(90);
+
+    private static Mesh createCube() {
+        Mesh mesh = new Mesh(8, 6);
+        mesh.addVertex(-1, 1, 0);
+        mesh.addVertex(1, 1, 0);
+        mesh.addVertex(1, -1, 0);
+        mesh.addVertex(-1, -1, 0);
+        mesh.addVertex(-1, 1, 1);
+        mesh.addVertex(1, 1, 1);
+        mesh.addVertex(1, -1, 1);
+        mesh.addVertex(-1, -1, 1);
+        mesh.addFace(0, 3, 2, 1, 0);
+        mesh.addFace(1, 1, 2, 6, 5);
+        mesh.addFace(2, 0, 4, 7, 3);
+        mesh.addFace(3, 2, 3, 7, 6);
+        mesh.addFace(4, 0, 1, 5, 4);
+        mesh.addFace(5, 4, 5, 6, 7);
+        return mesh;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addFace_rejectsUnknownVertex() throws Exception {
+        Mesh mesh = new Mesh(3, 1);
+        mesh.addVertex(0, 0, 0);
+        mesh.addVertex(1, 0, 0);
+        mesh.addFace(0, 0, 1, 2);
+    }
+
+    @Test
+    public void project_matchesFaceByFaceClipping() throws Exception {
+        Mesh mesh = createCube();
+        Matrix3 rotation = new Matrix3().setRotation(-25, 10, 135);
+        ClipSpace clipSpace = new ClipSpace();
+        clipSpace.setViewport(200, 200, FOV, 4);
+
+        MeshProjector projector = new MeshProjector(mesh);
+        projector.project(clipSpace, rotation);
+
+        // the same faces with their own copies of the vertices
+        VertexBuffer buffer = new VertexBuffer(24);
+        for (int face = 0; face < mesh.getFaceCount(); face++) {
+            for (int i = 0; i < mesh.getFaceSize(face); i++) {
+                int vertex = mesh.getIndices()[mesh.getFaceStart(face) + i];
+                buffer.add(mesh.getVertexBuffer().getVertex(vertex, new Vector3D()));
+            }
+        }
+        buffer.clip(clipSpace, rotation);
+
+        double[] screen = new double[ClipSpace.getClippedSize(4) * VertexBuffer.STRIDE];
+        int visible = 0;
+        for (int face = 0; face < mesh.getFaceCount(); face++) {
+            int count = clipSpace.clipPolygon(buffer.getClip(), buffer.getOutcodes(), face * 4, 4, screen);
+            assertEquals(count > 2 && ClipSpace.isFrontFacing(screen, count), projector.isVisible(face));
+            if (projector.isVisible(face)) {
+                assertEquals(count, projector.getScreenCount(face));
+                for (int i = 0; i < count * VertexBuffer.STRIDE; i++) {
+                    assertEquals(screen[i], projector.getScreen()[projector.getScreenStart(face) + i], 1e-9);
+                }
+                visible++;
+            } else {
+                // culled faces are not clipped at all
+                assertEquals(0, projector.getScreenCount(face));
+            }
+        }
+        // some faces of a convex mesh always face away
+        assertTrue(visible > 0 && visible < mesh.getFaceCount());
+        assertTrue(projector.hasChanged());
+        assertTrue(projector.hasBounds());
+    }
+
+    @Test
+    public void project_cullsWithNormalsLikeScreenArea() throws Exception {
+        Mesh mesh = createCube();
+        ClipSpace clipSpace = new ClipSpace();
+        MeshProjector projector = new MeshProjector(mesh);
+        Matrix3 rotation = new Matrix3();
+        double[] screen = new double[ClipSpace.getClippedSize(4) * VertexBuffer.STRIDE];
+        Random random = new Random(5);
+
+        for (int n = 0; n < 500; n++) {
+            // from far away to the camera inside of the cube
+            clipSpace.setViewport(200, 200, FOV, random.nextDouble() * 4);
+            rotation.setRotation(random.nextDouble() * 360, random.nextDouble() * 360, random.nextDouble() * 360);
+            projector.project(clipSpace, rotation);
+
+            VertexBuffer vertices = mesh.getVertexBuffer();
+            for (int face = 0; face < mesh.getFaceCount(); face++) {
+                int count = clipSpace.clipPolygon(vertices.getClip(), vertices.getOutcodes(), mesh.getIndices(), mesh.getFaceStart(face), mesh.getFaceSize(face), screen, 0);
+                assertEquals(count > 2 && ClipSpace.isFrontFacing(screen, count), projector.isVisible(face));
+            }
+        }
+    }
+
+    @Test
+    public void updateFaces_followsMovedVertices() throws Exception {
+        Mesh mesh = new Mesh(3, 1);
+        mesh.addVertex(0, 0, 0);
+        mesh.addVertex(1, 0, 0);
+        mesh.addVertex(0, 1, 0);
+        mesh.addFace(0, 0, 1, 2);
+        // counter-clockwise seen from +Z, twice the area
+        assertArrayEquals(new double[]{0, 0, 1}, mesh.getNormals(), 1e-12);
+
+        mesh.getVertexBuffer().set(2, 0, 0, 2);
+        mesh.updateFaces();
+        assertArrayEquals(new double[]{0, -2, 0}, mesh.getNormals(), 1e-12);
+    }
+
+    @Test
+    public void project_sortsFacesBackToFront() throws Exception {
+        Mesh mesh = createCube();
+        ClipSpace clipSpace = new ClipSpace();
+        clipSpace.setViewport(200, 200, FOV, 4);
+        MeshProjector projector = new MeshProjector(mesh);
+        Matrix3 rotation = new Matrix3();
+
+        for (int angle = 0; angle < 360; angle += 7) {
+            projector.project(clipSpace, rotation.setRotation(angle, angle / 2, -angle));
+
+            int[] order = projector.getOrder();
+            int visible = 0;
+            for (int face = 0; face < mesh.getFaceCount(); face++) {
+                if (projector.isVisible(face)) visible++;
+            }
+            // only visible faces are sorted
+            assertEquals(visible, projector.getOrderCount());
+            double last = Double.MAX_VALUE;
+            for (int i = 0; i < projector.getOrderCount(); i++) {
+                assertTrue(projector.isVisible(order[i]));
+                double depth = projector.getDepth(order[i]);
+                assertTrue(depth <= last + 1e-12);
+                last = depth;
+                assertEquals(averageDepth(projector, order[i]), depth, 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void project_reportsNoChangeWhenStill() throws Exception {
+        MeshProjector projector = new MeshProjector(createCube());
+        ClipSpace clipSpace = new ClipSpace();
+        // close enough for the cube to be a few pixels big
+        clipSpace.setViewport(200, 200, FOV, 2);
+        Matrix3 rotation = new Matrix3().setRotation(-23, 0, 121);
+
+        projector.project(clipSpace, rotation);
+        assertTrue(projector.hasChanged());
+        projector.project(clipSpace, rotation);
+        assertFalse(projector.hasChanged());
+        // far less than a pixel
+        projector.project(clipSpace, rotation.setRotation(-23, 0, 121.001));
+        assertFalse(projector.hasChanged());
+        projector.project(clipSpace, rotation.setRotation(-23, 0, 151));
+        assertTrue(projector.hasChanged());
+    }
+
+    @Test
+    public void sort_fallsBackForShuffledDepths() throws Exception {
+        Random random = new Random(3);
+        double[] depths = new double[5000];
+        DepthSorter sorter = new DepthSorter();
+
+        for (int n = 0; n < 3; n++) {
+            for (int i = 0; i < depths.length; i++) {
+                depths[i] = random.nextDouble();
+            }
+            assertTrue(sorter.sort(depths, depths.length) > 0);
+            for (int i = 1; i < depths.length; i++) {
+                assertTrue(depths[sorter.getOrder()[i - 1]] >= depths[sorter.getOrder()[i]]);
+            }
+        }
+        // sorted already
+        assertEquals(0, sorter.sort(depths, depths.length));
+    }
+
+    @Test
+    public void sort_onlyGivenFaces() throws Exception {
+        double[] depths = new double[]{5, 1, 4, 2, 3};
+        DepthSorter sorter = new DepthSorter();
+
+        assertTrue(sorter.sort(depths, new int[]{1, 3, 4}, 3) > 0);
+        assertEquals(3, sorter.size());
+        assertArrayEquals(new int[]{4, 3, 1}, Arrays.copyOf(sorter.getOrder(), 3));
+
+        // face 3 is gone, face 0 is new and added at its place - the rest did not move
+        depths[4] = 2.5;
+        int moves = sorter.sort(depths, new int[]{4, 1, 0}, 3);
+        assertArrayEquals(new int[]{0, 4, 1}, Arrays.copyOf(sorter.getOrder(), 3));
+        assertEquals(2, moves);
+        assertEquals(0, sorter.sort(depths, new int[]{0, 1, 4}, 3));
+
+        // a face behind another one which is not sorted does not change anything
+        depths[3] = 100;
+        assertEquals(0, sorter.sort(depths, new int[]{0, 1, 4}, 3));
+    }
+
+    @Test
+    public void project_hiddenFacesDoNotChangeOrder() throws Exception {
+        MeshProjector projector = new MeshProjector(createCube());
+        ClipSpace clipSpace = new ClipSpace();
+        clipSpace.setViewport(200, 200, FOV, 4);
+        Matrix3 rotation = new Matrix3().setRotation(-25, 0, 135);
+
+        projector.project(clipSpace, rotation);
+        int[] order = Arrays.copyOf(projector.getOrder(), projector.getOrderCount());
+        projector.project(clipSpace, rotation);
+        assertFalse(projector.hasChanged());
+        assertArrayEquals(order, Arrays.copyOf(projector.getOrder(), projector.getOrderCount()));
+    }
+
+    private static double averageDepth(MeshProjector projector, int face) {
+        int count = projector.getScreenCount(face);
+        double depth = 0;
+        for (int i = 0; i < count; i++) {
+            depth += projector.getScreen()[projector.getScreenStart(face) + i * VertexBuffer.STRIDE + 2];
+        }
+        return depth / count;
+    }
+
+    @Test
+    public void writeTo_concaveFaceCrossingNearPlaneTwice() throws Exception {
+        // a floor comb with two spikes behind the camera, each gives two vertices on the near plane
+        Mesh mesh = new Mesh(8, 1);
+        mesh.addVertex(-3, 1, 3);
+        mesh.addVertex(3, 1, 3);
+        mesh.addVertex(3, 1, 2);
+        mesh.addVertex(2, 1, -2);
+        mesh.addVertex(1, 1, 2);
+        mesh.addVertex(-1, 1, 2);
+        mesh.addVertex(-2, 1, -2);
+        mesh.addVertex(-3, 1, 2);
+        mesh.addFace(0xff00ff00, 7, 6, 5, 4, 3, 2, 1, 0);
+
+        ClipSpace clipSpace = new ClipSpace();
+        clipSpace.setViewport(200, 150, FOV, 1);
+        MeshProjector projector = new MeshProjector(mesh);
+        projector.project(clipSpace, new Matrix3());
+        assertTrue(projector.isVisible(0));
+
+        ProjectedFrame frame = new ProjectedFrame(projector.getScreenCapacities());
+        projector.writeTo(frame);
+        assertEquals(10, frame.getPointCount(0));
+        assertEquals(8, frame.getTriangleCount(0));
+    }
+}
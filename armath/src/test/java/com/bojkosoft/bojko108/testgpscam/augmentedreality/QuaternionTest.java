@@ -0,0 +1,101 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class QuaternionTest {
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void fromEuler_matchesMatrixRotation() throws Exception {
+        Quaternion q = new Quaternion();
+        Matrix3 expected = new Matrix3();
+        Matrix3 actual = new Matrix3();
+
+        for (int rX = -90; rX <= 90; rX += 30) {
+            for (int rY = -180; rY <= 180; rY += 45) {
+                for (int rZ = 0; rZ < 360; rZ += 40) {
+                    expected.setRotation(rX, rY, rZ);
+                    q.fromEuler(rX, rY, rZ).toMatrix(actual);
+
+                    assertMatrixEquals(expected, actual);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void multiply_composesRotations() throws Exception {
+        Quaternion qX = new Quaternion().fromEuler(20, 0, 0);
+        Quaternion qY = new Quaternion().fromEuler(0, -35, 0);
+        Quaternion qZ = new Quaternion().fromEuler(0, 0, 110);
+
+        Quaternion q = new Quaternion().multiply(qY, qX);
+        q.multiply(q, qZ);
+
+        assertMatrixEquals(new Matrix3().setRotation(20, -35, 110), q.toMatrix(new Matrix3()));
+    }
+
+    @Test
+    public void fromRotationVector_calculatesScalar() throws Exception {
+        double half = Math.toRadians(30);
+        float[] values = new float[]{0, 0, (float) Math.sin(half)};
+
+        Quaternion q = new Quaternion().fromRotationVector(values);
+
+        assertEquals(Math.cos(half), q.w, 1e-6);
+        assertMatrixEquals(new Matrix3().setRotation(0, 0, 60), q.toMatrix(new Matrix3()), 1e-6);
+    }
+
+    @Test
+    public void slerp_interpolatesAngle() throws Exception {
+        Quaternion from = new Quaternion().fromEuler(0, 0, 10);
+        Quaternion to = new Quaternion().fromEuler(0, 0, 90);
+
+        Quaternion q = new Quaternion().slerp(from, to, 0.25);
+
+        assertMatrixEquals(new Matrix3().setRotation(0, 0, 30), q.toMatrix(new Matrix3()));
+        assertMatrixEquals(new Matrix3().setRotation(0, 0, 10), new Quaternion().slerp(from, to, 0).toMatrix(new Matrix3()));
+        assertMatrixEquals(new Matrix3().setRotation(0, 0, 90), new Quaternion().slerp(from, to, 1).toMatrix(new Matrix3()));
+    }
+
+    @Test
+    public void slerp_takesShortestPath() throws Exception {
+        Quaternion from = new Quaternion().fromEuler(0, 0, 350);
+        Quaternion to = new Quaternion().fromEuler(0, 0, 10);
+        // same orientation, opposite sign
+        to.set(-to.w, -to.x, -to.y, -to.z);
+
+        Quaternion q = new Quaternion().slerp(from, to, 0.5);
+
+        assertMatrixEquals(new Matrix3().setRotation(0, 0, 0), q.toMatrix(new Matrix3()));
+    }
+
+    @Test
+    public void nlerp_isNormalized() throws Exception {
+        Quaternion from = new Quaternion().fromEuler(10, 20, 30);
+        Quaternion to = new Quaternion().fromEuler(15, 25, 35);
+
+        Quaternion q = new Quaternion().nlerp(from, to, 0.5);
+
+        assertEquals(1.0, q.dot(q), EPSILON);
+        assertMatrixEquals(new Quaternion().slerp(from, to, 0.5).toMatrix(new Matrix3()), q.toMatrix(new Matrix3()), 1e-4);
+    }
+
+    private static void assertMatrixEquals(Matrix3 expected, Matrix3 actual) {
+        assertMatrixEquals(expected, actual, EPSILON);
+    }
+
+    private static void assertMatrixEquals(Matrix3 expected, Matrix3 actual, double epsilon) {
+        assertEquals(expected.m00, actual.m00, epsilon);
+        assertEquals(expected.m01, actual.m01, epsilon);
+        assertEquals(expected.m02, actual.m02, epsilon);
+        assertEquals(expected.m10, actual.m10, epsilon);
+        assertEquals(expected.m11, actual.m11, epsilon);
+        assertEquals(expected.m12, actual.m12, epsilon);
+        assertEquals(expected.m20, actual.m20, epsilon);
+        assertEquals(expected.m21, actual.m21, epsilon);
+        assertEquals(expected.m22, actual.m22, epsilon);
+    }
+}
@@ -0,0 +1,175 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.InputStream;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.*;
+
+/**
+ * Golden images are in src/test/resources/golden. To write them again after an intended
+ * change run the tests with -Dgolden.dir=armath/src/test/resources/golden and check the images.
+ */
+public class RasterizerTest {
+    private static final int RED = 0xffff0000;
+    private static final int GREEN = 0xff00ff00;
+    private static final int BLUE = 0xff0000ff;
+
+    private static int count(Rasterizer rasterizer, int color) {
+        int count = 0;
+        for (int pixel : rasterizer.getColors()) {
+            if (pixel == color) count++;
+        }
+        return count;
+    }
+
+    private static void assertGolden(String name, Rasterizer rasterizer) throws Exception {
+        int width = rasterizer.getWidth();
+        int height = rasterizer.getHeight();
+        String dir = System.getProperty("golden.dir");
+        if (dir != null) {
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            image.setRGB(0, 0, width, height, rasterizer.getColors(), 0, width);
+            ImageIO.write(image, "png", new File(dir, name + ".png"));
+        }
+
+        InputStream input = RasterizerTest.class.getResourceAsStream("/golden/" + name + ".png");
+        assertNotNull("no golden image " + name, input);
+        BufferedImage golden = ImageIO.read(input);
+        input.close();
+
+        assertEquals(width, golden.getWidth());
+        assertEquals(height, golden.getHeight());
+        int[] expected = golden.getRGB(0, 0, width, height, null, 0, width);
+        for (int i = 0; i < expected.length; i++) {
+            if (expected[i] != rasterizer.getColors()[i]) {
+                fail(name + " differs at " + (i % width) + ", " + (i / width));
+            }
+        }
+    }
+
+    @Test
+    public void render_coversSharedEdgeOnce() throws Exception {
+        Rasterizer rasterizer = new Rasterizer(32, 32);
+        // square from 4.3 to 20.3 split along the diagonal, 16 x 16 pixel centers
+        rasterizer.addTriangle(4.3, 4.3, 0, 20.3, 4.3, 0, 20.3, 20.3, 0, RED);
+        rasterizer.render();
+        int red = count(rasterizer, RED);
+
+        rasterizer.clear(0);
+        rasterizer.addTriangle(4.3, 4.3, 0, 4.3, 20.3, 0, 20.3, 20.3, 0, GREEN);
+        rasterizer.render();
+        int green = count(rasterizer, GREEN);
+
+        // no gap and no pixel drawn by both
+        assertEquals(16 * 16, red + green);
+        assertEquals(16 * 15 / 2, Math.min(red, green));
+    }
+
+    @Test
+    public void render_keepsNearestFaceInAnyOrder() throws Exception {
+        Rasterizer rasterizer = new Rasterizer(16, 16);
+        rasterizer.addTriangle(0, 0, 1, 16, 0, 1, 0, 16, 1, RED);
+        rasterizer.addTriangle(0, 0, 2, 16, 0, 2, 16, 16, 2, GREEN);
+        rasterizer.render();
+        int red = count(rasterizer, RED);
+
+        rasterizer.clear(0);
+        rasterizer.addTriangle(0, 0, 2, 16, 0, 2, 16, 16, 2, GREEN);
+        rasterizer.addTriangle(0, 0, 1, 16, 0, 1, 0, 16, 1, RED);
+        rasterizer.render();
+
+        assertEquals(red, count(rasterizer, RED));
+        assertEquals(RED, rasterizer.getColors()[2 * 16 + 2]);
+        assertEquals(1f, rasterizer.getDepths()[2 * 16 + 2], 0);
+        // nothing drawn in the corner
+        assertEquals(Float.POSITIVE_INFINITY, rasterizer.getDepths()[15 * 16 + 1], 0);
+    }
+
+    @Test
+    public void render_sameInParallel() throws Exception {
+        Rasterizer sequential = new Rasterizer(300, 200);
+        sequential.setParallel(false);
+        Rasterizer parallel = new Rasterizer(300, 200);
+        Random random = new Random(7);
+
+        for (int i = 0; i < 2000; i++) {
+            double[] v = new double[9];
+            for (int j = 0; j < 9; j++) {
+                v[j] = random.nextDouble() * 340 - 20;
+            }
+            int color = 0xff000000 | random.nextInt();
+            sequential.addTriangle(v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7], v[8], color);
+            parallel.addTriangle(v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7], v[8], color);
+        }
+        assertTrue(parallel.getTriangleCount() >= Rasterizer.PARALLEL_THRESHOLD);
+        sequential.render();
+        parallel.render();
+        parallel.shutdown();
+
+        assertArrayEquals(sequential.getColors(), parallel.getColors());
+        assertEquals(0, parallel.getTriangleCount());
+    }
+
+    @Test
+    public void render_intersectingTriangles_golden() throws Exception {
+        Rasterizer rasterizer = new Rasterizer(64, 64);
+        rasterizer.clear(0xff000000);
+        // each one is in front of the other on one side, painter's order can not draw that
+        rasterizer.addTriangle(4, 8, 0, 60, 20, 0, 10, 56, 10, RED);
+        rasterizer.addTriangle(58, 6, 10, 54, 58, 0, 6, 30, 5, GREEN);
+        rasterizer.addTriangle(20, 2, 4, 44, 2, 4, 32, 62, 4, BLUE);
+        rasterizer.render();
+
+        assertGolden("intersecting", rasterizer);
+    }
+
+    @Test
+    public void render_meshFrame_golden() throws Exception {
+        Mesh mesh = new Mesh(8, 6);
+        mesh.addVertex(-1, 1, 0);
+        mesh.addVertex(1, 1, 0);
+        mesh.addVertex(1, -1, 0);
+        mesh.addVertex(-1, -1, 0);
+        mesh.addVertex(-1, 1, 1);
+        mesh.addVertex(1, 1, 1);
+        mesh.addVertex(1, -1, 1);
+        mesh.addVertex(-1, -1, 1);
+        mesh.addFace(0xff202020, 3, 2, 1, 0);
+        mesh.addFace(GREEN, 1, 2, 6, 5);
+        mesh.addFace(0xffffff00, 0, 4, 7, 3);
+        mesh.addFace(0xff00ffff, 2, 3, 7, 6);
+        mesh.addFace(RED, 0, 1, 5, 4);
+        mesh.addFace(0xffc0c0c0, 4, 5, 6, 7);
+
+        ClipSpace clipSpace = new ClipSpace();
+        clipSpace.setViewport(48, 48, 60, 3);
+        MeshProjector projector = new MeshProjector(mesh);
+        projector.project(clipSpace, new Matrix3().setRotation(-25, 10, 135));
+        ProjectedFrame frame = new ProjectedFrame(projector.getScreenCapacities());
+        projector.writeTo(frame);
+
+        Rasterizer rasterizer = new Rasterizer(96, 96);
+        rasterizer.setDistance(3);
+        rasterizer.clear(0xff000000);
+        for (int face = 0; face < frame.getFaceCount(); face++) {
+            if (frame.isVisible(face)) {
+                rasterizer.addPolygon(frame.getPoints(), frame.getDepths(), frame.getOffset(face) / ProjectedFrame.STRIDE, frame.getPointCount(face), frame.getColor(face));
+            }
+        }
+        rasterizer.render();
+
+        assertGolden("cube", rasterizer);
+
+        // the same picture rendered by the frame, faces in drawing order
+        Rasterizer fromFrame = new Rasterizer(96, 96);
+        fromFrame.setDistance(3);
+        frame.rasterize(fromFrame, 0xff000000);
+        assertArrayEquals(rasterizer.getColors(), fromFrame.getColors());
+    }
+}
@@ -0,0 +1,83 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RotationCoalescerTest {
+    @Test
+    public void offer_coalescesUntilTaken() throws Exception {
+        RotationCoalescer updates = new RotationCoalescer();
+        Matrix3 rotation = new Matrix3();
+        Matrix3 taken = new Matrix3();
+
+        assertFalse(updates.take(taken));
+        assertTrue(updates.offer(rotation.setRotation(10, 0, 0)));
+        assertTrue(updates.offer(rotation.setRotation(20, 0, 0)));
+        assertTrue(updates.offer(rotation.setRotation(30, 0, 0)));
+        assertEquals(3, updates.getUpdateCount());
+        assertEquals(2, updates.getCoalescedCount());
+        assertEquals(0, updates.getDroppedCount());
+
+        // only the latest one is taken
+        assertTrue(updates.take(taken));
+        assertEquals(rotation.m11, taken.m11, 0);
+        assertEquals(rotation.m12, taken.m12, 0);
+        assertFalse(updates.hasPending());
+        assertFalse(updates.take(taken));
+    }
+
+    @Test
+    public void offer_dropsUnchangedRotation() throws Exception {
+        RotationCoalescer updates = new RotationCoalescer();
+        Matrix3 rotation = new Matrix3().setRotation(0, 0, 45);
+        Matrix3 taken = new Matrix3();
+
+        assertTrue(updates.offer(rotation));
+        // the same as the waiting one
+        assertFalse(updates.offer(rotation));
+        assertTrue(updates.take(taken));
+        // the same as the last taken one, no frame is needed
+        assertFalse(updates.offer(new Matrix3().setRotation(0, 0, 45)));
+        assertFalse(updates.hasPending());
+        assertTrue(updates.offer(rotation.setRotation(0, 0, 46)));
+
+        assertEquals(4, updates.getUpdateCount());
+        assertEquals(0, updates.getCoalescedCount());
+        assertEquals(2, updates.getDroppedCount());
+
+        updates.resetCounters();
+        assertEquals(0, updates.getUpdateCount());
+        assertEquals(0, updates.getDroppedCount());
+    }
+
+    @Test
+    public void offer_firstIdentityIsNotDropped() throws Exception {
+        RotationCoalescer updates = new RotationCoalescer();
+
+        // nothing was taken yet, so there is no last rotation to compare with
+        assertTrue(updates.offer(new Matrix3()));
+        assertEquals(0, updates.getDroppedCount());
+    }
+
+    @Test
+    public void invalidate_takesLastRotationAgain() throws Exception {
+        RotationCoalescer updates = new RotationCoalescer();
+        Matrix3 rotation = new Matrix3().setRotation(-25, 0, 135);
+        Matrix3 taken = new Matrix3();
+
+        // before the first frame the identity is taken
+        updates.invalidate();
+        assertTrue(updates.take(taken));
+        assertEquals(1, taken.m00, 0);
+
+        updates.offer(rotation);
+        updates.take(taken);
+        updates.invalidate();
+        assertTrue(updates.hasPending());
+        taken.setIdentity();
+        assertTrue(updates.take(taken));
+        assertEquals(rotation.m01, taken.m01, 0);
+        assertEquals(rotation.m21, taken.m21, 0);
+    }
+}
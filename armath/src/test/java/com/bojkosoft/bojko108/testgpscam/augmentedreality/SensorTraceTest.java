@@ -0,0 +1,141 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SensorTraceTest {
+    // 50 events per second
+    private static final long PERIOD = 20000000L;
+
+    // a slow turn with noise, four values per event, the display rotated half way
+    private static float[][] createEvents(int count) {
+        Random random = new Random(2);
+        float[][] events = new float[count][];
+        for (int i = 0; i < count; i++) {
+            double half = Math.toRadians(i * 0.5 + random.nextGaussian()) / 2;
+            events[i] = new float[]{0, 0, (float) Math.sin(half), (float) Math.cos(half)};
+        }
+        return events;
+    }
+
+    private static void record(File file, float[][] events, int bufferSize) throws IOException {
+        SensorTraceRecorder recorder = new SensorTraceRecorder(file, bufferSize);
+        try {
+            for (int i = 0; i < events.length; i++) {
+                recorder.record(i * PERIOD, events[i], 3, i < events.length / 2 ? 0 : 1);
+            }
+            assertEquals(events.length, recorder.getEventCount());
+        } finally {
+            recorder.close();
+        }
+    }
+
+    @Test
+    public void replayer_readsRecordedEvents() throws Exception {
+        float[][] events = createEvents(100);
+        File file = File.createTempFile("trace", ".bin");
+        try {
+            // a small buffer is written many times
+            record(file, events, 3 * SensorTrace.RECORD_SIZE);
+            assertEquals(SensorTrace.HEADER_SIZE + 100 * SensorTrace.RECORD_SIZE, file.length());
+
+            SensorTraceReplayer replayer = SensorTraceReplayer.load(file);
+            assertEquals(100, replayer.getEventCount());
+            for (int i = 0; i < events.length; i++) {
+                assertTrue(replayer.next());
+                assertEquals(i * PERIOD, replayer.getTimestamp());
+                assertArrayEquals(events[i], replayer.getValues(), 0);
+                assertEquals(3, replayer.getAccuracy());
+                assertEquals(i < 50 ? 0 : 1, replayer.getDisplayRotation());
+            }
+            assertFalse(replayer.next());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void replay_matchesLiveProcessing() throws Exception {
+        float[][] events = createEvents(500);
+        File file = File.createTempFile("trace", ".bin");
+        try {
+            record(file, events, SensorTraceRecorder.BUFFER_SIZE);
+
+            CompassProcessor live = new CompassProcessor();
+            live.setAzimuthFilter(new AzimuthFilterChain(new KalmanHeadingFilter(10, 4), new HysteresisGate(1)));
+            final double[] azimuths = new double[events.length];
+            int liveChanges = 0;
+            for (int i = 0; i < events.length; i++) {
+                live.setDisplayRotation(i < events.length / 2 ? 0 : 1);
+                if (live.process(events[i], i * PERIOD)) liveChanges++;
+                azimuths[i] = live.getAzimuth();
+            }
+
+            CompassProcessor replayed = new CompassProcessor();
+            replayed.setAzimuthFilter(new AzimuthFilterChain(new KalmanHeadingFilter(10, 4), new HysteresisGate(1)));
+            final int[] index = new int[1];
+            SensorTraceReplayer replayer = SensorTraceReplayer.load(file);
+            int changes = replayer.replay(replayed, false, new SensorTraceReplayer.OnEventListener() {
+                @Override
+                public void onEvent(long timestamp, boolean changed, CompassProcessor processor) {
+                    assertEquals(azimuths[index[0]++], processor.getAzimuth(), 0);
+                }
+            });
+
+            assertEquals(events.length, index[0]);
+            assertEquals(liveChanges, changes);
+            assertTrue(changes > 0 && changes < events.length / 2);
+
+            // rewind goes back to the first event
+            replayer.rewind();
+            assertTrue(replayer.next());
+            assertEquals(0, replayer.getTimestamp());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void replay_realTimeKeepsEventSpacing() throws Exception {
+        float[][] events = createEvents(6);
+        File file = File.createTempFile("trace", ".bin");
+        try {
+            record(file, events, SensorTraceRecorder.BUFFER_SIZE);
+
+            long start = System.nanoTime();
+            SensorTraceReplayer.load(file).replay(new CompassProcessor(), true, null);
+            assertTrue(System.nanoTime() - start >= 5 * PERIOD);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void replayer_ignoresCutOffEvent() throws Exception {
+        File file = File.createTempFile("trace", ".bin");
+        try {
+            record(file, createEvents(10), SensorTraceRecorder.BUFFER_SIZE);
+            RandomAccessFile output = new RandomAccessFile(file, "rw");
+            try {
+                output.setLength(file.length() - 5);
+            } finally {
+                output.close();
+            }
+            assertEquals(9, SensorTraceReplayer.load(file).getEventCount());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void replayer_rejectsOtherFiles() throws Exception {
+        new SensorTraceReplayer(ByteBuffer.wrap(new byte[]{'M', 'E', 'S', 'H', 1, 0, 0, 0}));
+    }
+}
@@ -0,0 +1,136 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+public class SubscriberBusTest {
+    private static final long MS = 1000000L;
+
+    // azimuths of every call
+    private static class RecordingListener implements SubscriberBus.Listener {
+        final List<Float> mAzimuths = new ArrayList<Float>();
+
+        @Override
+        public void onOrientationChanged(float azimuth, float pitch, float roll) {
+            this.mAzimuths.add(azimuth);
+        }
+    }
+
+    // runs nothing until told to, like a busy handler
+    private static class QueuedExecutor implements Executor {
+        final List<Runnable> mTasks = new ArrayList<Runnable>();
+
+        @Override
+        public void execute(Runnable command) {
+            this.mTasks.add(command);
+        }
+
+        void runAll() {
+            List<Runnable> tasks = new ArrayList<Runnable>(this.mTasks);
+            this.mTasks.clear();
+            for (Runnable task : tasks) {
+                task.run();
+            }
+        }
+    }
+
+    @Test
+    public void publish_throttlesToMaxRate() throws Exception {
+        SubscriberBus bus = new SubscriberBus();
+        RecordingListener listener = new RecordingListener();
+        // every 100 ms at most, on the publishing thread
+        bus.add(listener, 10, null);
+
+        bus.publish(0, true, 1, 0, 0);
+        bus.publish(50 * MS, true, 2, 0, 0);
+        bus.publish(70 * MS, true, 3, 0, 0);
+        assertEquals(1, listener.mAzimuths.size());
+
+        // no change itself, but the one kept since the last call is due now
+        bus.publish(100 * MS, false, 4, 0, 0);
+        assertEquals(2, listener.mAzimuths.size());
+        assertEquals(3, listener.mAzimuths.get(1), 0);
+
+        // nothing changed since
+        bus.publish(300 * MS, false, 5, 0, 0);
+        assertEquals(2, listener.mAzimuths.size());
+    }
+
+    @Test
+    public void publish_mergesPendingCalls() throws Exception {
+        SubscriberBus bus = new SubscriberBus();
+        RecordingListener listener = new RecordingListener();
+        QueuedExecutor executor = new QueuedExecutor();
+        bus.add(listener, 0, executor);
+
+        bus.publish(0, true, 1, 0, 0);
+        bus.publish(MS, true, 2, 0, 0);
+        bus.publish(2 * MS, true, 3, 0, 0);
+        // one call waits for the executor and gets the latest values
+        assertEquals(1, executor.mTasks.size());
+        executor.runAll();
+        assertEquals(1, listener.mAzimuths.size());
+        assertEquals(3, listener.mAzimuths.get(0), 0);
+
+        bus.publish(3 * MS, true, 4, 0, 0);
+        assertEquals(1, executor.mTasks.size());
+        executor.runAll();
+        assertEquals(4, listener.mAzimuths.get(1), 0);
+    }
+
+    @Test
+    public void getProfile_slowestProfileForRate() throws Exception {
+        assertEquals(SubscriberBus.PROFILE_LOW_POWER, SubscriberBus.getProfile(1));
+        assertEquals(SubscriberBus.PROFILE_LOW_POWER, SubscriberBus.getProfile(5));
+        assertEquals(SubscriberBus.PROFILE_UI, SubscriberBus.getProfile(5.5));
+        assertEquals(SubscriberBus.PROFILE_UI, SubscriberBus.getProfile(15));
+        assertEquals(SubscriberBus.PROFILE_AR_TRACKING, SubscriberBus.getProfile(30));
+        assertEquals(SubscriberBus.PROFILE_MAX, SubscriberBus.getProfile(60));
+        // every change
+        assertEquals(SubscriberBus.PROFILE_MAX, SubscriberBus.getProfile(0));
+    }
+
+    @Test
+    public void getDemandedProfile_fastestSubscriber() throws Exception {
+        SubscriberBus bus = new SubscriberBus();
+        RecordingListener listener = new RecordingListener();
+
+        assertEquals(SubscriberBus.PROFILE_UI, bus.getDemandedProfile(SubscriberBus.PROFILE_UI));
+        bus.add(listener, 5, null);
+        assertEquals(SubscriberBus.PROFILE_LOW_POWER, bus.getDemandedProfile(SubscriberBus.PROFILE_UI));
+        SubscriberBus.Subscriber following = bus.addWithDefaultProfile(listener, null);
+        assertEquals(SubscriberBus.PROFILE_UI, bus.getDemandedProfile(SubscriberBus.PROFILE_UI));
+        SubscriberBus.Subscriber tracking = bus.add(listener, 50, null);
+        assertEquals(SubscriberBus.PROFILE_AR_TRACKING, bus.getDemandedProfile(SubscriberBus.PROFILE_UI));
+
+        assertTrue(bus.remove(tracking));
+        assertTrue(bus.remove(following));
+        assertEquals(SubscriberBus.PROFILE_LOW_POWER, bus.getDemandedProfile(SubscriberBus.PROFILE_MAX));
+    }
+
+    @Test
+    public void remove_exactSubscriber() throws Exception {
+        SubscriberBus bus = new SubscriberBus();
+        RecordingListener listener = new RecordingListener();
+        SubscriberBus.Subscriber throttled = bus.add(listener, 5, null);
+        SubscriberBus.Subscriber following = bus.addWithDefaultProfile(listener, null);
+
+        // the one added first is a different subscriber of the same listener
+        assertTrue(bus.remove(following));
+        assertFalse(bus.remove(following));
+        assertEquals(1, bus.size());
+        assertEquals(SubscriberBus.PROFILE_LOW_POWER, bus.getDemandedProfile(SubscriberBus.PROFILE_MAX));
+
+        // by listener only subscribers with their own rate are removed
+        bus.addWithDefaultProfile(listener, null);
+        assertTrue(bus.remove(listener));
+        assertFalse(bus.remove(throttled));
+        assertFalse(bus.remove(listener));
+        assertEquals(1, bus.size());
+    }
+}
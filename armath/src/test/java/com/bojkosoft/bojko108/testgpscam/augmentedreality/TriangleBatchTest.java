@@ -0,0 +1,50 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TriangleBatchTest {
+
+    @Test
+    public void update_splitsFacesInFansInDrawingOrder() throws Exception {
+        ProjectedFrame frame = new ProjectedFrame(new int[]{4, 3, 3});
+        // quad 0, hidden triangle 1 and triangle 2, drawn 2 before 0
+        frame.setFace(0, new double[]{0, 0, 0, 4, 0, 0, 4, 4, 0, 0, 4, 0}, 4, true);
+        frame.setFace(1, new double[]{0, 0, 0, 1, 0, 0, 0, 1, 0}, 3, false);
+        frame.setFace(2, new double[]{5, 5, 0, 6, 5, 0, 5, 6, 0}, 3, true);
+        frame.setColor(0, 0xff0000ff);
+        frame.setColor(2, 0xffff0000);
+        frame.setOrder(new int[]{2, 1, 0});
+
+        TriangleBatch batch = new TriangleBatch();
+        assertTrue(batch.update(frame));
+        assertFalse(batch.update(frame));
+
+        assertEquals(9, batch.getVertexCount());
+        float[] expected = new float[]{
+                5, 5, 6, 5, 5, 6,
+                0, 0, 4, 0, 4, 4,
+                0, 0, 4, 4, 0, 4};
+        assertArrayEquals(expected, Arrays.copyOf(batch.getVertices(), expected.length), 0);
+        assertArrayEquals(new int[]{0xffff0000, 0xffff0000, 0xffff0000, 0xff0000ff, 0xff0000ff, 0xff0000ff, 0xff0000ff, 0xff0000ff, 0xff0000ff},
+                Arrays.copyOf(batch.getColors(), 9));
+    }
+
+    @Test
+    public void update_reusesArrays() throws Exception {
+        ProjectedFrame frame = new ProjectedFrame(new int[]{5});
+        frame.setFace(0, new double[]{0, 0, 0, 4, 0, 0, 4, 4, 0, 0, 4, 0, -1, 2, 0}, 5, true);
+        TriangleBatch batch = new TriangleBatch();
+        batch.update(frame);
+        float[] vertices = batch.getVertices();
+
+        frame.setFace(0, new double[]{0, 0, 0, 4, 0, 0, 4, 4, 0}, 3, true);
+        frame.setSequence(frame.getSequence() + 1);
+        assertTrue(batch.update(frame));
+        assertEquals(3, batch.getVertexCount());
+        assertSame(vertices, batch.getVertices());
+    }
+}
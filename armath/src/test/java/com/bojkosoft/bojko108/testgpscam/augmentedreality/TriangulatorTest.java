@@ -0,0 +1,119 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TriangulatorTest {
+    // L shape, counter-clockwise
+    private static final double[] L_SHAPE = new double[]{0, 0, 2, 0, 2, 1, 1, 1, 1, 3, 0, 3};
+
+    private static double area(double[] points, int a, int b, int c) {
+        return ((points[b * 2] - points[a * 2]) * (points[c * 2 + 1] - points[a * 2 + 1])
+                - (points[b * 2 + 1] - points[a * 2 + 1]) * (points[c * 2] - points[a * 2])) / 2;
+    }
+
+    private static double polygonArea(double[] points, int count) {
+        double area = 0;
+        for (int i = 0, j = count - 1; i < count; j = i++) {
+            area += points[j * 2] * points[i * 2 + 1] - points[i * 2] * points[j * 2 + 1];
+        }
+        return area / 2;
+    }
+
+    // triangles cover the polygon exactly once, all with the winding of the polygon
+    private static void assertCovers(double[] points, int count, int[] corners, int triangles) {
+        double polygon = polygonArea(points, count);
+        double sum = 0;
+        for (int t = 0; t < triangles; t++) {
+            double area = area(points, corners[t * 3], corners[t * 3 + 1], corners[t * 3 + 2]);
+            assertTrue(area * polygon > 0);
+            sum += area;
+        }
+        assertEquals(polygon, sum, 1e-9 * Math.abs(polygon));
+    }
+
+    @Test
+    public void classify_convexConcaveAndDegenerate() throws Exception {
+        assertEquals(Triangulator.CONVEX, Triangulator.classify(new double[]{0, 0, 1, 0, 1, 1, 0, 1}, 0, 2, 4));
+        // clockwise and with a collinear point
+        assertEquals(Triangulator.CONVEX, Triangulator.classify(new double[]{0, 0, 0, 1, 1, 1, 1, 0.5, 1, 0}, 0, 2, 5));
+        assertEquals(Triangulator.CONCAVE, Triangulator.classify(L_SHAPE, 0, 2, 6));
+        assertEquals(Triangulator.DEGENERATE, Triangulator.classify(new double[]{0, 0, 1, 1, 2, 2}, 0, 2, 3));
+        assertEquals(Triangulator.DEGENERATE, Triangulator.classify(new double[]{0, 0, 1, 1}, 0, 2, 2));
+    }
+
+    @Test
+    public void triangulate_concavePolygon() throws Exception {
+        int[] corners = new int[12];
+        int triangles = new Triangulator().triangulate(L_SHAPE, 0, 2, 6, corners, 0);
+
+        assertEquals(4, triangles);
+        assertCovers(L_SHAPE, 6, corners, triangles);
+    }
+
+    @Test
+    public void triangulate_randomStarPolygons() throws Exception {
+        Random random = new Random(11);
+        Triangulator triangulator = new Triangulator();
+
+        for (int n = 0; n < 200; n++) {
+            // points around the center at growing angles are a simple polygon
+            int count = 3 + random.nextInt(20);
+            double[] points = new double[count * 2];
+            for (int i = 0; i < count; i++) {
+                double angle = (i + random.nextDouble() * 0.9) * 2 * Math.PI / count;
+                double radius = 0.2 + random.nextDouble();
+                points[i * 2] = Math.cos(angle) * radius;
+                points[i * 2 + 1] = Math.sin(angle) * radius;
+            }
+            if (random.nextBoolean()) {
+                // clockwise
+                for (int i = 0; i < count; i++) {
+                    points[i * 2 + 1] = -points[i * 2 + 1];
+                }
+            }
+
+            int[] corners = new int[(count - 2) * 3];
+            int triangles = triangulator.triangulate(points, 0, 2, count, corners, 0);
+            assertEquals(count - 2, triangles);
+            assertCovers(points, count, corners, triangles);
+        }
+    }
+
+    @Test
+    public void mesh_triangulatesConcaveFacesOnce() throws Exception {
+        // L shape on the plane x = z
+        Mesh mesh = new Mesh(6, 1);
+        for (int i = 0; i < 6; i++) {
+            mesh.addVertex(L_SHAPE[i * 2], L_SHAPE[i * 2 + 1], L_SHAPE[i * 2]);
+        }
+        mesh.addFace(0xffff0000, 0, 1, 2, 3, 4, 5);
+
+        assertFalse(mesh.isConvex(0));
+        assertEquals(4, mesh.getTriangleCount(0));
+        int[] corners = new int[12];
+        System.arraycopy(mesh.getTriangles(), mesh.getTriangleStart(0), corners, 0, 12);
+        assertCovers(L_SHAPE, 6, corners, 4);
+
+        // the frame gets the triangles of the mesh, not a fan
+        ClipSpace clipSpace = new ClipSpace();
+        clipSpace.setViewport(100, 100, 50, 10);
+        MeshProjector projector = new MeshProjector(mesh);
+        Matrix3 rotation = new Matrix3();
+        projector.project(clipSpace, rotation);
+        if (!projector.isVisible(0)) {
+            projector.project(clipSpace, rotation.setRotation(0, 180, 0));
+        }
+        assertTrue(projector.isVisible(0));
+        ProjectedFrame frame = new ProjectedFrame(projector.getScreenCapacities());
+        projector.writeTo(frame);
+
+        assertEquals(4, frame.getTriangleCount(0));
+        for (int i = 0; i < 12; i++) {
+            assertEquals(corners[i], frame.getTriangles()[frame.getTriangleOffset(0) + i]);
+        }
+    }
+}
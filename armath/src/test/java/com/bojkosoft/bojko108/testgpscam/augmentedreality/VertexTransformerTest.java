@@ -0,0 +1,83 @@
+package com.bojkosoft.bojko108.testgpscam.augmentedreality;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class VertexTransformerTest {
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void transform_matchesVectorProjection() throws Exception {
+        Matrix3 rotation = new Matrix3().setRotation(-25, 10, 135);
+        VertexBuffer buffer = new VertexBuffer(1);
+        buffer.add(-1, 1, 0);
+        buffer.add(1, -1, 1);
+        buffer.add(0.5, 0.25, -0.75);
+
+        VertexTransformer transformer = new VertexTransformer();
+        transformer.setViewport(200, 150, Math.toRadians(90), 0.01);
+        buffer.project(transformer, rotation);
+
+        Vector3D vertex = new Vector3D();
+        Vector3D projected = new Vector3D();
+        for (int i = 0; i < buffer.size(); i++) {
+            buffer.getVertex(i, vertex);
+            vertex.rotateInto(-25, 10, 135, vertex).projectInto(200, 150, Math.toRadians(90), 0.01, vertex);
+            buffer.getProjected(i, projected);
+
+            assertEquals(vertex.x, projected.x, EPSILON);
+            assertEquals(vertex.y, projected.y, EPSILON);
+            assertEquals(vertex.z, projected.z, EPSILON);
+        }
+    }
+
+    @Test
+    public void transform_parallelMatchesSequential() throws Exception {
+        int count = VertexTransformer.PARALLEL_THRESHOLD * 4 + 17;
+        Random random = new Random(42);
+        double[] src = new double[count * VertexBuffer.STRIDE];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = random.nextDouble() * 2 - 1;
+        }
+        double[] sequential = new double[src.length];
+        double[] parallel = new double[src.length];
+        Matrix3 rotation = new Matrix3().setRotation(30, 60, 90);
+
+        VertexTransformer transformer = new VertexTransformer();
+        transformer.setViewport(100, 100, 1.5, 3);
+        transformer.transformRange(rotation, src, sequential, 0, count);
+        transformer.transform(rotation, src, parallel, count);
+        transformer.shutdown();
+
+        assertArrayEquals(sequential, parallel, 0);
+    }
+
+    @Test
+    public void isFrontFacing_matchesNormalDotView() throws Exception {
+        Random random = new Random(7);
+        VertexBuffer buffer = new VertexBuffer(3);
+        VertexTransformer transformer = new VertexTransformer();
+        transformer.setViewport(200, 150, Math.toRadians(90), 3);
+        Matrix3 rotation = new Matrix3();
+        Vector3D v0 = new Vector3D();
+        Vector3D v1 = new Vector3D();
+        Vector3D v2 = new Vector3D();
+        for (int n = 0; n < 1000; n++) {
+            buffer.clear();
+            for (int i = 0; i < 3; i++) {
+                buffer.add(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1);
+            }
+            buffer.project(transformer, rotation);
+
+            buffer.getProjected(0, v0);
+            buffer.getProjected(1, v1);
+            buffer.getProjected(2, v2);
+            Vector3D normal = v0.subtractFrom(v1).cross(v0.subtractFrom(v2)).normalize();
+
+            assertEquals(normal.dot(Vector3D.LEFT_HANDED) >= 0f, buffer.isFrontFacing(0, 1, 2));
+        }
+    }
+}